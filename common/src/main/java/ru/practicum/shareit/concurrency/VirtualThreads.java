@@ -0,0 +1,24 @@
+package ru.practicum.shareit.concurrency;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/* Virtual threads came with Java 21 and the gateway and the server are built for older ones, so they are
+looked up at runtime. On an older Java there is no executor and the caller keeps its platform threads. */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    // An executor that starts a new virtual thread for every task
+    public static Optional<ExecutorService> newPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null));
+        } catch (ReflectiveOperationException e) {
+            // no such method before Java 19, a preview one without --enable-preview in Java 19 and 20
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/* The mappings and the validation rules of /bookings, declared once for both gateways: BookingController serves them
+in the servlet one and ReactiveBookingController in the reactive one. T is the answer of a handler on its stack.
+The controllers inherit the annotations and add none of their own. */
+@RequestMapping(path = "/bookings")
+public interface BookingApi<T> {
+    // A batch of status changes is applied in one transaction, so its size is limited
+    int MAX_BATCH_SIZE = 100;
+
+    @GetMapping
+    T getBookings(@NotNull(message = "The X-Sharer-User-Id is missing")
+                  @Positive(message = "'userId' must be positive")
+                  @RequestHeader("X-Sharer-User-Id") long userId,
+                  @RequestParam(name = "state", defaultValue = "all") String stateParam,
+                  @PositiveOrZero(message = "'from' must be positive or zero")
+                  @RequestParam(name = "from", defaultValue = "0") Integer from,
+                  @Positive(message = "'size' must be positive")
+                  @RequestParam(name = "size", defaultValue = "10") Integer size,
+                  @RequestParam(name = "cursor", required = false) String cursor);
+
+    @PostMapping
+    T bookItem(@NotNull(message = "The X-Sharer-User-Id is missing")
+               @Positive(message = "'userId' must be positive")
+               @RequestHeader("X-Sharer-User-Id") long userId,
+               @RequestBody @Valid BookItemRequestDto requestDto);
+
+    @PatchMapping("/{bookingId}")
+    T changeRequestStatus(@NotNull(message = "The X-Sharer-User-Id is missing")
+                          @Positive(message = "'userId' must be positive")
+                          @RequestHeader("X-Sharer-User-Id") long userId,
+                          @Positive(message = "'bookingId' must be positive")
+                          @PathVariable("bookingId") Long bookingId,
+                          @NotNull(message = "'approved' must be specified")
+                          @RequestParam(name = "approved") Boolean approved);
+
+    @PatchMapping
+    T changeRequestStatuses(@NotNull(message = "The X-Sharer-User-Id is missing")
+                            @Positive(message = "'userId' must be positive")
+                            @RequestHeader("X-Sharer-User-Id") long userId,
+                            @NotNull(message = "'approved' must be specified")
+                            @RequestParam(name = "approved") Boolean approved,
+                            @NotEmpty(message = "The list of booking ids is empty")
+                            @Size(max = MAX_BATCH_SIZE, message = "At most 100 bookings can be changed at once")
+                            @RequestBody List<@NotNull(message = "'bookingId' is missing")
+                            @Positive(message = "'bookingId' must be positive") Long> bookingIds);
+
+    @GetMapping("/{bookingId}")
+    T getBooking(@NotNull(message = "The X-Sharer-User-Id is missing")
+                 @Positive(message = "'userId' must be positive")
+                 @RequestHeader("X-Sharer-User-Id") long userId,
+                 @Positive(message = "'bookingId' must be positive")
+                 @PathVariable Long bookingId);
+
+    @GetMapping("/owner")
+    T getAllBookingsOfItemsOwner(@NotNull(message = "The X-Sharer-User-Id is missing")
+                                 @Positive(message = "'userId' must be positive")
+                                 @RequestHeader("X-Sharer-User-Id") Long userId,
+                                 @RequestParam(name = "state", required = false,
+                                         defaultValue = "ALL") String stateParam,
+                                 @PositiveOrZero(message = "'from' must be positive or zero")
+                                 @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                 @Positive(message = "Значение size должно быть позитивным")
+                                 @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                 @RequestParam(name = "cursor", required = false) String cursor);
+
+    static BookingState parseState(String stateParam) {
+        return BookingState.from(stateParam)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown state: " + stateParam));
+    }
+}
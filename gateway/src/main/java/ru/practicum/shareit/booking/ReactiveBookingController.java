@@ -0,0 +1,77 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.booking.dto.BookingState;
+
+import java.util.List;
+
+// BookingApi in the reactive gateway, the servlet gateway serves it with BookingController
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingController implements BookingApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveBookingClient bookingClient;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookings(long userId, String stateParam, Integer from,
+                                                              Integer size, String cursor) {
+        log.info("Get booking with state {}, userId={}, from={}, size={}, cursor={}",
+                stateParam, userId, from, size, cursor);
+        BookingState state = BookingApi.parseState(stateParam);
+        if (cursor != null) {
+            return bookingClient.getBookingsByCursor(userId, state, cursor, size);
+        }
+        return bookingClient.getBookings(userId, state, from, size);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> bookItem(long userId, BookItemRequestDto requestDto) {
+        log.info("Creating booking {}, userId={}", requestDto, userId);
+        return bookingClient.bookItem(userId, requestDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> changeRequestStatus(long userId, Long bookingId, Boolean approved) {
+        log.info("Received a request: PATCH/bookings/{}?approved={{}} from user id = {} ",
+                bookingId, approved, userId);
+        return bookingClient.updateBookingStatus(userId, bookingId, approved);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> changeRequestStatuses(long userId, Boolean approved,
+                                                                        List<Long> bookingIds) {
+        log.info("Received a request: PATCH/bookings?approved={} from user id = {} for bookings {}",
+                approved, userId, bookingIds);
+        return bookingClient.updateBookingStatuses(userId, bookingIds, approved);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBooking(long userId, Long bookingId) {
+        log.info("Get booking {}, userId={}", bookingId, userId);
+        return bookingClient.getBooking(userId, bookingId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllBookingsOfItemsOwner(Long userId, String stateParam,
+                                                                             Integer from, Integer size,
+                                                                             String cursor) {
+        log.info("Received a request: GET/bookings/owner?state={}&from={}&size={}&cursor={} from user id = {}",
+                stateParam, from, size, cursor, userId);
+        BookingState state = BookingApi.parseState(stateParam);
+        if (cursor != null) {
+            return bookingClient.getAllBookingsOfItemsOwnerByCursor(userId, state, cursor, size);
+        }
+        return bookingClient.getAllBookingsOfItemsOwner(userId, state, from, size);
+    }
+}
@@ -14,6 +14,7 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@StartBeforeEnd
 public class BookItemRequestDto {
 	private long itemId;
 	@FutureOrPresent(message = "'start' cannot be in the past")
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import javax.validation.Constraint;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// A booking may not start after it ends; a missing date is left to the constraints of its field
+@Documented
+@Constraint(validatedBy = StartBeforeEndValidator.class)
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StartBeforeEnd {
+    String message() default "Start cannot be after end";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
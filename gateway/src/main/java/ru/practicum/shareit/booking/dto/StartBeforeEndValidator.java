@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+public class StartBeforeEndValidator implements ConstraintValidator<StartBeforeEnd, BookItemRequestDto> {
+
+    @Override
+    public boolean isValid(BookItemRequestDto booking, ConstraintValidatorContext context) {
+        return booking.getStart() == null || booking.getEnd() == null || !booking.getStart().isAfter(booking.getEnd());
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.NoneNestedConditions;
+
+/* Matches the servlet gateway and contexts without a web server, such as client tests.
+The blocking transport and its pool of connections are only created there. */
+public class NotReactiveCondition extends NoneNestedConditions {
+
+    NotReactiveCondition() {
+        super(ConfigurationPhase.REGISTER_BEAN);
+    }
+
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class Reactive {
+    }
+}
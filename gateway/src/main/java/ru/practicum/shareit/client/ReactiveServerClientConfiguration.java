@@ -0,0 +1,58 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/* The reactive gateway: requests are taken by Netty and sent to the server through one pool of connections
+with the settings of the servlet one. A request waits for a free connection no longer than
+the connection request timeout. Netty is chosen explicitly, since Tomcat is on the classpath as well. */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveServerClientConfiguration {
+
+    /* reactor.netty.connection.provider.active.connections, idle.connections and pending.connections
+    against max.connections show how full the pool is */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(
+            @Value("${shareit-server.http.max-per-route:50}") int maxConnections,
+            @Value("${shareit-server.http.connection-request-timeout:5s}") Duration connectionRequestTimeout,
+            @Value("${shareit-server.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${shareit-server.http.max-idle-time:60s}") Duration maxIdleTime) {
+        return ConnectionProvider.builder(ServerHttpClientConfiguration.POOL_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(connectionRequestTimeout)
+                .maxLifeTime(keepAlive)
+                .maxIdleTime(maxIdleTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector serverConnector(ConnectionProvider serverConnectionProvider,
+                                               @Value("${shareit-server.http.connect-timeout:2s}")
+                                               Duration connectTimeout,
+                                               @Value("${shareit-server.http.read-timeout:30s}")
+                                               Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
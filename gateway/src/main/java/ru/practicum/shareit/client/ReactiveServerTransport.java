@@ -0,0 +1,21 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/* The ServerTransport of the reactive gateway: the request is sent when the answer is subscribed to,
+and no thread waits for it. The answer is passed on the same way. */
+public interface ReactiveServerTransport {
+
+    Mono<ResponseEntity<Flux<DataBuffer>>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                          @Nullable Map<String, Object> parameters, @Nullable Object body);
+
+    // A GET whose answer is read whole, sent with If-None-Match when a tag is given
+    Mono<ServerAnswer> fetch(String path, @Nullable Long userId, @Nullable String ifNoneMatch);
+}
@@ -0,0 +1,138 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+// Sends requests with a RestTemplate, on the thread of the servlet gateway that waits for the answer
+public class RestTemplateTransport implements ServerTransport {
+    private final RestTemplate rest;
+
+    public RestTemplateTransport(RestTemplate rest) {
+        this.rest = rest;
+    }
+
+    @Override
+    public ResponseEntity<Object> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                           @Nullable Map<String, Object> parameters, @Nullable Object body) {
+        return makeAndSendRequest(method, path, userId, parameters, body);
+    }
+
+    @Override
+    public ServerAnswer fetch(String path, @Nullable Long userId, @Nullable String ifNoneMatch) {
+        return read(path, userId, ifNoneMatch);
+    }
+
+    /* Sends the body as it is written, without holding it in memory, when the request factory does not buffer it.
+    The answer of the server is read as the given type. */
+    public ResponseEntity<Object> post(String path, Long userId, MediaType contentType,
+                                       StreamingHttpOutputMessage.Body body, Class<?> responseType) {
+        HttpMessageConverterExtractor<?> extractor = new HttpMessageConverterExtractor<>(responseType,
+                rest.getMessageConverters());
+        try {
+            return rest.execute(path, HttpMethod.POST, request -> {
+                request.getHeaders().addAll(BaseClient.defaultHeaders(userId));
+                request.getHeaders().setContentType(contentType);
+                if (request instanceof StreamingHttpOutputMessage) {
+                    ((StreamingHttpOutputMessage) request).setBody(body);
+                } else {
+                    body.writeTo(request.getBody());
+                }
+            }, response -> ResponseEntity.status(response.getRawStatusCode())
+                    .body(extractor.extractData(response)));
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+        }
+    }
+
+    /* The body of the answer is copied to the client of the gateway as it comes from the server,
+    so a long list is never held in memory. The connection is released once the body is copied. */
+    public ResponseEntity<StreamingResponseBody> stream(String path, Long userId, MediaType accept) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(BaseClient.defaultHeaders(userId));
+            request.getHeaders().setAccept(List.of(accept, MediaType.APPLICATION_JSON));
+            ClientHttpResponse response = request.execute();
+            return ResponseEntity.status(response.getRawStatusCode())
+                    .contentType(response.getHeaders().getContentType())
+                    .body(out -> {
+                        try (response) {
+                            StreamUtils.copy(response.getBody(), out);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    /* The answer of the server, an error as well, is passed on as it is: the status, the headers and the bytes
+    of the body, which are copied to the client of the gateway as they come and never parsed.
+    The connection is released once the body is copied. */
+    private ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId,
+                                                      @Nullable Map<String, Object> parameters,
+                                                      @Nullable Object body) {
+        URI uri = parameters != null ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, method);
+            rest.httpEntityCallback(new HttpEntity<>(body, BaseClient.defaultHeaders(userId))).doWithRequest(request);
+            ClientHttpResponse response = request.execute();
+            ResponseEntity.BodyBuilder answer = ResponseEntity.status(response.getRawStatusCode())
+                    .headers(BaseClient.passedOnHeaders(response.getHeaders()));
+            if (!hasBody(response)) {
+                response.close();
+                return answer.build();
+            }
+            return answer.body(new InputStreamResource(new FilterInputStream(response.getBody()) {
+                @Override
+                public void close() {
+                    response.close();
+                }
+            }));
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": "
+                    + e.getMessage(), e);
+        }
+    }
+
+    private ServerAnswer read(String path, @Nullable Long userId, @Nullable String ifNoneMatch) {
+        URI uri = rest.getUriTemplateHandler().expand(path);
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(BaseClient.defaultHeaders(userId));
+            if (ifNoneMatch != null) {
+                request.getHeaders().setIfNoneMatch(ifNoneMatch);
+            }
+            try (ClientHttpResponse response = request.execute()) {
+                return new ServerAnswer(response.getRawStatusCode(), BaseClient.passedOnHeaders(response.getHeaders()),
+                        StreamUtils.copyToByteArray(response.getBody()));
+            }
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    private static boolean hasBody(ClientHttpResponse response) throws IOException {
+        int status = response.getRawStatusCode();
+        return status >= 200 && status != 204 && status != 304 && response.getHeaders().getContentLength() != 0;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.client;
+
+import org.apache.http.client.HttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+// Transports of the servlet gateway, all of them share the pool of connections of ServerHttpClientConfiguration
+@Component
+@Conditional(NotReactiveCondition.class)
+public class RestTemplateTransports {
+    private final String serverUrl;
+    private final RestTemplateBuilder builder;
+    private final HttpClient serverHttpClient;
+
+    public RestTemplateTransports(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                                  HttpClient serverHttpClient) {
+        this.serverUrl = serverUrl;
+        this.builder = builder;
+        this.serverHttpClient = serverHttpClient;
+    }
+
+    public RestTemplateTransport create(String apiPrefix) {
+        return new RestTemplateTransport(restTemplate(apiPrefix,
+                new HttpComponentsClientHttpRequestFactory(serverHttpClient)));
+    }
+
+    // Bodies are sent as they are written, so an upload is passed on while it is still being received
+    public RestTemplateTransport createStreaming(String apiPrefix) {
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(serverHttpClient);
+        requestFactory.setBufferRequestBody(false);
+        return new RestTemplateTransport(restTemplate(apiPrefix, requestFactory));
+    }
+
+    private RestTemplate restTemplate(String apiPrefix, HttpComponentsClientHttpRequestFactory requestFactory) {
+        return builder
+                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + apiPrefix))
+                .requestFactory(() -> requestFactory)
+                .build();
+    }
+}
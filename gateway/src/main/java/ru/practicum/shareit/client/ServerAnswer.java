@@ -0,0 +1,33 @@
+package ru.practicum.shareit.client;
+
+import lombok.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+
+// An answer of the server read whole: the status, the headers to pass on and the bytes of the body
+@Value
+public class ServerAnswer {
+    int status;
+    HttpHeaders headers;
+    byte[] body;
+
+    @Nullable
+    public String getETag() {
+        return headers.getETag();
+    }
+
+    public ResponseEntity<Object> toResponseEntity() {
+        ResponseEntity.BodyBuilder answer = ResponseEntity.status(status).headers(headers);
+        return body.length == 0 ? answer.build() : answer.body(body);
+    }
+
+    // The bytes are wrapped in a buffer, not copied
+    public ResponseEntity<Flux<DataBuffer>> toReactiveResponseEntity() {
+        return ResponseEntity.status(status).headers(headers).body(body.length == 0 ? Flux.empty()
+                : Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)));
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/* Answers of the server kept with their ETag, per client, path and X-Sharer-User-Id. A kept answer is never
+served blind: the request still goes to the server, with If-None-Match, and a 304, which the server gives
+without reading its database, is answered with the kept bytes. The cache is bounded by the number of answers
+and by their bytes: an answer weighs its bytes but no less than max-weight / max-size, so neither bound
+is passed. Answers larger than max-answer-size are passed on and not kept.
+/actuator/metrics/shareit.answer-cache.requests shows the revalidations by result (not_modified is a hit),
+shareit.answer-cache.bytes.saved the bytes not sent by the server, size and weight what is kept. */
+@Component
+public class ServerAnswerCache implements MeterBinder {
+    public static final String METRIC_PREFIX = "shareit.answer-cache";
+
+    private final Cache<Key, ServerAnswer> answers;
+    private final long maxAnswerSize;
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder modified = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public ServerAnswerCache(@Value("${shareit-server.answer-cache.max-size:10000}") long maxSize,
+                             @Value("${shareit-server.answer-cache.max-weight:16MB}") DataSize maxWeight,
+                             @Value("${shareit-server.answer-cache.max-answer-size:64KB}") DataSize maxAnswerSize) {
+        int minWeight = (int) Math.max(1, maxWeight.toBytes() / Math.max(1, maxSize));
+        this.answers = Caffeine.newBuilder()
+                .maximumWeight(maxWeight.toBytes())
+                .<Key, ServerAnswer>weigher((key, answer) -> Math.max(minWeight, answer.getBody().length))
+                .recordStats()
+                .build();
+        this.maxAnswerSize = maxAnswerSize.toBytes();
+    }
+
+    // The answer of a GET of one resource, revalidated when it is kept
+    public ResponseEntity<Object> get(ServerTransport transport, String path, @Nullable Long userId) {
+        Key key = new Key(transport, path, userId);
+        ServerAnswer kept = answers.getIfPresent(key);
+        return answerWith(key, kept, transport.fetch(path, userId, kept == null ? null : kept.getETag()))
+                .toResponseEntity();
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> get(ReactiveServerTransport transport, String path,
+                                                      @Nullable Long userId) {
+        Key key = new Key(transport, path, userId);
+        ServerAnswer kept = answers.getIfPresent(key);
+        return transport.fetch(path, userId, kept == null ? null : kept.getETag())
+                .map(answer -> answerWith(key, kept, answer).toReactiveResponseEntity());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(METRIC_PREFIX + ".requests", notModified, LongAdder::sum)
+                .tag("result", "not_modified")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".requests", modified, LongAdder::sum)
+                .tag("result", "modified")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".requests", missed, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".bytes.saved", bytesSaved, LongAdder::sum)
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".evictions", answers, cache -> cache.stats().evictionCount())
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", answers, Cache::estimatedSize)
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".weight", answers, cache -> cache.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .baseUnit(BaseUnits.BYTES)
+                .register(registry);
+    }
+
+    // The answer to serve: the kept one when the server did not change it
+    private ServerAnswer answerWith(Key key, @Nullable ServerAnswer kept, ServerAnswer answer) {
+        if (kept != null && answer.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+            notModified.increment();
+            bytesSaved.add(kept.getBody().length);
+            return kept;
+        }
+        (kept == null ? missed : modified).increment();
+        if (answer.getStatus() == HttpStatus.OK.value() && answer.getETag() != null
+                && answer.getBody().length <= maxAnswerSize) {
+            answers.put(key, answer);
+        } else if (kept != null) {
+            answers.invalidate(key);
+        }
+        return answer;
+    }
+
+    // The transport stands for the client and its API path, it is compared by identity
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final Object transport;
+        private final String path;
+        private final Long userId;
+    }
+}
@@ -0,0 +1,93 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.MicrometerHttpRequestExecutor;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/* One pool of connections to the server for all the clients of the gateway. Every request goes
+to the same host, so the limit per route is the real limit and the total only has to be no smaller.
+A request waits for a free connection no longer than the connection request timeout and then fails,
+instead of holding the thread of the gateway. */
+@Configuration
+@Conditional(NotReactiveCondition.class)
+public class ServerHttpClientConfiguration {
+    public static final String POOL_NAME = "shareit-server";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serverConnectionManager(
+            @Value("${shareit-server.http.max-per-route:50}") int maxPerRoute,
+            @Value("${shareit-server.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        return connectionManager(maxPerRoute, validateAfterInactivity);
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serverHttpClient(
+            PoolingHttpClientConnectionManager serverConnectionManager,
+            MeterRegistry meterRegistry,
+            @Value("${shareit-server.http.connect-timeout:2s}") Duration connectTimeout,
+            @Value("${shareit-server.http.read-timeout:30s}") Duration readTimeout,
+            @Value("${shareit-server.http.connection-request-timeout:5s}") Duration connectionRequestTimeout,
+            @Value("${shareit-server.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${shareit-server.http.max-idle-time:60s}") Duration maxIdleTime) {
+        return httpClient(serverConnectionManager, meterRegistry, connectTimeout, readTimeout,
+                connectionRequestTimeout, keepAlive, maxIdleTime);
+    }
+
+    /* httpcomponents.httpclient.pool.total.connections with state=leased|available against
+    httpcomponents.httpclient.pool.total.max show how full the pool is,
+    httpcomponents.httpclient.pool.total.pending counts the requests waiting for a connection */
+    @Bean
+    public MeterBinder serverConnectionPoolMetrics(PoolingHttpClientConnectionManager serverConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(serverConnectionManager, POOL_NAME);
+    }
+
+    static PoolingHttpClientConnectionManager connectionManager(int maxPerRoute, Duration validateAfterInactivity) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxPerRoute);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+        return connectionManager;
+    }
+
+    // httpcomponents.httpclient.request times every request to the server by method and status
+    static CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager,
+                                          MeterRegistry meterRegistry, Duration connectTimeout,
+                                          Duration readTimeout, Duration connectionRequestTimeout,
+                                          Duration keepAlive, Duration maxIdleTime) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy(keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleTime.toMillis(), TimeUnit.MILLISECONDS)
+                .setRequestExecutor(MicrometerHttpRequestExecutor.builder(meterRegistry).build())
+                .build();
+    }
+
+    // A connection is kept for as long as the server allows, but never longer than the given time
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(Duration keepAlive) {
+        return (response, context) -> {
+            long allowed = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return allowed > 0 ? Math.min(allowed, keepAlive.toMillis()) : keepAlive.toMillis();
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/* Sends the requests of one client to its API path on the server, on the thread that waits for the answer.
+The answer of the server, an error as well, is passed on as it is: its status, its headers and the bytes
+of its body, which the gateway never parses. The body holds the connection until it is written
+to the client of the gateway or closed. */
+public interface ServerTransport {
+
+    ResponseEntity<Object> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                    @Nullable Map<String, Object> parameters, @Nullable Object body);
+
+    // A GET whose answer is read whole, sent with If-None-Match when a tag is given
+    ServerAnswer fetch(String path, @Nullable Long userId, @Nullable String ifNoneMatch);
+}
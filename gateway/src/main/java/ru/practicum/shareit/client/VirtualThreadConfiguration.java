@@ -0,0 +1,41 @@
+package ru.practicum.shareit.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.concurrency.VirtualThreads;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/* Runs every request of the servlet gateway on a virtual thread of its own instead of the bounded pool
+of Tomcat threads. A request waits for the server nearly all the time, and a waiting virtual thread
+holds no platform thread. The pool of connections to the server stays the limit.
+Virtual threads need Java 21, on an older Java the requests stay on the pool of Tomcat threads. */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = VirtualThreadConfiguration.ENABLED_PROPERTY, havingValue = "true")
+public class VirtualThreadConfiguration {
+    public static final String ENABLED_PROPERTY = "shareit.virtual-threads.enabled";
+
+    private final Optional<ExecutorService> requestExecutor = VirtualThreads.newPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestExecutor() {
+        return protocolHandler -> requestExecutor.ifPresentOrElse(executor -> {
+            protocolHandler.setExecutor(executor);
+            log.info("Requests are handled on virtual threads");
+        }, () -> log.warn("Virtual threads need Java 21, requests are handled by the pool of Tomcat threads"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        requestExecutor.ifPresent(ExecutorService::shutdown);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.client;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/* Sends requests with a WebClient, no thread waits for the answer. The answer of the server is passed on as it is:
+the status, the headers and the buffers of the body, written on as they come and never parsed. */
+public class WebClientTransport implements ReactiveServerTransport {
+    private final WebClient webClient;
+
+    public WebClientTransport(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                                           @Nullable Map<String, Object> parameters,
+                                                           @Nullable Object body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters == null ? Map.of() : parameters)
+                .headers(headers -> headers.addAll(BaseClient.defaultHeaders(userId)));
+        WebClient.RequestHeadersSpec<?> requestWithBody = body == null ? request : request.bodyValue(body);
+        return requestWithBody.retrieve()
+                .onRawStatus(status -> status >= 400, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(WebClientTransport::passOn);
+    }
+
+    @Override
+    public Mono<ServerAnswer> fetch(String path, @Nullable Long userId, @Nullable String ifNoneMatch) {
+        return webClient.get()
+                .uri(path)
+                .headers(headers -> {
+                    headers.addAll(BaseClient.defaultHeaders(userId));
+                    if (ifNoneMatch != null) {
+                        headers.setIfNoneMatch(ifNoneMatch);
+                    }
+                })
+                .exchangeToMono(response -> DataBufferUtils.join(response.body(BodyExtractors.toDataBuffers()))
+                        .map(WebClientTransport::copyAndRelease)
+                        .defaultIfEmpty(new byte[0])
+                        .map(body -> new ServerAnswer(response.rawStatusCode(),
+                                BaseClient.passedOnHeaders(response.headers().asHttpHeaders()), body)));
+    }
+
+    // Sends the lines as they are emitted, the answer of the server is read as the given type
+    public Mono<ResponseEntity<Object>> post(String path, Long userId, MediaType contentType, Publisher<String> body,
+                                             Class<?> responseType) {
+        return webClient.post()
+                .uri(path)
+                .headers(headers -> headers.addAll(BaseClient.defaultHeaders(userId)))
+                .contentType(contentType)
+                .body(body, String.class)
+                .exchangeToMono(response -> readAnswer(response, responseType));
+    }
+
+    // The body of the answer, an error as well, is passed on buffer by buffer as it comes from the server
+    public Mono<ResponseEntity<Flux<DataBuffer>>> stream(String path, Long userId, MediaType accept) {
+        return webClient.get()
+                .uri(path)
+                .headers(headers -> headers.addAll(BaseClient.defaultHeaders(userId)))
+                .accept(accept, MediaType.APPLICATION_JSON)
+                .retrieve()
+                .onRawStatus(status -> status >= 400, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(answer -> ResponseEntity.status(answer.getStatusCodeValue())
+                        .contentType(answer.getHeaders().getContentType())
+                        .body(answer.getBody()));
+    }
+
+    // The body is written to the client of the gateway buffer by buffer as it comes from the server
+    private static ResponseEntity<Flux<DataBuffer>> passOn(ResponseEntity<Flux<DataBuffer>> answer) {
+        return ResponseEntity.status(answer.getStatusCodeValue())
+                .headers(BaseClient.passedOnHeaders(answer.getHeaders()))
+                .body(answer.getBody());
+    }
+
+    private static byte[] copyAndRelease(DataBuffer buffer) {
+        try {
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static Mono<ResponseEntity<Object>> readAnswer(ClientResponse response, Class<?> bodyType) {
+        ResponseEntity.BodyBuilder answer = ResponseEntity.status(response.rawStatusCode());
+        Mono<?> body = response.rawStatusCode() < 300 ? response.bodyToMono(bodyType)
+                : response.bodyToMono(byte[].class);
+        return body.<ResponseEntity<Object>>map(answer::body)
+                .defaultIfEmpty(answer.build());
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+// Transports of the reactive gateway, all of them share the pool of connections of ReactiveServerClientConfiguration
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class WebClientTransports {
+    private final String serverUrl;
+    private final WebClient.Builder builder;
+    private final ClientHttpConnector serverConnector;
+
+    public WebClientTransports(@Value("${shareit-server.url}") String serverUrl, WebClient.Builder builder,
+                               ClientHttpConnector serverConnector) {
+        this.serverUrl = serverUrl;
+        this.builder = builder;
+        this.serverConnector = serverConnector;
+    }
+
+    public WebClientTransport create(String apiPrefix) {
+        return new WebClientTransport(builder.clone()
+                .baseUrl(serverUrl + apiPrefix)
+                .clientConnector(serverConnector)
+                .build());
+    }
+}
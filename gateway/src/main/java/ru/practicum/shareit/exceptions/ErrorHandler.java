@@ -2,14 +2,16 @@ package ru.practicum.shareit.exceptions;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
-
-import java.util.Objects;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
 @Slf4j
 @RestControllerAdvice
@@ -19,15 +21,23 @@ public class ErrorHandler {
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMethodArgumentNotValidException(final MethodArgumentNotValidException e) {
         logMakeNote(e);
-        ErrorResponse answer;
-        try {
-            answer = new ErrorResponse(String.format("An error occurred while processing the %s field. %s",
-                    Objects.requireNonNull(e.getFieldError()).getField(),
-                    e.getFieldError().getDefaultMessage()));
-        } catch (NullPointerException ex) {
-            answer = new ErrorResponse("Validation error");
-        }
-        return answer;
+        return describe(e.getBindingResult());
+    }
+
+    // the reactive gateway reports an invalid request body with its own exception
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleWebExchangeBindException(final WebExchangeBindException e) {
+        logMakeNote(e);
+        return describe(e.getBindingResult());
+    }
+
+    // a missing or malformed header, parameter or body of the reactive gateway
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleServerWebInputException(final ServerWebInputException e) {
+        logMakeNote(e);
+        return new ErrorResponse(String.format("Error: %s", e.getReason()));
     }
 
     @ExceptionHandler
@@ -66,6 +76,19 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    // an error of the whole body, such as a booking that starts after it ends, has no field to name
+    private static ErrorResponse describe(BindingResult result) {
+        FieldError fieldError = result.getFieldError();
+        if (fieldError != null) {
+            return new ErrorResponse(String.format("An error occurred while processing the %s field. %s",
+                    fieldError.getField(), fieldError.getDefaultMessage()));
+        }
+        if (result.getGlobalError() != null) {
+            return new ErrorResponse(String.format("Error: %s", result.getGlobalError().getDefaultMessage()));
+        }
+        return new ErrorResponse("Validation error");
+    }
+
     private void logMakeNote(Exception e) {
         log.warn("Error: '{}', '{}'", e.getMessage(), e.getStackTrace());
     }
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.ItemReqDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+/* The mappings and the validation rules of /items, declared once for both gateways: ItemController serves them
+in the servlet one and ReactiveItemController in the reactive one. T is the answer of a handler on its stack. */
+@RequestMapping(path = "/items")
+public interface ItemApi<T> {
+
+    @GetMapping("/{itemId}")
+    T getItemById(@NotNull(message = "The X-Sharer-User-Id is missing")
+                  @Positive(message = "id must be positive")
+                  @RequestHeader("X-Sharer-User-Id") Long userId,
+                  @Positive(message = "id must be positive")
+                  @PathVariable Long itemId);
+
+    @GetMapping
+    T getAllItemsOfUser(@NotNull(message = "The X-Sharer-User-Id is missing")
+                        @Positive(message = "id must be positive")
+                        @RequestHeader("X-Sharer-User-Id") Long userId);
+
+    @PostMapping
+    T createItem(@NotNull(message = "The X-Sharer-User-Id is missing")
+                 @Positive(message = "id must be positive")
+                 @RequestHeader("X-Sharer-User-Id") Long userId,
+                 @Valid @RequestBody ItemReqDto itemDto);
+
+    @PatchMapping("/{itemId}")
+    T updateItem(@NotNull(message = "The X-Sharer-User-Id is missing")
+                 @Positive(message = "id must be positive")
+                 @RequestHeader("X-Sharer-User-Id") Long userId,
+                 @Positive(message = "id must be positive")
+                 @PathVariable Long itemId,
+                 @RequestBody ItemReqDto itemDto);
+
+    // поиск вещей по ключевым словам
+    @GetMapping("/search")
+    T searchForItemsByQueryText(@NotNull(message = "The X-Sharer-User-Id is missing")
+                                @Positive(message = "id must be positive")
+                                @RequestHeader("X-Sharer-User-Id") Long userId,
+                                @RequestParam String text,
+                                @PositiveOrZero(message = "'from' must be positive or zero")
+                                @RequestParam(required = false) Integer from,
+                                @Positive(message = "'size' must be positive")
+                                @RequestParam(required = false) Integer size);
+
+    @PostMapping("/{itemId}/comment")
+    T createComment(@NotNull(message = "The X-Sharer-User-Id is missing")
+                    @Positive(message = "id must be positive")
+                    @RequestHeader("X-Sharer-User-Id") Long userId,
+                    @Positive(message = "id must be positive")
+                    @PathVariable Long itemId,
+                    @Valid @RequestBody CommentRequestDto commentDto);
+
+    // A patch may leave a field out, but may not blank the name or change the id
+    static void checkUpdate(Long itemId, ItemReqDto itemDto) {
+        if (itemDto.getId() != null && !itemDto.getId().equals(itemId)) {
+            throw new ValidationException("Id вещи изменять нельзя");
+        }
+        if (itemDto.getName() != null && itemDto.getName().trim().isEmpty()) {
+            throw new ValidationException("Название вещи не должно быть пустым");
+        }
+    }
+}
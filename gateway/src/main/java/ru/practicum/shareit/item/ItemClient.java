@@ -1,13 +1,12 @@
 package ru.practicum.shareit.item;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerAnswerCache;
+import ru.practicum.shareit.client.NotReactiveCondition;
+import ru.practicum.shareit.client.RestTemplateTransports;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 
@@ -15,21 +14,16 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Service
+@Conditional(NotReactiveCondition.class)
 public class ItemClient extends BaseClient {
     private static final String API_PREFIX = "/items";
 
-    @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemClient(RestTemplateTransports transports, ServerAnswerCache answerCache) {
+        super(transports.create(API_PREFIX), answerCache);
     }
 
     public ResponseEntity<Object> getItemById(Long userId, Long itemId) {
-        return get("/" + itemId, userId);
+        return getRevalidated("/" + itemId, userId);
     }
 
     public ResponseEntity<Object> getAllItemsOfUser(Long userId) {
@@ -50,6 +44,15 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}", userId, searchText);
     }
 
+    public ResponseEntity<Object> searchForItemsByQueryText(Long userId, String text, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> createComment(Long userId, Long itemId, CommentRequestDto commentDto) {
         return post("/" + itemId + "/comment", userId, commentDto);
     }
@@ -2,95 +2,60 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PatchMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.client.NotReactiveCondition;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 
-import javax.validation.Valid;
-import javax.validation.constraints.NotNull;
-import javax.validation.constraints.Positive;
-
 @Controller
-@RequestMapping(path = "/items")
 @RequiredArgsConstructor
 @Slf4j
 @Validated
-public class ItemController {
+@Conditional(NotReactiveCondition.class)
+public class ItemController implements ItemApi<ResponseEntity<Object>> {
     private final ItemClient itemClient;
 
-    @GetMapping("/{itemId}")
-    public ResponseEntity<Object> getItemById(@NotNull(message = "The X-Sharer-User-Id is missing")
-                                              @Positive(message = "id must be positive")
-                                              @RequestHeader("X-Sharer-User-Id") Long userId,
-                                              @Positive(message = "id must be positive")
-                                              @PathVariable Long itemId) {
+    @Override
+    public ResponseEntity<Object> getItemById(Long userId, Long itemId) {
         log.info("Получен запрос GET/items/{} от пользователя id = {}", itemId, userId);
         return itemClient.getItemById(userId, itemId);
     }
 
-    @GetMapping
-    public ResponseEntity<Object> getAllItemsOfUser(@NotNull(message = "The X-Sharer-User-Id is missing")
-                                                    @Positive(message = "id must be positive")
-                                                    @RequestHeader("X-Sharer-User-Id") Long userId) {
+    @Override
+    public ResponseEntity<Object> getAllItemsOfUser(Long userId) {
         log.info("Получен запрос GET/items от пользователя id = {}", userId);
         return itemClient.getAllItemsOfUser(userId);
     }
 
-    @PostMapping
-    public ResponseEntity<Object> createItem(@NotNull(message = "The X-Sharer-User-Id is missing")
-                                             @Positive(message = "id must be positive")
-                                             @RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @Valid @RequestBody ItemReqDto itemDto) {
+    @Override
+    public ResponseEntity<Object> createItem(Long userId, ItemReqDto itemDto) {
         log.info("Получен запрос POST/items от пользователя id = {} с переданным телом: {}", userId, itemDto);
         return itemClient.createItem(userId, itemDto);
     }
 
-    @PatchMapping("/{itemId}")
-    public ResponseEntity<Object> updateItem(@NotNull(message = "The X-Sharer-User-Id is missing")
-                                             @Positive(message = "id must be positive")
-                                             @RequestHeader("X-Sharer-User-Id") Long userId,
-                                             @Positive(message = "id must be positive")
-                                             @PathVariable Long itemId,
-                                             @RequestBody ItemReqDto itemDto) {
+    @Override
+    public ResponseEntity<Object> updateItem(Long userId, Long itemId, ItemReqDto itemDto) {
         log.info("Получен запрос PATCH/items от пользователя id = {} для изменения вещи id = {} с переданным телом: {}",
                 userId, itemId, itemDto);
-        if (itemDto.getId() != null && !itemDto.getId().equals(itemId)) {
-            throw new ValidationException("Id вещи изменять нельзя");
-        }
-        if (itemDto.getName() != null && itemDto.getName().trim().isEmpty()) {
-            throw new ValidationException("Название вещи не должно быть пустым");
-        }
+        ItemApi.checkUpdate(itemId, itemDto);
         return itemClient.updateItem(userId, itemId, itemDto);
     }
 
-    // поиск вещей по ключевым словам
-    @GetMapping("/search")
-    public ResponseEntity<Object> searchForItemsByQueryText(@NotNull(message = "The X-Sharer-User-Id is missing")
-                                                            @Positive(message = "id must be positive")
-                                                            @RequestHeader("X-Sharer-User-Id") Long userId,
-                                                            @RequestParam String text) {
-        log.info("Получен запрос GET/items/search от пользователя id = {} с текстом запроса: {}", userId, text);
-        return itemClient.searchForItemsByQueryText(userId, text);
+    @Override
+    public ResponseEntity<Object> searchForItemsByQueryText(Long userId, String text, Integer from, Integer size) {
+        log.info("Получен запрос GET/items/search от пользователя id = {} с текстом запроса: {}, from={}, size={}",
+                userId, text, from, size);
+        if (from == null || size == null) {
+            return itemClient.searchForItemsByQueryText(userId, text);
+        }
+        return itemClient.searchForItemsByQueryText(userId, text, from, size);
     }
 
-    @PostMapping("/{itemId}/comment")
-    public ResponseEntity<Object> createComment(@NotNull(message = "The X-Sharer-User-Id is missing")
-                                                @Positive(message = "id must be positive")
-                                                @RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @Positive(message = "id must be positive")
-                                                @PathVariable Long itemId,
-                                                @Valid @RequestBody CommentRequestDto commentDto) {
+    @Override
+    public ResponseEntity<Object> createComment(Long userId, Long itemId, CommentRequestDto commentDto) {
         log.info("Получен запрос POST/items/{itemId}/comment от пользователя id = {} с отзывом для вещи id = {}, " +
                 "текст отзыва: {}", userId, itemId, commentDto);
         return itemClient.createComment(userId, itemId, commentDto);
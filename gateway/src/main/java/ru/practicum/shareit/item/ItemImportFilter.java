@@ -0,0 +1,77 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemReqDto;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/* Checks the lines of an NDJSON import with the constraints of ItemReqDto while they are passed on to the server.
+A line that is not a valid item is passed on as an empty one, so the server numbers the lines the same way. */
+@Component
+@RequiredArgsConstructor
+public class ItemImportFilter {
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public List<ItemImportError> copyValidLines(InputStream in, OutputStream out) throws IOException {
+        List<ItemImportError> rejected = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            writer.write(passOn(++lineNumber, line, rejected));
+        }
+        writer.flush();
+        return rejected;
+    }
+
+    // The same for the reactive gateway, a rejected line is added to the list when its turn comes
+    public Flux<String> validLines(Flux<String> lines, List<ItemImportError> rejected) {
+        return lines.index().map(line -> passOn(line.getT1() + 1, line.getT2(), rejected));
+    }
+
+    private String passOn(long lineNumber, String line, List<ItemImportError> rejected) {
+        String error = line.isBlank() ? null : validate(line);
+        if (error == null) {
+            return line + '\n';
+        }
+        rejected.add(new ItemImportError(lineNumber, error));
+        return "\n";
+    }
+
+    private String validate(String line) {
+        ItemReqDto itemDto;
+        try {
+            itemDto = objectMapper.readValue(line, ItemReqDto.class);
+        } catch (JsonProcessingException e) {
+            return "The line is not an item in JSON: " + e.getOriginalMessage();
+        }
+        Set<ConstraintViolation<ItemReqDto>> violations = validator.validate(itemDto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+}
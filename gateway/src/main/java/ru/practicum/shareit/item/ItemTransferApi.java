@@ -0,0 +1,29 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+/* The mappings and the validation rules of the import and export of items, declared once for both gateways:
+ItemTransferController serves them in the servlet one and ReactiveItemTransferController in the reactive one.
+The two read the lines of an import differently, B is what a handler takes them as; I and E are the answers
+to an import and an export on its stack. */
+@RequestMapping(path = "/items")
+public interface ItemTransferApi<B, I, E> {
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    I importItems(@NotNull(message = "The X-Sharer-User-Id is missing")
+                  @Positive(message = "id must be positive")
+                  @RequestHeader("X-Sharer-User-Id") Long userId,
+                  B body);
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    E exportItems(@NotNull(message = "The X-Sharer-User-Id is missing")
+                  @Positive(message = "id must be positive")
+                  @RequestHeader("X-Sharer-User-Id") Long userId);
+}
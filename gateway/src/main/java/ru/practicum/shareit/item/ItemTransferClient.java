@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.client.NotReactiveCondition;
+import ru.practicum.shareit.client.RestTemplateTransport;
+import ru.practicum.shareit.client.RestTemplateTransports;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+
+// Import and export of items for the servlet gateway, the bodies are streamed through blocking IO
+@Service
+@Conditional(NotReactiveCondition.class)
+public class ItemTransferClient {
+    private static final String API_PREFIX = "/items";
+
+    private final RestTemplateTransport transport;
+
+    public ItemTransferClient(RestTemplateTransports transports) {
+        this.transport = transports.createStreaming(API_PREFIX);
+    }
+
+    public ResponseEntity<Object> importItems(Long userId, StreamingHttpOutputMessage.Body ndjson) {
+        return transport.post("/import", userId, MediaType.APPLICATION_NDJSON, ndjson, ItemImportReport.class);
+    }
+
+    public ResponseEntity<StreamingResponseBody> exportItems(Long userId) {
+        return transport.stream("/export", userId, MediaType.APPLICATION_NDJSON);
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.client.NotReactiveCondition;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@Conditional(NotReactiveCondition.class)
+public class ItemTransferController
+        implements ItemTransferApi<InputStream, ResponseEntity<Object>, ResponseEntity<StreamingResponseBody>> {
+    private final ItemTransferClient itemTransferClient;
+    private final ItemImportFilter itemImportFilter;
+
+    // строки импорта проверяются здесь и передаются на сервер по мере чтения, неверные строки попадают в отчёт
+    @Override
+    public ResponseEntity<Object> importItems(Long userId, InputStream body) {
+        log.info("Получен запрос POST/items/import от пользователя id = {}", userId);
+        List<ItemImportError> rejected = new ArrayList<>();
+        ResponseEntity<Object> response = itemTransferClient.importItems(userId,
+                out -> rejected.addAll(itemImportFilter.copyValidLines(body, out)));
+        if (response.getBody() instanceof ItemImportReport) {
+            ((ItemImportReport) response.getBody()).addErrors(rejected);
+        }
+        return response;
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportItems(Long userId) {
+        log.info("Получен запрос GET/items/export от пользователя id = {}", userId);
+        return itemTransferClient.exportItems(userId);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ServerAnswerCache;
+import ru.practicum.shareit.client.WebClientTransports;
+import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.ItemReqDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/items";
+
+    public ReactiveItemClient(WebClientTransports transports, ServerAnswerCache answerCache) {
+        super(transports.create(API_PREFIX), answerCache);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemById(Long userId, Long itemId) {
+        return getRevalidated("/" + itemId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemsOfUser(Long userId) {
+        return get("/", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(Long userId, ItemReqDto itemDto) {
+        return post("/", userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(Long userId, Long itemId, ItemReqDto itemDto) {
+        return patch("/" + itemId, userId, itemDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> searchForItemsByQueryText(Long userId, String text) {
+        Map<String, Object> searchText = new HashMap<>();
+        searchText.put("text", text);
+        return get("/search?text={text}", userId, searchText);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>>
+    searchForItemsByQueryText(Long userId, String text, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "text", text,
+                "from", from,
+                "size", size
+        );
+        return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>>
+    createComment(Long userId, Long itemId, CommentRequestDto commentDto) {
+        return post("/" + itemId + "/comment", userId, commentDto);
+    }
+
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.CommentRequestDto;
+import ru.practicum.shareit.item.dto.ItemReqDto;
+
+// ItemApi in the reactive gateway, the servlet gateway serves it with ItemController
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemController implements ItemApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveItemClient itemClient;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemById(Long userId, Long itemId) {
+        log.info("Получен запрос GET/items/{} от пользователя id = {}", itemId, userId);
+        return itemClient.getItemById(userId, itemId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemsOfUser(Long userId) {
+        log.info("Получен запрос GET/items от пользователя id = {}", userId);
+        return itemClient.getAllItemsOfUser(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(Long userId, ItemReqDto itemDto) {
+        log.info("Получен запрос POST/items от пользователя id = {} с переданным телом: {}", userId, itemDto);
+        return itemClient.createItem(userId, itemDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(Long userId, Long itemId, ItemReqDto itemDto) {
+        log.info("Получен запрос PATCH/items от пользователя id = {} для изменения вещи id = {} с переданным телом: {}",
+                userId, itemId, itemDto);
+        ItemApi.checkUpdate(itemId, itemDto);
+        return itemClient.updateItem(userId, itemId, itemDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> searchForItemsByQueryText(Long userId, String text,
+                                                                            Integer from, Integer size) {
+        log.info("Получен запрос GET/items/search от пользователя id = {} с текстом запроса: {}, from={}, size={}",
+                userId, text, from, size);
+        if (from == null || size == null) {
+            return itemClient.searchForItemsByQueryText(userId, text);
+        }
+        return itemClient.searchForItemsByQueryText(userId, text, from, size);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createComment(Long userId, Long itemId,
+                                                                CommentRequestDto commentDto) {
+        log.info("Получен запрос POST/items/{itemId}/comment от пользователя id = {} с отзывом для вещи id = {}, " +
+                "текст отзыва: {}", userId, itemId, commentDto);
+        return itemClient.createComment(userId, itemId, commentDto);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.WebClientTransport;
+import ru.practicum.shareit.client.WebClientTransports;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+
+// Import and export of items for the reactive gateway, the bodies are streamed as Reactor publishers
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemTransferClient {
+    private static final String API_PREFIX = "/items";
+
+    private final WebClientTransport transport;
+
+    public ReactiveItemTransferClient(WebClientTransports transports) {
+        this.transport = transports.create(API_PREFIX);
+    }
+
+    public Mono<ResponseEntity<Object>> importItems(Long userId, Flux<String> ndjson) {
+        return transport.post("/import", userId, MediaType.APPLICATION_NDJSON, ndjson, ItemImportReport.class);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportItems(Long userId) {
+        return transport.stream("/export", userId, MediaType.APPLICATION_NDJSON);
+    }
+}
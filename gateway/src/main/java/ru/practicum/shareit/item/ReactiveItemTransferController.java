@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// ItemTransferApi in the reactive gateway: the body is read and passed on to the server line by line, without blocking
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemTransferController implements ItemTransferApi<Flux<String>, Mono<ResponseEntity<Object>>,
+        Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveItemTransferClient itemTransferClient;
+    private final ItemImportFilter itemImportFilter;
+
+    // the lines of the body come without separators, blank ones too, so their numbers match those of the server
+    @Override
+    public Mono<ResponseEntity<Object>> importItems(Long userId, @RequestBody Flux<String> lines) {
+        log.info("Получен запрос POST/items/import от пользователя id = {}", userId);
+        List<ItemImportError> rejected = new CopyOnWriteArrayList<>();
+        return itemTransferClient.importItems(userId, itemImportFilter.validLines(lines, rejected))
+                .doOnNext(response -> {
+                    if (response.getBody() instanceof ItemImportReport) {
+                        ((ItemImportReport) response.getBody()).addErrors(rejected);
+                    }
+                });
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportItems(Long userId) {
+        log.info("Получен запрос GET/items/export от пользователя id = {}", userId);
+        return itemTransferClient.exportItems(userId);
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemImportReport {
+    private long imported;
+    private List<ItemImportError> errors = new ArrayList<>();
+
+    // Adds the lines rejected before the import reached the server, keeping the errors in the order of lines
+    public void addErrors(List<ItemImportError> rejected) {
+        errors.addAll(rejected);
+        errors.sort(Comparator.comparingLong(ItemImportError::getLine));
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.requests;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import ru.practicum.shareit.requests.dto.RequestDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+
+/* The mappings and the validation rules of /requests, declared once for both gateways: ItemRequestController serves
+them in the servlet one and ReactiveItemRequestController in the reactive one. T is the answer of a handler
+on its stack. */
+@RequestMapping(path = "/requests")
+public interface ItemRequestApi<T> {
+
+    /*POST /requests — добавить новый запрос вещи. Основная часть запроса — текст запроса,
+    где пользователь описывает, какая именно вещь ему нужна.*/
+    @PostMapping
+    T createItemRequest(@RequestHeader("X-Sharer-User-Id") Long userId,
+                        @Valid @RequestBody RequestDto itemRequestDto);
+
+    /*GET /requests — получить список своих запросов вместе с данными об ответах на них.
+    Для каждого запроса должны указываться описание, дата и время создания и список ответов в формате: id вещи,
+    название, id владельца. Так в дальнейшем, используя указанные id вещей, можно будет получить подробную информацию
+    о каждой вещи. Запросы должны возвращаться в отсортированном порядке от более новых к более старым.
+    Если передан параметр cursor, возвращается страница размером size, а курсор следующей страницы
+    приходит в заголовке X-Next-Cursor.*/
+    @GetMapping
+    T getAllItemRequestsOfUser(@RequestHeader("X-Sharer-User-Id") Long userId,
+                               @RequestParam(name = "cursor", required = false) String cursor,
+                               @Positive(message = "'size' must be positive")
+                               @RequestParam(name = "size", defaultValue = "10") Integer size);
+
+    /*GET /requests/all?from={from}&size={size} — получить список запросов, созданных другими пользователями.
+    С помощью этого эндпоинта пользователи смогут просматривать существующие запросы, на которые они могли бы ответить.
+    Запросы сортируются по дате создания: от более новых к более старым. Результаты должны возвращаться постранично.
+    Для этого нужно передать два параметра: from — индекс первого элемента, начиная с 0, и size — количество элементов
+    для отображения. Вместо from можно передать cursor: тогда курсор следующей страницы приходит
+    в заголовке X-Next-Cursor.*/
+    @GetMapping("/all")
+    T getAllItemRequestsByParams(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                 @PositiveOrZero(message = "'from' must be positive or zero")
+                                 @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                 @Positive(message = "'size' must be positive")
+                                 @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                 @RequestParam(name = "cursor", required = false) String cursor);
+
+    /*GET /requests/{requestId} — получить данные об одном конкретном запросе вместе с данными об ответах на него
+    в том же формате, что и в эндпоинте GET /requests. Посмотреть данные об отдельном запросе может любой пользователь.*/
+    @GetMapping("/{requestId}")
+    T getItemRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                         @PathVariable Long requestId);
+}
@@ -1,29 +1,23 @@
 package ru.practicum.shareit.requests;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerAnswerCache;
+import ru.practicum.shareit.client.NotReactiveCondition;
+import ru.practicum.shareit.client.RestTemplateTransports;
 import ru.practicum.shareit.requests.dto.RequestDto;
 
 import java.util.Map;
 
 @Service
+@Conditional(NotReactiveCondition.class)
 public class ItemRequestClient extends BaseClient {
     private static final String API_PREFIX = "/requests";
 
-    @Autowired
-    public ItemRequestClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(
-                builder
-                        .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
-        );
+    public ItemRequestClient(RestTemplateTransports transports, ServerAnswerCache answerCache) {
+        super(transports.create(API_PREFIX), answerCache);
     }
 
     public ResponseEntity<Object> createItemRequest(RequestDto itemRequestDto, Long userId) {
@@ -35,6 +29,14 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
+    public ResponseEntity<Object> getItemRequestsOfUserByCursor(Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?cursor={cursor}&size={size}", userId, parameters);
+    }
+
 
     public ResponseEntity<Object> getAllItemRequestsByParams(Long userId, Integer from, Integer size) {
         Map<String, Object> parameters = Map.of(
@@ -44,7 +46,15 @@ public class ItemRequestClient extends BaseClient {
         return get("/all?from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> getAllItemRequestsByCursor(Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/all?cursor={cursor}&size={size}", userId, parameters);
+    }
+
     public ResponseEntity<Object> getItemRequestById(Long userId, Long requestId) {
-        return get("/" + requestId, userId);
+        return getRevalidated("/" + requestId, userId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.requests;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ServerAnswerCache;
+import ru.practicum.shareit.client.WebClientTransports;
+import ru.practicum.shareit.requests.dto.RequestDto;
+
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemRequestClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/requests";
+
+    public ReactiveItemRequestClient(WebClientTransports transports, ServerAnswerCache answerCache) {
+        super(transports.create(API_PREFIX), answerCache);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItemRequest(RequestDto itemRequestDto, Long userId) {
+        return post("", userId, itemRequestDto);
+    }
+
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemRequestsOfUser(Long userId) {
+        return get("", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>>
+    getItemRequestsOfUserByCursor(Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemRequestsByParams(Long userId, Integer from, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "size", size
+        );
+        return get("/all?from={from}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemRequestsByCursor(Long userId, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "cursor", cursor,
+                "size", size
+        );
+        return get("/all?cursor={cursor}&size={size}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemRequestById(Long userId, Long requestId) {
+        return getRevalidated("/" + requestId, userId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.requests;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.requests.dto.RequestDto;
+
+// ItemRequestApi in the reactive gateway, the servlet gateway serves it with ItemRequestController
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemRequestController implements ItemRequestApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveItemRequestClient itemRequestService;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItemRequest(Long userId, RequestDto itemRequestDto) {
+        log.info("Received a request: POST/requests from user id = {} with body: {}", userId, itemRequestDto);
+        return itemRequestService.createItemRequest(itemRequestDto, userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemRequestsOfUser(Long userId, String cursor, Integer size) {
+        log.info("Received a request: GET/requests?cursor={}&size={} from user id = {}", cursor, size, userId);
+        if (cursor != null) {
+            return itemRequestService.getItemRequestsOfUserByCursor(userId, cursor, size);
+        }
+        return itemRequestService.getAllItemRequestsOfUser(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemRequestsByParams(Long userId, Integer from, Integer size,
+                                                                             String cursor) {
+        log.info("Received a request: GET/requests/all?from={}&size={}&cursor={} from user id = {}",
+                from, size, cursor, userId);
+        if (cursor != null) {
+            return itemRequestService.getAllItemRequestsByCursor(userId, cursor, size);
+        }
+        return itemRequestService.getAllItemRequestsByParams(userId, from, size);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemRequestById(Long userId, Long requestId) {
+        log.info("Received a request: GET/requests/{} from user id = {} ", requestId, userId);
+        return itemRequestService.getItemRequestById(userId, requestId);
+    }
+}
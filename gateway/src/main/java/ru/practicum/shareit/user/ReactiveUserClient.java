@@ -0,0 +1,43 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.client.ServerAnswerCache;
+import ru.practicum.shareit.client.WebClientTransports;
+import ru.practicum.shareit.user.dto.UserRequestDto;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserClient extends ReactiveBaseClient {
+    private static final String API_PREFIX = "/users";
+
+    public ReactiveUserClient(WebClientTransports transports, ServerAnswerCache answerCache) {
+        super(transports.create(API_PREFIX), answerCache);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllUsers() {
+        return get("");
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(Long userId) {
+        return getRevalidated("/" + userId, null);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(UserRequestDto userDto) {
+        return post("", userDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(Long userId, UserRequestDto userDto) {
+        return patch("/" + userId, userDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteUserById(Long userId) {
+        return delete("/" + userId);
+    }
+
+}
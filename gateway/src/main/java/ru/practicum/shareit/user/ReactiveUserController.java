@@ -0,0 +1,53 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.user.dto.UserRequestDto;
+
+// UserApi in the reactive gateway, the servlet gateway serves it with UserController
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController implements UserApi<Mono<ResponseEntity<Flux<DataBuffer>>>> {
+    private final ReactiveUserClient userClient;
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllUsers() {
+        log.info("Received a request: GET/users");
+        return userClient.getAllUsers();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(Long userId) {
+        log.info("Received a request: GET/users/{}", userId);
+        return userClient.getUserById(userId);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(UserRequestDto userDto) {
+        log.info("Received a request: POST/users with request body: {}", userDto);
+        return userClient.createUser(userDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(Long userId, UserRequestDto userDto) {
+        log.info("Received a request: PATCH/users/{} with request body: {}", userId, userDto);
+        UserApi.checkUpdate(userId, userDto);
+        return userClient.updateUser(userId, userDto);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> deleteUserById(Long userId) {
+        log.info("Received a request: DELETE/users/{}", userId);
+        return userClient.deleteUserById(userId);
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.user;
+
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.user.dto.UserRequestDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+
+/* The mappings and the validation rules of /users, declared once for both gateways: UserController serves them
+in the servlet one and ReactiveUserController in the reactive one. T is the answer of a handler on its stack. */
+@RequestMapping(path = "/users")
+public interface UserApi<T> {
+
+    @GetMapping
+    T getAllUsers();
+
+    @GetMapping("/{userId}")
+    T getUserById(@Positive(message = "id must be positive")
+                  @PathVariable Long userId);
+
+    @PostMapping
+    T createUser(@Valid @RequestBody UserRequestDto userDto);
+
+    @PatchMapping("/{userId}")
+    T updateUser(@Positive(message = "id must be positive")
+                 @PathVariable Long userId,
+                 @RequestBody UserRequestDto userDto);
+
+    @DeleteMapping("/{userId}")
+    T deleteUserById(@Positive(message = "id must be positive")
+                     @PathVariable Long userId);
+
+    // A patch may leave a field out, but may not blank it or change the id
+    static void checkUpdate(Long userId, UserRequestDto userDto) {
+        if (userDto.getId() != null && !userDto.getId().equals(userId)) {
+            throw new ValidationException("You cannot change the user ID");
+        }
+        if (userDto.getName() != null && userDto.getName().trim().isEmpty()) {
+            throw new ValidationException("The name field must be filled in");
+        }
+        if (userDto.getEmail() != null && userDto.getEmail().trim().isEmpty()) {
+            throw new ValidationException("The email field must be filled in");
+        }
+    }
+}
@@ -1,26 +1,21 @@
 package ru.practicum.shareit.user;
 
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.ServerAnswerCache;
+import ru.practicum.shareit.client.NotReactiveCondition;
+import ru.practicum.shareit.client.RestTemplateTransports;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
 @Service
+@Conditional(NotReactiveCondition.class)
 public class UserClient extends BaseClient {
     private static final String API_PREFIX = "/users";
 
-    @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
-        super(builder
-                .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                .build()
-        );
+    public UserClient(RestTemplateTransports transports, ServerAnswerCache answerCache) {
+        super(transports.create(API_PREFIX), answerCache);
     }
 
     public ResponseEntity<Object> getAllUsers() {
@@ -28,7 +23,7 @@ public class UserClient extends BaseClient {
     }
 
     public ResponseEntity<Object> getUserById(Long userId) {
-        return get("/" + userId);
+        return getRevalidated("/" + userId, null);
     }
 
     public ResponseEntity<Object> createUser(UserRequestDto userDto) {
@@ -2,11 +2,13 @@ package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
 import org.junit.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -15,8 +17,10 @@ import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import ru.practicum.shareit.booking.dto.BookItemRequestDto;
+import ru.practicum.shareit.client.RestTemplateTransports;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.http.HttpMethod.GET;
@@ -29,12 +33,15 @@ import static org.springframework.test.web.client.response.MockRestResponseCreat
 import static ru.practicum.shareit.booking.dto.BookingState.ALL;
 
 @RunWith(SpringRunner.class)
-@RestClientTest(BookingClient.class)
+@RestClientTest({BookingClient.class, RestTemplateTransports.class})
 public class BookingClientTest {
     @Autowired
     BookingClient bookingClient;
     @Autowired
     private MockRestServiceServer mockServer;
+    // the requests go to the mock server, the pool of connections is never used
+    @MockBean
+    private HttpClient serverHttpClient;
     @Autowired
     private ObjectMapper mapper;
 
@@ -76,6 +83,19 @@ public class BookingClientTest {
         assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
+    @Test
+    public void shouldCallChangeRequestStatuses() throws JsonProcessingException {
+        mockServer.expect(ExpectedCount.once(), requestTo("http://localhost:9090/bookings?approved=true"))
+                .andExpect(method(PATCH))
+                .andExpect(content().json(mapper.writeValueAsString(List.of(1L, 2L))))
+                .andExpect(header("X-Sharer-User-Id", String.valueOf(1L)))
+                .andRespond(withStatus(HttpStatus.OK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                );
+        ResponseEntity<Object> result = bookingClient.updateBookingStatuses(1L, List.of(1L, 2L), true);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+    }
+
     @Test
     public void shouldCallGetBooking() {
         sendRequest("/1", GET);
@@ -90,6 +110,20 @@ public class BookingClientTest {
         assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
+    @Test
+    public void shouldCallGetBookingsByCursor() {
+        sendRequest("?state=ALL&cursor=abc&size=10", GET);
+        ResponseEntity<Object> result = bookingClient.getBookingsByCursor(1L, ALL, "abc", 10);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+    }
+
+    @Test
+    public void shouldCallGetAllBookingsOfItemsOwnerByCursor() {
+        sendRequest("/owner?state=ALL&cursor=abc&size=10", GET);
+        ResponseEntity<Object> result = bookingClient.getAllBookingsOfItemsOwnerByCursor(1L, ALL, "abc", 10);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+    }
+
     private void sendRequest(String addUrl, HttpMethod httpMethod) {
         mockServer.expect(ExpectedCount.once(), requestTo("http://localhost:9090/bookings" + addUrl))
                 .andExpect(method(httpMethod))
@@ -20,7 +20,10 @@ import ru.practicum.shareit.booking.dto.BookingState;
 import javax.validation.ConstraintViolationException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -104,6 +107,24 @@ public class BookingControllerTest {
                 .bookItem(any(Long.class), any(BookItemRequestDto.class));
     }
 
+    @Test
+    public void shouldThrowExceptionWhenStartIsAfterEnd() throws Exception {
+        BookItemRequestDto bookingDtoReversed = BookItemRequestDto.builder().start(minuteOfToday.plusDays(2))
+                .end(minuteOfToday.plusDays(1)).build();
+        mockMvc.perform(post("/bookings")
+                        .header("X-Sharer-User-Id", "1")
+                        .content(objectMapper.writeValueAsString(bookingDtoReversed))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(result -> assertTrue(result.getResolvedException() instanceof MethodArgumentNotValidException))
+                .andExpect(result -> assertTrue(Objects.requireNonNull(result.getResolvedException()).getMessage()
+                        .contains("Start cannot be after end")));
+        Mockito.verify(bookingClient, Mockito.times(0))
+                .bookItem(any(Long.class), any(BookItemRequestDto.class));
+    }
+
     @Test
     public void shouldThrowExceptionWhenBodyNotExists() throws Exception {
         mockMvc.perform(post("/bookings")
@@ -147,6 +168,53 @@ public class BookingControllerTest {
                 .updateBookingStatus(any(Long.class), any(Long.class), any(Boolean.class));
     }
 
+    // changeRequestStatuses
+    @Test
+    public void shouldCallChangeRequestStatuses() throws Exception {
+        when(bookingClient.updateBookingStatuses(1L, List.of(1L, 2L), true)).thenReturn(resp);
+        mockMvc.perform(patch("/bookings")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("approved", "true")
+                        .content(objectMapper.writeValueAsString(List.of(1L, 2L)))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        Mockito.verify(bookingClient, Mockito.times(1))
+                .updateBookingStatuses(1L, List.of(1L, 2L), true);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenBookingIdsAreEmptyOrNotPositive() throws Exception {
+        for (List<Long> bookingIds : List.of(List.<Long>of(), List.of(1L, -1L))) {
+            mockMvc.perform(patch("/bookings")
+                            .header("X-Sharer-User-Id", "1")
+                            .param("approved", "true")
+                            .content(objectMapper.writeValueAsString(bookingIds))
+                            .characterEncoding(StandardCharsets.UTF_8)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(result -> assertTrue(result.getResolvedException()
+                            instanceof ConstraintViolationException));
+        }
+        Mockito.verify(bookingClient, Mockito.times(0)).updateBookingStatuses(any(Long.class), any(), any());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenTooManyBookingIds() throws Exception {
+        List<Long> bookingIds = LongStream.rangeClosed(1, 101).boxed().collect(Collectors.toList());
+        mockMvc.perform(patch("/bookings")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("approved", "false")
+                        .content(objectMapper.writeValueAsString(bookingIds))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        Mockito.verify(bookingClient, Mockito.times(0)).updateBookingStatuses(any(Long.class), any(), any());
+    }
+
     // getBooking
     @Test
     public void shouldReturnBookingDtoAnswerFull() throws Exception {
@@ -285,6 +353,22 @@ public class BookingControllerTest {
                 any(BookingState.class), any(Integer.class), any(Integer.class));
     }
 
+    @Test
+    public void shouldCallGetBookingsByCursorWhenCursorPresent() throws Exception {
+        when(bookingClient.getBookingsByCursor(1L, ALL, "abc", 5)).thenReturn(resp);
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "abc")
+                        .param("size", "5")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        Mockito.verify(bookingClient, Mockito.times(1)).getBookingsByCursor(1L, ALL, "abc", 5);
+        Mockito.verify(bookingClient, Mockito.times(0)).getBookings(any(Long.class),
+                any(BookingState.class), any(Integer.class), any(Integer.class));
+    }
+
     // getAllBookingsOfItemsOwner
     @Test
     public void shouldCallGetAllBookingsOfItemsOwnerWhenAllRequestParametersPresent() throws Exception {
@@ -301,6 +385,19 @@ public class BookingControllerTest {
         Mockito.verify(bookingClient, Mockito.times(1)).getAllBookingsOfItemsOwner(1L, ALL, 0, 5);
     }
 
+    @Test
+    public void shouldCallGetAllBookingsOfItemsOwnerByCursorWhenCursorPresent() throws Exception {
+        when(bookingClient.getAllBookingsOfItemsOwnerByCursor(1L, ALL, "", 10)).thenReturn(resp);
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        Mockito.verify(bookingClient, Mockito.times(1)).getAllBookingsOfItemsOwnerByCursor(1L, ALL, "", 10);
+    }
+
     @Test
     public void shouldCallGetAllBookingsOfItemsOwnerWhenRequestParametersOnlyState() throws Exception {
         when(bookingClient.getAllBookingsOfItemsOwner(1L, ALL, null, null)).thenReturn(resp);
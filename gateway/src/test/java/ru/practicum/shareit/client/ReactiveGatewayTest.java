@@ -0,0 +1,254 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* The gateway with the reactive profile, in front of a stub of the server. The Reactive* controllers answer
+with the validation rules they share with the servlet ones, and waiting for the server does not hold a thread: many slow requests
+are served at once by the few threads of Netty. */
+@Slf4j
+@ActiveProfiles("reactive")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "shareit-server.http.max-per-route=500")
+class ReactiveGatewayTest {
+    private static final Duration SERVER_DELAY = Duration.ofMillis(200);
+    private static final int REQUESTS = 400;
+    private static final String VALID_ITEM =
+            "{\"name\": \"item1\", \"description\": \"description of item1\", \"available\": true}";
+
+    // laid out unlike Jackson does, to tell the bytes of the server from a body written anew
+    private static final String USERS = "[ {\"id\": 1,   \"name\": \"user1\"} ]";
+
+    private static final AtomicReference<String> importedBody = new AtomicReference<>();
+    private static ExecutorService serverThreads;
+    private static HttpServer server;
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), REQUESTS * 2);
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.createContext("/users", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/users/2")) {
+                respond(exchange, 404, "application/json",
+                        "{\"error\": \"The user with id = 2 is missing from the storage\"}");
+            } else if ("\"users-1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.getResponseHeaders().add("ETag", "\"users-1\"");
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                exchange.getResponseHeaders().add("ETag", "\"users-1\"");
+                respond(exchange, 200, "application/json", USERS);
+            }
+        });
+        server.createContext("/bookings", exchange -> {
+            try {
+                Thread.sleep(SERVER_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "application/json", "{\"id\": 1}");
+        });
+        server.createContext("/items/import", exchange -> {
+            importedBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            respond(exchange, 200, "application/json",
+                    "{\"imported\": 2, \"errors\": [{\"line\": 5, \"message\": \"The passed item request id was not found\"}]}");
+        });
+        server.createContext("/items/export", exchange ->
+                respond(exchange, 200, "application/x-ndjson", "{\"id\": 1}\n{\"id\": 2}\n"));
+        server.start();
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void shouldPassAnswerOfServerOn() {
+        webTestClient.get().uri("/users")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"users-1\"")
+                .expectBody(String.class).isEqualTo(USERS);
+    }
+
+    // the second answer is revalidated by the server with a 304 and served from the bytes the gateway kept
+    @Test
+    void shouldServeUnchangedUserFromKeptAnswer() {
+        double notModified = meterRegistry.get("shareit.answer-cache.requests").tag("result", "not_modified")
+                .functionCounter().count();
+        for (int i = 0; i < 2; i++) {
+            webTestClient.get().uri("/users/1")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().valueEquals("ETag", "\"users-1\"")
+                    .expectBody(String.class).isEqualTo(USERS);
+        }
+        assertEquals(notModified + 1, meterRegistry.get("shareit.answer-cache.requests")
+                .tag("result", "not_modified").functionCounter().count());
+    }
+
+    @Test
+    void shouldPassErrorOfServerOn() {
+        webTestClient.get().uri("/users/2")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("The user with id = 2 is missing from the storage");
+    }
+
+    @Test
+    void shouldRejectNegativeId() {
+        webTestClient.get().uri("/users/-1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRejectRequestWithoutUserId() {
+        webTestClient.get().uri("/bookings/1")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRejectInvalidBody() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \"user1\", \"email\": \"not an email\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("An error occurred while processing the email field. Email is not correct");
+    }
+
+    @Test
+    void shouldRejectBookingThatStartsAfterItEnds() {
+        webTestClient.post().uri("/bookings")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"itemId\": 1, \"start\": \"2100-01-02T00:00:00\", \"end\": \"2100-01-01T00:00:00\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Error: Start cannot be after end");
+    }
+
+    @Test
+    void shouldRejectPatchThatBlanksName() {
+        webTestClient.patch().uri("/users/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\": \" \"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Error: The name field must be filled in");
+    }
+
+    @Test
+    void shouldPassValidLinesOnAndReportTheOthers() {
+        String ndjson = VALID_ITEM + "\n{\"name\": \" \", \"available\": true}\n\nnot json\n" + VALID_ITEM;
+        webTestClient.post().uri("/items/import")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.imported").isEqualTo(2)
+                .jsonPath("$.errors[*].line").value(contains(2, 4, 5));
+        // the blank line is kept, so the server counts the lines the same way
+        assertEquals(VALID_ITEM + "\n\n\n\n" + VALID_ITEM + "\n", importedBody.get());
+    }
+
+    @Test
+    void shouldPassExportOfServerOn() {
+        webTestClient.get().uri("/items/export")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).isEqualTo("{\"id\": 1}\n{\"id\": 2}\n");
+    }
+
+    @Test
+    void shouldServeManySlowRequestsAtOnce() {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/bookings/1"))
+                .header("X-Sharer-User-Id", "1")
+                .build();
+        // the first round opens the connections of both sides
+        sendAtOnce(client, request);
+        long elapsedMillis = sendAtOnce(client, request);
+        log.info("{} requests to a server answering in {} ms took {} ms, {} per second", REQUESTS,
+                SERVER_DELAY.toMillis(), elapsedMillis, REQUESTS * 1000L / elapsedMillis);
+        // one after another they would take REQUESTS times the delay
+        assertTrue(elapsedMillis < SERVER_DELAY.toMillis() * REQUESTS / 20,
+                () -> String.format("%d requests took %d ms", REQUESTS, elapsedMillis));
+    }
+
+    private long sendAtOnce(HttpClient client, HttpRequest request) {
+        long started = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> responses = IntStream.range(0, REQUESTS)
+                .mapToObj(i -> client.sendAsync(request, HttpResponse.BodyHandlers.ofString()))
+                .collect(Collectors.toList());
+        responses.forEach(response -> assertEquals(200, response.join().statusCode()));
+        return Math.max(1, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().add("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length);
+            out.write(bytes);
+        }
+    }
+}
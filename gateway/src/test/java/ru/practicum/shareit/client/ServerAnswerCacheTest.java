@@ -0,0 +1,192 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* The servlet gateway in front of a stub of the server that tags its items and answers 304 to a matching
+If-None-Match. An unchanged item is revalidated and served from the kept bytes, a changed one is read anew. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ServerAnswerCacheTest {
+    private static final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private static final List<String> ifNoneMatchSeen = new CopyOnWriteArrayList<>();
+    private static ExecutorService serverThreads;
+    private static HttpServer server;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverThreads);
+        server.createContext("/items", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            long version = versions.computeIfAbsent(path, p -> new AtomicLong()).get();
+            String tag = "\"" + path + "-" + exchange.getRequestHeaders().getFirst("X-Sharer-User-Id") + "-"
+                    + version + "\"";
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatchSeen.add(String.valueOf(ifNoneMatch));
+            exchange.getResponseHeaders().add("ETag", tag);
+            if (tag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = itemOf(path, version);
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                out.write(body);
+            }
+        });
+        server.start();
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void shouldServeUnchangedItemFromKeptBytesAfterNotModified() throws IOException {
+        double notModified = requests("not_modified");
+        double saved = bytesSaved();
+        byte[] first = get("/items/1", 1);
+        ifNoneMatchSeen.clear();
+
+        byte[] second = get("/items/1", 1);
+
+        assertArrayEquals(itemOf("/items/1", 0), first);
+        assertArrayEquals(first, second);
+        assertEquals(List.of("\"/items/1-1-0\""), ifNoneMatchSeen);
+        assertEquals(notModified + 1, requests("not_modified"));
+        assertEquals(saved + first.length, bytesSaved());
+    }
+
+    @Test
+    void shouldReadChangedItemAnew() throws IOException {
+        get("/items/2", 1);
+        double modified = requests("modified");
+        versions.get("/items/2").incrementAndGet();
+
+        assertArrayEquals(itemOf("/items/2", 1), get("/items/2", 1));
+        assertEquals(modified + 1, requests("modified"));
+        assertArrayEquals(itemOf("/items/2", 1), get("/items/2", 1));
+    }
+
+    // the same path asked by another user is kept apart, the server may answer it differently
+    @Test
+    void shouldKeepAnswersPerUser() throws IOException {
+        get("/items/3", 1);
+        ifNoneMatchSeen.clear();
+        double missed = requests("miss");
+
+        get("/items/3", 2);
+
+        assertEquals(List.of("null"), ifNoneMatchSeen);
+        assertEquals(missed + 1, requests("miss"));
+    }
+
+    @Test
+    void shouldKeepNoMoreAnswersAndBytesThanAllowed() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ServerAnswerCache cache = new ServerAnswerCache(4, DataSize.ofBytes(1000), DataSize.ofBytes(400));
+        cache.bindTo(registry);
+        ServerTransport transport = new StubTransport();
+        for (int i = 0; i < 50; i++) {
+            cache.get(transport, "/" + i, 1L);
+            cache.get(transport, "/large/" + i, 1L);
+        }
+        // the cache evicts in the background
+        for (int i = 0; i < 100 && registry.get("shareit.answer-cache.size").gauge().value() > 4; i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(registry.get("shareit.answer-cache.size").gauge().value() <= 4);
+        assertTrue(registry.get("shareit.answer-cache.weight").gauge().value() <= 1000);
+        assertTrue(registry.get("shareit.answer-cache.evictions").functionCounter().count() >= 46);
+        // answers over max-answer-size were never kept, so they are asked without a tag
+        assertNull(((StubTransport) transport).lastIfNoneMatch);
+    }
+
+    private byte[] get(String path, long userId) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://localhost:" + port + path).toURL()
+                .openConnection();
+        connection.setRequestProperty("X-Sharer-User-Id", String.valueOf(userId));
+        assertEquals(200, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            return in.readAllBytes();
+        }
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("shareit.answer-cache.requests").tag("result", result).functionCounter().count();
+    }
+
+    private double bytesSaved() {
+        return meterRegistry.get("shareit.answer-cache.bytes.saved").functionCounter().count();
+    }
+
+    private static byte[] itemOf(String path, long version) {
+        return String.format("{ \"id\": %s,  \"name\": \"item v%d\" }", path.substring(path.lastIndexOf('/') + 1),
+                version).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Tags every answer, paths under /large answer with more bytes than the cache keeps
+    private static class StubTransport implements ServerTransport {
+        private volatile String lastIfNoneMatch;
+
+        @Override
+        public ResponseEntity<Object> exchange(HttpMethod method, String path, @Nullable Long userId,
+                                               @Nullable Map<String, Object> parameters, @Nullable Object body) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ServerAnswer fetch(String path, @Nullable Long userId, @Nullable String ifNoneMatch) {
+            if (path.startsWith("/large")) {
+                lastIfNoneMatch = ifNoneMatch;
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag("\"" + path + "\"");
+            return new ServerAnswer(200, headers, new byte[path.startsWith("/large") ? 500 : 100]);
+        }
+    }
+}
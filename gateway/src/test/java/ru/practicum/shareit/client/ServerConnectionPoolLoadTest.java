@@ -0,0 +1,123 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import ru.practicum.shareit.user.UserClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* Many gateway threads call a server that takes a fixed time to answer. The pool of connections
+is the only limit, so the throughput of the gateway has to grow with the size of the pool. */
+@Slf4j
+class ServerConnectionPoolLoadTest {
+    private static final Duration SERVER_DELAY = Duration.ofMillis(20);
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 160;
+    private static final byte[] USERS = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(THREADS * 2);
+        server.setExecutor(serverThreads);
+        server.createContext("/users", exchange -> {
+            try (OutputStream body = exchange.getResponseBody()) {
+                Thread.sleep(SERVER_DELAY.toMillis());
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, USERS.length);
+                body.write(USERS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void shouldServeMoreRequestsPerSecondWithLargerPool() throws Exception {
+        long small = requestsPerSecond(2);
+        long large = requestsPerSecond(THREADS);
+        log.info("{} requests in {} threads: {} per second with 2 connections, {} per second with {}",
+                REQUESTS, THREADS, small, large, THREADS);
+        // eight times as many connections, at least three times the throughput
+        assertTrue(large > small * 3, () -> String.format("%d per second with 2 connections, %d with %d",
+                small, large, THREADS));
+    }
+
+    private long requestsPerSecond(int poolSize) throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PoolingHttpClientConnectionManager connectionManager = ServerHttpClientConfiguration.connectionManager(
+                poolSize, Duration.ofSeconds(2));
+        try (CloseableHttpClient httpClient = ServerHttpClientConfiguration.httpClient(connectionManager,
+                meterRegistry, Duration.ofSeconds(2), Duration.ofSeconds(10), Duration.ofSeconds(10),
+                Duration.ofSeconds(30), Duration.ofSeconds(60))) {
+            new ServerHttpClientConfiguration().serverConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+            UserClient userClient = new UserClient(new RestTemplateTransports(
+                    "http://localhost:" + server.getAddress().getPort(), new RestTemplateBuilder(), httpClient),
+                    new ServerAnswerCache(100, DataSize.ofMegabytes(1), DataSize.ofKilobytes(64)));
+            List<Callable<HttpStatus>> calls = IntStream.range(0, REQUESTS)
+                    .mapToObj(i -> (Callable<HttpStatus>) () -> getAllUsers(userClient))
+                    .collect(Collectors.toList());
+            ExecutorService gatewayThreads = Executors.newFixedThreadPool(THREADS);
+            long started = System.nanoTime();
+            List<Future<HttpStatus>> results;
+            try {
+                results = gatewayThreads.invokeAll(calls);
+            } finally {
+                gatewayThreads.shutdown();
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            for (Future<HttpStatus> result : results) {
+                assertEquals(HttpStatus.OK, result.get());
+            }
+            assertEquals(poolSize, meterRegistry.get("httpcomponents.httpclient.pool.total.max").gauge().value());
+            assertEquals(REQUESTS, meterRegistry.get("httpcomponents.httpclient.request").timer().count());
+            return REQUESTS * 1000L / elapsedMillis;
+        }
+    }
+
+    // the connection goes back to the pool once the body is read and closed, as the gateway does for its client
+    private static HttpStatus getAllUsers(UserClient userClient) throws IOException {
+        ResponseEntity<Object> answer = userClient.getAllUsers();
+        try (InputStream body = ((Resource) Objects.requireNonNull(answer.getBody())).getInputStream()) {
+            body.readAllBytes();
+        }
+        return answer.getStatusCode();
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* The servlet gateway in front of a stub of the server. The bytes of the server answer reach the client
+as they are, whatever their layout, with the status and the headers of the server.
+The answer is copied through a small buffer, so the gateway allocates far less than the size of a long list. */
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ServerPassthroughTest {
+    private static final int ROUNDS = 20;
+    private static final byte[] USERS = IntStream.range(0, 5000)
+            .mapToObj(i -> String.format("{\"id\":%d, \"name\":\"user%d\",  \"email\":\"user%d@mail.ru\"}", i, i, i))
+            .collect(Collectors.joining(",\n", "[", "]"))
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MISSING = "{ \"error\" : \"The user with id = 2 is missing from the storage\" }"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static ExecutorService serverThreads;
+    private static HttpServer server;
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void serverUrl(DynamicPropertyRegistry registry) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverThreads = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverThreads);
+        server.createContext("/users", exchange -> {
+            boolean missing = exchange.getRequestURI().getPath().equals("/users/2");
+            byte[] body = missing ? MISSING : USERS;
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.getResponseHeaders().add("ETag", "\"users-1\"");
+                exchange.sendResponseHeaders(missing ? 404 : 200, body.length);
+                out.write(body);
+            }
+        });
+        server.start();
+        registry.add("shareit-server.url", () -> "http://localhost:" + server.getAddress().getPort());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void shouldPassBytesStatusAndHeadersOfServerOn() throws IOException {
+        HttpURLConnection connection = open("/users");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("application/json", connection.getContentType());
+        assertEquals("\"users-1\"", connection.getHeaderField("ETag"));
+        assertArrayEquals(USERS, read(connection.getInputStream()));
+    }
+
+    @Test
+    void shouldPassErrorOfServerOn() throws IOException {
+        HttpURLConnection connection = open("/users/2");
+        assertEquals(404, connection.getResponseCode());
+        assertArrayEquals(MISSING, read(connection.getErrorStream()));
+    }
+
+    @Test
+    void shouldAllocateLessThanAnswerPerRequest() throws IOException {
+        for (int i = 0; i < ROUNDS; i++) {
+            discard(open("/users").getInputStream());
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            discard(open("/users").getInputStream());
+        }
+        long perRequest = (allocatedBytes() - before) / ROUNDS;
+        log.info("{} bytes allocated per request for an answer of {} bytes", perRequest, USERS.length);
+        assertTrue(perRequest < USERS.length, () -> perRequest + " bytes allocated per request");
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) URI.create("http://localhost:" + port + path).toURL().openConnection();
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        try (in; ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            in.transferTo(out);
+            return out.toByteArray();
+        }
+    }
+
+    private static void discard(InputStream in) throws IOException {
+        byte[] buffer = new byte[8192];
+        try (in) {
+            while (in.read(buffer) >= 0) {
+                // the bytes are only counted by the allocation of the gateway
+            }
+        }
+    }
+
+    // bytes allocated by all the threads of the JVM: the gateway, the stub and this test
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+}
@@ -2,11 +2,13 @@ package ru.practicum.shareit.item;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
 import org.junit.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,6 +16,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.client.RestTemplateTransports;
+import ru.practicum.shareit.client.ServerAnswerCache;
 import ru.practicum.shareit.item.dto.CommentRequestDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 
@@ -28,12 +32,15 @@ import static org.springframework.test.web.client.match.MockRestRequestMatchers.
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 
 @RunWith(SpringRunner.class)
-@RestClientTest(ItemClient.class)
+@RestClientTest({ItemClient.class, RestTemplateTransports.class, ServerAnswerCache.class})
 public class ItemClientTest {
     @Autowired
     ItemClient itemClient;
     @Autowired
     private MockRestServiceServer mockServer;
+    // the requests go to the mock server, the pool of connections is never used
+    @MockBean
+    private HttpClient serverHttpClient;
     @Autowired
     private ObjectMapper mapper;
 
@@ -80,6 +87,13 @@ public class ItemClientTest {
         assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
+    @Test
+    public void shouldCallSearchForItemsByQueryTextWithPage() {
+        expectMockServer("search?text=text&from=10&size=5", GET);
+        ResponseEntity<Object> result = itemClient.searchForItemsByQueryText(1L, "text", 10, 5);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+    }
+
     @Test
     public void shouldCallCreateComment() {
         CommentRequestDto comment1 = CommentRequestDto.builder().text("Отличная вещь").build();
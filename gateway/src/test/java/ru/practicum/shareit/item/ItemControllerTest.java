@@ -234,6 +234,31 @@ public class ItemControllerTest {
         Mockito.verify(itemClient, Mockito.times(1)).searchForItemsByQueryText(1L, "item");
     }
 
+    @Test
+    public void shouldCallSearchForItemsByQueryTextWithPage() throws Exception {
+        Mockito.when(itemClient.searchForItemsByQueryText(1L, "item", 0, 5)).thenReturn(resp);
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("text", "item")
+                        .param("from", "0")
+                        .param("size", "5")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        Mockito.verify(itemClient, Mockito.times(1)).searchForItemsByQueryText(1L, "item", 0, 5);
+    }
+
+    @Test
+    public void shouldNotSearchWithNotPositiveSize() throws Exception {
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("text", "item")
+                        .param("from", "0")
+                        .param("size", "0")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(itemClient);
+    }
+
     @Test
     public void shouldThrowExceptionWhenRequestWithoutParamIsWrong() throws Exception {
         mockMvc.perform(get("/items/search")
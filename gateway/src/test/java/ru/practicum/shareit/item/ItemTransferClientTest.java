@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import org.apache.http.client.HttpClient;
+import org.junit.Test;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.client.RestTemplateTransports;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.http.HttpMethod.GET;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+@RunWith(SpringRunner.class)
+@RestClientTest({ItemTransferClient.class, RestTemplateTransports.class})
+public class ItemTransferClientTest {
+    @Autowired
+    ItemTransferClient itemTransferClient;
+    @Autowired
+    private MockRestServiceServer mockServer;
+    // the requests go to the mock server, the pool of connections is never used
+    @MockBean
+    private HttpClient serverHttpClient;
+
+    @AfterEach
+    void checkCallParameters() {
+        this.mockServer.verify();
+    }
+
+    @Test
+    public void shouldSendImportAsNdjsonAndReadReport() {
+        String ndjson = "{\"name\": \"item1\", \"description\": \"description of item1\", \"available\": true}\n";
+        mockServer.expect(ExpectedCount.once(), requestTo("http://localhost:9090/items/import"))
+                .andExpect(method(POST))
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(ndjson))
+                .andExpect(header("X-Sharer-User-Id", String.valueOf(1L)))
+                .andRespond(withStatus(HttpStatus.OK).contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"imported\": 1, \"errors\": [{\"line\": 2, \"message\": \"The name of item is empty\"}]}"));
+        ResponseEntity<Object> result = itemTransferClient.importItems(1L,
+                out -> out.write(ndjson.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(new ItemImportReport(1, List.of(new ItemImportError(2, "The name of item is empty"))),
+                result.getBody());
+    }
+
+    @Test
+    public void shouldCopyExportAsItComes() throws IOException {
+        String ndjson = "{\"id\": 1}\n{\"id\": 2}\n";
+        mockServer.expect(ExpectedCount.once(), requestTo("http://localhost:9090/items/export"))
+                .andExpect(method(GET))
+                .andExpect(header("X-Sharer-User-Id", String.valueOf(1L)))
+                .andRespond(withStatus(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(ndjson));
+        ResponseEntity<StreamingResponseBody> result = itemTransferClient.exportItems(1L);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Objects.requireNonNull(result.getBody()).writeTo(out);
+        assertEquals(ndjson, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void shouldPassErrorOfExportOn() throws IOException {
+        mockServer.expect(ExpectedCount.once(), requestTo("http://localhost:9090/items/export"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                        .body("{\"error\": \"The user with id = 1 is missing from the storage\"}"));
+        ResponseEntity<StreamingResponseBody> result = itemTransferClient.exportItems(1L);
+        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Objects.requireNonNull(result.getBody()).writeTo(out);
+        assertEquals("{\"error\": \"The user with id = 1 is missing from the storage\"}",
+                out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = ItemTransferController.class)
+@Import(ItemImportFilter.class)
+public class ItemTransferControllerTest {
+    @MockBean
+    ItemTransferClient itemTransferClient;
+    @Autowired
+    private MockMvc mockMvc;
+
+    // importItems
+    @Test
+    public void shouldPassValidLinesOnAndReportTheOthers() throws Exception {
+        String valid = "{\"name\": \"item1\", \"description\": \"description of item1\", \"available\": true}";
+        String ndjson = valid + "\n{\"name\": \" \", \"available\": true}\nnot json\n" + valid + "\n";
+        ByteArrayOutputStream passedOn = new ByteArrayOutputStream();
+        when(itemTransferClient.importItems(eq(1L), any())).thenAnswer(invocation -> {
+            StreamingHttpOutputMessage.Body body = invocation.getArgument(1);
+            body.writeTo(passedOn);
+            return ResponseEntity.ok(new ItemImportReport(1,
+                    new ArrayList<>(List.of(new ItemImportError(4, "The passed item request id was not found")))));
+        });
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", "1")
+                        .content(ndjson)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[*].line", contains(2, 3, 4)))
+                .andExpect(jsonPath("$.errors[0].message")
+                        .value("The description of item is null, The name of item is empty"))
+                .andExpect(jsonPath("$.errors[1].message", startsWith("The line is not an item in JSON")));
+        assertEquals(valid + "\n\n\n" + valid + "\n", passedOn.toString(StandardCharsets.UTF_8));
+    }
+
+    // exportItems
+    @Test
+    public void shouldReturnExportOfItemTransferClient() throws Exception {
+        when(itemTransferClient.exportItems(1L)).thenReturn(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> out.write("{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8))));
+        MvcResult result = mockMvc.perform(get("/items/export")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\": 1}\n"));
+    }
+}
@@ -2,11 +2,13 @@ package ru.practicum.shareit.requests;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
 import org.junit.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,6 +16,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.client.RestTemplateTransports;
+import ru.practicum.shareit.client.ServerAnswerCache;
 import ru.practicum.shareit.requests.dto.RequestDto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -24,12 +28,15 @@ import static org.springframework.test.web.client.match.MockRestRequestMatchers.
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 
 @RunWith(SpringRunner.class)
-@RestClientTest(ItemRequestClient.class)
+@RestClientTest({ItemRequestClient.class, RestTemplateTransports.class, ServerAnswerCache.class})
 public class ItemRequestClientTest {
     @Autowired
     ItemRequestClient itemRequestClient;
     @Autowired
     private MockRestServiceServer mockServer;
+    // the requests go to the mock server, the pool of connections is never used
+    @MockBean
+    private HttpClient serverHttpClient;
     @Autowired
     private ObjectMapper mapper;
 
@@ -61,6 +68,13 @@ public class ItemRequestClientTest {
         assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
+    @Test
+    public void shouldCallGetItemRequestsOfUserByCursor() {
+        expectMockServer("?cursor=abc&size=10");
+        ResponseEntity<Object> result = itemRequestClient.getItemRequestsOfUserByCursor(1L, "abc", 10);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+    }
+
     @Test
     public void shouldCallGetAllItemRequestsByParams() {
         expectMockServer("/all?from=0&size=10");
@@ -68,6 +82,13 @@ public class ItemRequestClientTest {
         assertEquals(HttpStatus.OK, result.getStatusCode());
     }
 
+    @Test
+    public void shouldCallGetAllItemRequestsByCursor() {
+        expectMockServer("/all?cursor=abc&size=10");
+        ResponseEntity<Object> result = itemRequestClient.getAllItemRequestsByCursor(1L, "abc", 10);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+    }
+
     @Test
     public void shouldCallGetItemRequestById() {
         expectMockServer("/1");
@@ -98,6 +98,28 @@ public class ItemRequestControllerTest {
         Mockito.verify(requestClient, Mockito.times(1)).getAllItemRequestsOfUser(1L);
     }
 
+    @Test
+    public void shouldCallGetItemRequestsOfUserByCursorWhenCursorPresent() throws Exception {
+        when(requestClient.getItemRequestsOfUserByCursor(1L, "abc", 5)).thenReturn(resp);
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk());
+        Mockito.verify(requestClient, Mockito.times(1)).getItemRequestsOfUserByCursor(1L, "abc", 5);
+        Mockito.verify(requestClient, Mockito.never()).getAllItemRequestsOfUser(1L);
+    }
+
+    @Test
+    public void shouldReturnBadRequestWhenCursorPageSizeIsNotPositive() throws Exception {
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+        Mockito.verifyNoInteractions(requestClient);
+    }
+
     // getAllItemRequestsByParams
     @Test
     public void shouldCallItemRequestServiceGetAllItemRequestsByParamsAndReturnListOfItemRequestDtoAnswerFull() throws Exception {
@@ -166,6 +188,17 @@ public class ItemRequestControllerTest {
                 .getAllItemRequestsByParams(any(Long.class), any(Integer.class), any(Integer.class));
     }
 
+    @Test
+    public void shouldCallGetAllItemRequestsByCursorWhenCursorPresent() throws Exception {
+        when(requestClient.getAllItemRequestsByCursor(1L, "", 10)).thenReturn(resp);
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", ""))
+                .andExpect(status().isOk());
+        Mockito.verify(requestClient, Mockito.times(1)).getAllItemRequestsByCursor(1L, "", 10);
+        Mockito.verify(requestClient, Mockito.never()).getAllItemRequestsByParams(1L, 0, 10);
+    }
+
     // getItemRequestById
     @Test
     public void shouldReturnItemRequestDtoAnswerFullById() throws Exception {
@@ -2,11 +2,13 @@ package ru.practicum.shareit.user;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.client.HttpClient;
 import org.junit.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -14,6 +16,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
+import ru.practicum.shareit.client.RestTemplateTransports;
+import ru.practicum.shareit.client.ServerAnswerCache;
 import ru.practicum.shareit.user.dto.UserRequestDto;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -27,12 +31,15 @@ import static org.springframework.test.web.client.match.MockRestRequestMatchers.
 import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
 
 @RunWith(SpringRunner.class)
-@RestClientTest(UserClient.class)
+@RestClientTest({UserClient.class, RestTemplateTransports.class, ServerAnswerCache.class})
 public class UserClientTest {
     @Autowired
     UserClient userClient;
     @Autowired
     private MockRestServiceServer mockServer;
+    // the requests go to the mock server, the pool of connections is never used
+    @MockBean
+    private HttpClient serverHttpClient;
     @Autowired
     private ObjectMapper mapper;
 
@@ -2,6 +2,7 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,8 +15,10 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswer;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.dto.BookingStatusResult;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.SearchStatus;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.util.List;
 
@@ -47,6 +50,17 @@ public class BookingController {
         return bookingService.updateBookingStatus(userId, bookingId, approved);
     }
 
+    /* Подтверждение или отклонение сразу нескольких запросов на бронирование вещей пользователя.
+    В теле передаётся список id бронирований, в ответе для каждого id указан результат.*/
+    @PatchMapping
+    public List<BookingStatusResult> changeRequestStatuses(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @RequestParam("approved") Boolean approved,
+                                                           @RequestBody List<Long> bookingIds) {
+        log.info("Получен запрос PATCH/bookings?approved={approved} от пользователя id = {} " +
+                "на подтверждение бронирований: {}, со значением {}", userId, bookingIds, approved);
+        return bookingService.updateBookingStatuses(userId, bookingIds, approved);
+    }
+
     /*  Получение данных о конкретном бронировании (включая его статус).
     Может быть выполнено либо автором бронирования, либо владельцем вещи, к которой относится бронирование.*/
     @GetMapping("/{bookingId}")
@@ -61,28 +75,48 @@ public class BookingController {
     /*  Получение списка всех бронирований текущего пользователя. Параметр state необязательный и по умолчанию
     равен ALL (англ. «все»). Также он может принимать значения CURRENT (англ. «текущие»), PAST (англ. «завершённые»),
     FUTURE (англ. «будущие»), WAITING (англ. «ожидающие подтверждения»), REJECTED (англ. «отклонённые»).
-    Бронирования должны возвращаться отсортированными по дате от более новых к более старым.*/
+    Бронирования должны возвращаться отсортированными по дате от более новых к более старым.
+    Если передан параметр cursor, страница читается по курсору, а курсор следующей страницы
+    возвращается в заголовке X-Next-Cursor.*/
     @GetMapping
-    public List<BookingDtoAnswerFull>
+    public ResponseEntity<List<BookingDtoAnswerFull>>
     getAllBookingsOfUser(@RequestHeader("X-Sharer-User-Id") Long userId,
                          @RequestParam(required = false, defaultValue = "ALL") SearchStatus state,
                          @RequestParam(required = false) Integer from,
-                         @RequestParam(required = false) Integer size) {
+                         @RequestParam(required = false) Integer size,
+                         @RequestParam(required = false) String cursor) {
         log.info("Получен запрос GET/bookings?state={state} от пользователя id = {} " +
-                "на просмотр бронирований со статусом: {}, страницы: от{} до {}", userId, state, from, size);
-        return bookingService.getAllBookingsOfUser(userId, state, from, size);
+                "на просмотр бронирований со статусом: {}, страницы: от{} до {}, курсор: {}",
+                userId, state, from, size, cursor);
+        if (cursor != null) {
+            return toResponse(bookingService.getBookingsOfUserByCursor(userId, state, cursor, size));
+        }
+        return ResponseEntity.ok(bookingService.getAllBookingsOfUser(userId, state, from, size));
     }
 
 
     /* GET /bookings/owner?state={state}   Получение списка бронирований для всех вещей текущего пользователя.*/
     @GetMapping("/owner")
-    public List<BookingDtoAnswerFull>
+    public ResponseEntity<List<BookingDtoAnswerFull>>
     getAllBookingsOfItemsOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
                                @RequestParam(required = false, defaultValue = "ALL") SearchStatus state,
                                @RequestParam(required = false) Integer from,
-                               @RequestParam(required = false) Integer size) {
+                               @RequestParam(required = false) Integer size,
+                               @RequestParam(required = false) String cursor) {
         log.info("Получен запрос GET/bookings/owner?state={state} от пользователя id = {} " +
-                "на просмотр бронирований со статусом: {}, страницы: от {} до {}", userId, state, from, size);
-        return bookingService.getAllBookingsOfItemsOwner(userId, state, from, size);
+                "на просмотр бронирований со статусом: {}, страницы: от {} до {}, курсор: {}",
+                userId, state, from, size, cursor);
+        if (cursor != null) {
+            return toResponse(bookingService.getBookingsOfItemsOwnerByCursor(userId, state, cursor, size));
+        }
+        return ResponseEntity.ok(bookingService.getAllBookingsOfItemsOwner(userId, state, from, size));
+    }
+
+    private static ResponseEntity<List<BookingDtoAnswerFull>> toResponse(CursorPage<BookingDtoAnswerFull> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 }
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.booking;
+
+// What a batch status change did with one booking
+public enum BookingStatusChange {
+    APPROVED,           // — the booking is approved
+    REJECTED,           // — the booking is rejected
+    NOT_FOUND,          // — there is no booking with this id
+    NOT_OWNER,          // — the item of the booking belongs to another user
+    ALREADY_APPROVED,   // — the status of an approved booking is not changed
+    OVERLAP             // — the dates overlap another approved booking of the item
+}
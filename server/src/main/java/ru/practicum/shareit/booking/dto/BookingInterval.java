@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/* The columns a status change is decided on, as selected by BookingRepository.findIntervals
+and findApprovedIntervalsOfItems */
+public interface BookingInterval {
+    Long getId();
+
+    BookingStatus getStatus();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    default boolean overlaps(BookingInterval other) {
+        return getStart().isBefore(other.getEnd()) && other.getStart().isBefore(getEnd());
+    }
+}
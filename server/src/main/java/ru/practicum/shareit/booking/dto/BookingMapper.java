@@ -16,4 +16,6 @@ public interface BookingMapper {
 
     @Mapping(source = "booker.id", target = "bookerId")
     BookingDtoWithBookerId toBookingDtoWithBookerId(Booking booking);
+
+    BookingDtoWithBookerId toBookingDtoWithBookerId(NearestBooking booking);
 }
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+import ru.practicum.shareit.booking.BookingStatusChange;
+
+@Value
+public class BookingStatusResult {
+    Long id;
+    BookingStatusChange result;
+}
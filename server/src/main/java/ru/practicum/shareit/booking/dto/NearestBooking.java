@@ -0,0 +1,16 @@
+package ru.practicum.shareit.booking.dto;
+
+/* The last or the next approved booking of an item,
+as selected by BookingRepository.findLastAndNextApproved and findLastAndNextApprovedOfItems */
+public interface NearestBooking {
+    String LAST = "LAST";
+    String NEXT = "NEXT";
+
+    String getKind();
+
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+}
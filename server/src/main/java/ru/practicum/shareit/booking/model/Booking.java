@@ -19,6 +19,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @Data
@@ -46,4 +47,8 @@ public class Booking {
     @Column(name = "status")
     private BookingStatus status;   /* - booking status (WAITING approval, APPROVED by the owner,
                                         REJECTED by the owner, CANCELED by the creator) */
+    // Checked and incremented by every update, so a status change of another request is not overwritten
+    @Version
+    @Column(name = "version")
+    private Long version;
 }
\ No newline at end of file
@@ -1,81 +1,95 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.NearestBooking;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-@Repository
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    // Bookings of user ALL
-    List<Booking> findAllByBookerIdOrderByStartDesc(Long userId);
-
-    Page<Booking> findAllByBookerId(Long userId, Pageable pageable);
-
-    // Bookings of user CURRENT
-    List<Booking> findAllByBookerIdAndEndAfterAndStartBeforeOrderByStartDesc(Long bookerId, LocalDateTime end,
-                                                                             LocalDateTime start);
-
-    Page<Booking> findAllByBookerIdAndEndAfterAndStartBefore(Long bookerId, LocalDateTime end,
-                                                             LocalDateTime start, Pageable pageable);
-
-    // Bookings of user PAST
-    List<Booking> findAllByBookerIdAndStatusAndEndBeforeOrderByStartDesc(Long bookerId, BookingStatus status,
-                                                                         LocalDateTime date);
-
-    Page<Booking> findAllByBookerIdAndStatusAndEndBefore(Long bookerId, BookingStatus status,
-                                                         LocalDateTime date, Pageable pageable);
-
-    // Bookings of user FUTURE
-    List<Booking> findAllByBookerIdAndStartAfterOrderByStartDesc(Long bookerId, LocalDateTime date);
-
-    Page<Booking> findAllByBookerIdAndStartAfter(Long bookerId, LocalDateTime date, Pageable pageable);
-
-    // Bookings of user WAITING и REJECTED
-    List<Booking> findAllByBookerIdAndStatusOrderByStartDesc(Long bookerId, BookingStatus status);
-
-    Page<Booking> findAllByBookerIdAndStatus(Long bookerId, BookingStatus status, Pageable pageable);
-
-    // Booking all the user's items ALL
-    List<Booking> findAllByItemInOrderByStartDesc(List<Item> items);
-
-    Page<Booking> findAllByItemIn(List<Item> items, Pageable pageable);
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-    // Booking all the user's items CURRENT
-    List<Booking> findAllByItemInAndEndAfterAndStartBeforeOrderByStartDesc(Collection<Item> item,
-                                                                           LocalDateTime end, LocalDateTime start);
-
-    Page<Booking> findAllByItemInAndEndAfterAndStartBefore(Collection<Item> item, LocalDateTime end,
-                                                           LocalDateTime start, Pageable pageable);
-
-    // Booking all the user's items PAST
-    List<Booking> findAllByItemInAndStatusAndEndBeforeOrderByStartDesc(Collection<Item> item, BookingStatus status,
-                                                                       LocalDateTime date);
-
-    Page<Booking> findAllByItemInAndStatusAndEndBefore(Collection<Item> item, BookingStatus status,
-                                                       LocalDateTime date, Pageable pageable);
-
-    // Booking all the user's items FUTURE
-    List<Booking> findAllByItemInAndStartAfterOrderByStartDesc(Collection<Item> item, LocalDateTime date);
-
-    Page<Booking> findAllByItemInAndStartAfter(Collection<Item> item, LocalDateTime date, Pageable pageable);
-
-    // Booking all the user's items WAITING и REJECTED
-    List<Booking> findAllByItemInAndStatusOrderByStartDesc(Collection<Item> item, BookingStatus status);
-
-    Page<Booking> findAllByItemInAndStatus(Collection<Item> item, BookingStatus status, Pageable pageable);
-
-    Booking findByItemIdAndEndIsBeforeOrderByEnd(Long itemId, LocalDateTime dateTime);
-
-    Booking findByItemIdAndStartIsAfterOrderByStart(Long itemId, LocalDateTime dateTime);
+@Repository
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
+    /* The last finished and the next approved booking of the item in one round trip.
+    Each half reads a single row from the (item_id, end_date) or (item_id, start_date) index. */
+    @Query(value = "(SELECT 'LAST' AS kind, b.id AS id, b.item_id AS itemId, b.booker_id AS bookerId "
+            + "FROM bookings b "
+            + "WHERE b.item_id = :itemId AND b.status = 'APPROVED' AND b.end_date < :now "
+            + "ORDER BY b.end_date DESC LIMIT 1) "
+            + "UNION ALL "
+            + "(SELECT 'NEXT' AS kind, b.id AS id, b.item_id AS itemId, b.booker_id AS bookerId "
+            + "FROM bookings b "
+            + "WHERE b.item_id = :itemId AND b.status = 'APPROVED' AND b.start_date > :now "
+            + "ORDER BY b.start_date LIMIT 1)", nativeQuery = true)
+    List<NearestBooking> findLastAndNextApproved(@Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    /* The same pair for many items at once: the bookings of every item are numbered from the nearest one
+    and only the first row of each item is kept, so an item gives at most one LAST and one NEXT row. */
+    @Query(value = "SELECT ranked.kind AS kind, ranked.id AS id, ranked.itemId AS itemId, ranked.bookerId AS bookerId "
+            + "FROM ("
+            + "SELECT 'LAST' AS kind, b.id AS id, b.item_id AS itemId, b.booker_id AS bookerId, "
+            + "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.end_date DESC) AS rn FROM bookings b "
+            + "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.end_date < :now "
+            + "UNION ALL "
+            + "SELECT 'NEXT' AS kind, b.id AS id, b.item_id AS itemId, b.booker_id AS bookerId, "
+            + "ROW_NUMBER() OVER (PARTITION BY b.item_id ORDER BY b.start_date) AS rn FROM bookings b "
+            + "WHERE b.item_id IN (:itemIds) AND b.status = 'APPROVED' AND b.start_date > :now"
+            + ") ranked WHERE ranked.rn = 1", nativeQuery = true)
+    List<NearestBooking> findLastAndNextApprovedOfItems(@Param("itemIds") Collection<Long> itemIds,
+                                                        @Param("now") LocalDateTime now);
+
+    // Whether another approved booking of the item overlaps the interval from start to end
+    boolean existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(Long itemId, BookingStatus status,
+                                                                    LocalDateTime end, LocalDateTime start,
+                                                                    Long bookingId);
+
+    /* Locks the row of the item until the end of the transaction. Bookings of the item are approved
+    one after another, while bookings of other items are not held up. */
+    @Query(value = "SELECT i.id FROM items i WHERE i.id = :itemId FOR UPDATE", nativeQuery = true)
+    Long lockItem(@Param("itemId") Long itemId);
+
+    // The items are locked in the order of their ids, so two batches of approvals cannot deadlock
+    @Query(value = "SELECT i.id FROM items i WHERE i.id IN (:itemIds) ORDER BY i.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockItems(@Param("itemIds") Collection<Long> itemIds);
+
+    @Query("SELECT b.id AS id, b.status AS status, b.start AS start, b.end AS end, i.id AS itemId, "
+            + "i.owner.id AS ownerId FROM Booking b JOIN b.item i WHERE b.id IN :ids")
+    List<BookingInterval> findIntervals(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id AS id, b.status AS status, b.start AS start, b.end AS end, i.id AS itemId, "
+            + "i.owner.id AS ownerId FROM Booking b JOIN b.item i "
+            + "WHERE i.id IN :itemIds AND b.status = ru.practicum.shareit.booking.BookingStatus.APPROVED "
+            + "AND b.start < :to AND b.end > :from")
+    List<BookingInterval> findApprovedIntervalsOfItems(@Param("itemIds") Collection<Long> itemIds,
+                                                       @Param("from") LocalDateTime from,
+                                                       @Param("to") LocalDateTime to);
+
+    /* Sets the status of many bookings by one statement. The owner and the status are checked again,
+    so a booking changed after it was read is left out of the count. The version is incremented
+    as an update by Hibernate would do it. */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.version = b.version + 1 "
+            + "WHERE b.id IN :ids AND b.status <> ru.practicum.shareit.booking.BookingStatus.APPROVED "
+            + "AND b.item.id IN (SELECT i.id FROM Item i WHERE i.owner.id = :ownerId)")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("ownerId") Long ownerId,
+                       @Param("status") BookingStatus status);
 
     List<Booking> findAllByItemIdAndStatusAndEndBefore(Long itemId, BookingStatus status,
                                                        LocalDateTime dateTime);
+
+    // Ids of all bookings, read in batches while the stream is consumed
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT b.id FROM Booking b")
+    Stream<Long> streamAllIds();
 }
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.model.Booking;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface BookingRepositoryCustom {
+    /* Booking lists of a booker or an owner, built from BookingSpecifications straight from the selected columns,
+    without managed entities. A window of the list is read without the COUNT(*) query that Page requires. */
+    List<BookingDtoAnswerFull> findFullDtos(Specification<Booking> spec, Sort sort);
+
+    List<BookingDtoAnswerFull> findFullDtos(Specification<Booking> spec, Sort sort, int offset, int limit);
+
+    /* Inserts a WAITING booking in one statement if the booker exists and the item exists, is available,
+    does not belong to the booker and has no approved booking overlapping the dates.
+    Returns the id of the new booking, or nothing if it was not admitted. */
+    Optional<Long> insertIfAdmitted(Long bookerId, Long itemId, LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.jpa.repository.query.QueryUtils.toOrders;
+
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+    /* The item, the booker and the approved bookings of the item are checked by the SELECT,
+    so a rejected booking inserts no row */
+    private static final String INSERT_IF_ADMITTED =
+            "INSERT INTO bookings (start_date, end_date, item_id, booker_id, status) "
+            + "SELECT ?, ?, i.id, u.id, ? FROM items i JOIN users u ON u.id = ? "
+            + "WHERE i.id = ? AND i.is_available = TRUE AND i.owner_id <> ? "
+            + "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.item_id = i.id AND b.status = ? "
+            + "AND b.start_date < ? AND b.end_date > ?)";
+    private static final String[] GENERATED_KEYS = {"id"};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingDtoAnswerFull> findFullDtos(Specification<Booking> spec, Sort sort) {
+        return selectFullDtos(spec, sort, 0, null);
+    }
+
+    @Override
+    public List<BookingDtoAnswerFull> findFullDtos(Specification<Booking> spec, Sort sort, int offset, int limit) {
+        return selectFullDtos(spec, sort, offset, limit);
+    }
+
+    /* The statement goes through the JDBC coordinator of the session, as Hibernate's own identity inserts do,
+    so it runs in the current transaction and is logged and counted like any other statement. */
+    @Override
+    public Optional<Long> insertIfAdmitted(Long bookerId, Long itemId, LocalDateTime start, LocalDateTime end) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        JdbcCoordinator jdbc = session.getJdbcCoordinator();
+        PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(INSERT_IF_ADMITTED, GENERATED_KEYS);
+        try {
+            statement.setTimestamp(1, toTimestamp(start));
+            statement.setTimestamp(2, toTimestamp(end));
+            statement.setString(3, BookingStatus.WAITING.name());
+            statement.setObject(4, bookerId, Types.BIGINT);
+            statement.setObject(5, itemId, Types.BIGINT);
+            statement.setObject(6, bookerId, Types.BIGINT);
+            statement.setString(7, BookingStatus.APPROVED.name());
+            statement.setTimestamp(8, toTimestamp(end));
+            statement.setTimestamp(9, toTimestamp(start));
+            if (jdbc.getResultSetReturn().executeUpdate(statement) == 0) {
+                return Optional.empty();
+            }
+            try (ResultSet keys = statement.getGeneratedKeys()) {
+                keys.next();
+                return Optional.of(keys.getLong(1));
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "could not insert booking", INSERT_IF_ADMITTED);
+        } finally {
+            jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+            jdbc.afterStatementExecution();
+        }
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    /* Columns are selected as a tuple, so no entity gets into the persistence context
+    and there is nothing to check for changes at the end of the transaction. */
+    private List<BookingDtoAnswerFull> selectFullDtos(Specification<Booking> spec, Sort sort, int offset,
+                                                      Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Booking> root = query.from(Booking.class);
+        Join<Booking, Item> item = BookingSpecifications.item(root);
+        Join<Item, User> owner = item.join("owner");
+        Join<Item, ItemRequest> request = item.join("request", JoinType.LEFT);
+        Join<ItemRequest, User> requestor = request.join("requestor", JoinType.LEFT);
+        Join<Booking, User> booker = root.join("booker");
+        query.multiselect(
+                root.get("id").alias("id"),
+                root.get("start").alias("start"),
+                root.get("end").alias("end"),
+                root.get("status").alias("status"),
+                item.get("id").alias("itemId"),
+                item.get("name").alias("itemName"),
+                item.get("description").alias("itemDescription"),
+                item.get("available").alias("itemAvailable"),
+                owner.get("id").alias("ownerId"),
+                owner.get("name").alias("ownerName"),
+                owner.get("email").alias("ownerEmail"),
+                request.get("id").alias("requestId"),
+                request.get("description").alias("requestDescription"),
+                request.get("created").alias("requestCreated"),
+                requestor.get("id").alias("requestorId"),
+                requestor.get("name").alias("requestorName"),
+                requestor.get("email").alias("requestorEmail"),
+                booker.get("id").alias("bookerId"),
+                booker.get("name").alias("bookerName"),
+                booker.get("email").alias("bookerEmail"));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(toOrders(sort, root, cb));
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query).setFirstResult(offset);
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+        return typedQuery.getResultList().stream()
+                .map(BookingRepositoryImpl::toBookingDtoAnswerFull)
+                .collect(Collectors.toList());
+    }
+
+    // User, Item and ItemRequest here are plain detached objects that only carry the selected values
+    private static BookingDtoAnswerFull toBookingDtoAnswerFull(Tuple row) {
+        ItemRequest request = null;
+        if (row.get("requestId") != null) {
+            request = ItemRequest.builder()
+                    .id(row.get("requestId", Long.class))
+                    .description(row.get("requestDescription", String.class))
+                    .created(row.get("requestCreated", LocalDateTime.class))
+                    .requestor(toUser(row, "requestor"))
+                    .build();
+        }
+        Item item = Item.builder()
+                .id(row.get("itemId", Long.class))
+                .name(row.get("itemName", String.class))
+                .description(row.get("itemDescription", String.class))
+                .available(row.get("itemAvailable", Boolean.class))
+                .owner(toUser(row, "owner"))
+                .request(request)
+                .build();
+        return BookingDtoAnswerFull.builder()
+                .id(row.get("id", Long.class))
+                .start(row.get("start", LocalDateTime.class))
+                .end(row.get("end", LocalDateTime.class))
+                .status(row.get("status", BookingStatus.class))
+                .item(item)
+                .booker(toUser(row, "booker"))
+                .build();
+    }
+
+    private static User toUser(Tuple row, String prefix) {
+        if (row.get(prefix + "Id") == null) {
+            return null;
+        }
+        return User.builder()
+                .id(row.get(prefix + "Id", Long.class))
+                .name(row.get(prefix + "Name", String.class))
+                .email(row.get(prefix + "Email", String.class))
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.SearchStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+
+import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.BookingStatus.REJECTED;
+import static ru.practicum.shareit.booking.BookingStatus.WAITING;
+
+// Building blocks of booking list queries: one role predicate combined with one state predicate
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> bookerIs(Long bookerId) {
+        return (root, query, cb) -> cb.equal(root.get("booker").get("id"), bookerId);
+    }
+
+    // Joins bookings to items and filters on items.owner_id, so the SQL does not grow with the number of items
+    public static Specification<Booking> itemOwnerIs(Long ownerId) {
+        return (root, query, cb) -> cb.equal(item(root).get("owner").get("id"), ownerId);
+    }
+
+    // Bookings that follow the cursor in the (start, id) descending order
+    public static Specification<Booking> after(KeysetCursor cursor) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("start"), cursor.getPosition()),
+                cb.and(cb.equal(root.get("start"), cursor.getPosition()),
+                        cb.lessThan(root.get("id"), cursor.getId())));
+    }
+
+    // The join with items made by the query itself, if there is one, so items are not joined twice
+    @SuppressWarnings("unchecked")
+    static Join<Booking, Item> item(Root<Booking> root) {
+        return root.getJoins().stream()
+                .filter(join -> "item".equals(join.getAttribute().getName()))
+                .map(join -> (Join<Booking, Item>) join)
+                .findFirst()
+                .orElseGet(() -> root.join("item"));
+    }
+
+    public static Specification<Booking> stateIs(SearchStatus state, LocalDateTime currentTime) {
+        switch (state) {
+            case ALL:
+                return (root, query, cb) -> cb.conjunction();
+            case CURRENT:
+                return (root, query, cb) -> cb.and(
+                        cb.greaterThan(root.get("end"), currentTime),
+                        cb.lessThan(root.get("start"), currentTime));
+            case PAST:
+                return (root, query, cb) -> cb.and(
+                        cb.equal(root.get("status"), APPROVED),
+                        cb.lessThan(root.get("end"), currentTime));
+            case FUTURE:
+                return (root, query, cb) -> cb.greaterThan(root.get("start"), currentTime);
+            case WAITING:
+                return (root, query, cb) -> cb.equal(root.get("status"), WAITING);
+            case REJECTED:
+                return (root, query, cb) -> cb.equal(root.get("status"), REJECTED);
+            default:
+                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+}
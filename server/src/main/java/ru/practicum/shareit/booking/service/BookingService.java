@@ -3,6 +3,8 @@ package ru.practicum.shareit.booking.service;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswer;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.dto.BookingStatusResult;
+import ru.practicum.shareit.pagination.CursorPage;
 
 import java.util.List;
 
@@ -11,6 +13,9 @@ public interface BookingService {
 
     BookingDtoAnswerFull updateBookingStatus(Long userId, Long bookingId, Boolean approved);
 
+    // Approves or rejects many bookings of the user's items at once, with a result for every id
+    List<BookingStatusResult> updateBookingStatuses(Long userId, List<Long> bookingIds, Boolean approved);
+
     BookingDtoAnswerFull getBookingById(Long userId, Long bookingId);
 
     //  Getting a list of all bookings of the current user.
@@ -18,4 +23,11 @@ public interface BookingService {
 
     // Getting a list of bookings for all the items of the current user.
     List<BookingDtoAnswerFull> getAllBookingsOfItemsOwner(Long userId, SearchStatus state, Integer from, Integer size);
+
+    // The same lists paginated by an opaque cursor. An empty cursor requests the first page.
+    CursorPage<BookingDtoAnswerFull> getBookingsOfUserByCursor(Long userId, SearchStatus state, String cursor,
+                                                               Integer size);
+
+    CursorPage<BookingDtoAnswerFull> getBookingsOfItemsOwnerByCursor(Long userId, SearchStatus state, String cursor,
+                                                                     Integer size);
 }
@@ -1,43 +1,65 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingStatusChange;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswer;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.dto.BookingInterval;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingStatusResult;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.concurrency.OptimisticRetry;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.existence.LiveIds;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
-import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
 import static ru.practicum.shareit.booking.BookingStatus.REJECTED;
-import static ru.practicum.shareit.booking.BookingStatus.WAITING;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.itemOwnerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.stateIs;
 
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    // id breaks ties between bookings with the same start, so the order is stable for the cursor
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("start"), Sort.Order.desc("id"));
+
     private final BookingRepository bookingRepository;
     private final UserService userService;
     private final ItemService itemService;
     private final BookingMapper bookingMapper;
+    private final LiveIds liveIds;
+    private final OptimisticRetry optimisticRetry;
 
     @Override
     @Transactional(readOnly = false)
@@ -45,26 +67,46 @@ public class BookingServiceImpl implements BookingService {
         if (bookingDto.getId() != null && Boolean.TRUE.equals(isBookingExists(bookingDto.getId()))) {
             throw new ValidationException("Booking data can only be changed via the 'PATCH' method");
         }
-        Item item = itemService.getEntityItemByIdFromStorage(bookingDto.getItemId());
+        Optional<Long> bookingId = bookingRepository.insertIfAdmitted(userId, bookingDto.getItemId(),
+                bookingDto.getStart(), bookingDto.getEnd());
+        if (bookingId.isEmpty()) {
+            throw rejectionOf(userId, bookingDto.getItemId());
+        }
+        // the row was inserted past Hibernate, so its listeners did not see it
+        liveIds.getBookings().add(bookingId.get());
+        return BookingDtoAnswer.builder()
+                .id(bookingId.get())
+                .start(bookingDto.getStart())
+                .end(bookingDto.getEnd())
+                .item(bookingDto.getItemId())
+                .build();
+    }
+
+    /* The item and the booker are read only when the booking was not admitted, to tell the client the reason.
+    If they pass, the dates overlap an approved booking of the item. */
+    private RuntimeException rejectionOf(Long userId, Long itemId) {
+        Item item = itemService.getEntityItemByIdFromStorage(itemId);
         if (item.getOwner().getId().equals(userId)) {
-            throw new NotFoundException("Items are not available for booking to their owners");
+            return new NotFoundException("Items are not available for booking to their owners");
         }
         if (!item.getAvailable()) {
-            throw new ValidationException("The item is not available for booking");
+            return new ValidationException("The item is not available for booking");
         }
-        User booker = userService.getEntityUserByIdFromStorage(userId);
-        Booking booking = bookingMapper.toBooking(bookingDto);
-        booking.setBooker(booker);
-        booking.setItem(item);
-        booking.setStatus(WAITING);
-        Booking readyBooking = bookingRepository.save(booking);
-        return bookingMapper.toBookingDtoAnswer(readyBooking);
+        userService.getEntityUserByIdFromStorage(userId);
+        return new ConflictException("The item is already booked for these dates");
     }
 
+    // Outside the transaction of the class, as every attempt of the retry runs in a transaction of its own
     @Override
-    @Transactional(readOnly = false)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public BookingDtoAnswerFull updateBookingStatus(Long userId, Long bookingId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException(String
+        return optimisticRetry.run(() -> changeStatus(userId, bookingId, approved));
+    }
+
+    /* The status is checked in Java, so it is the version of the booking that keeps two requests
+    from both changing it: the one that commits second fails, is retried and sees the new status */
+    private BookingDtoAnswerFull changeStatus(Long userId, Long bookingId, Boolean approved) {
+        Booking booking = findBooking(bookingId).orElseThrow(() -> new NotFoundException(String
                 .format("Booking with id = %d not found", bookingId)));
         if (!booking.getItem().getOwner().getId().equals(userId)) {
             throw new NotFoundException(String.format("The user with id = %d cannot edit the booking " +
@@ -74,6 +116,7 @@ public class BookingServiceImpl implements BookingService {
             throw new ValidationException("The booking status has already been confirmed");
         }
         if (Boolean.TRUE.equals(approved)) {
+            checkNoApprovedOverlap(booking);
             booking.setStatus(APPROVED);
         } else {
             booking.setStatus(REJECTED);
@@ -81,11 +124,96 @@ public class BookingServiceImpl implements BookingService {
         return bookingMapper.toBookingDtoAnswerFull(bookingRepository.save(booking));
     }
 
+    /* Approvals of one item are serialized by the lock on its row, which is held until the commit,
+    so two overlapping bookings cannot both see no approved overlap and both be approved */
+    private void checkNoApprovedOverlap(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        bookingRepository.lockItem(itemId);
+        if (bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(itemId, APPROVED,
+                booking.getEnd(), booking.getStart(), booking.getId())) {
+            throw new ConflictException(String.format("The item id = %d is already booked for these dates", itemId));
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BookingStatusResult> updateBookingStatuses(Long userId, List<Long> bookingIds, Boolean approved) {
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(bookingIds));
+        return optimisticRetry.run(() -> changeStatuses(userId, ids, Boolean.TRUE.equals(approved)));
+    }
+
+    /* The bookings are read by one query and changed by one UPDATE. If the UPDATE changes fewer rows
+    than were chosen, another request changed some of them in between, and the batch is decided again. */
+    private List<BookingStatusResult> changeStatuses(Long userId, List<Long> ids, boolean approve) {
+        List<Long> possibleIds = ids.stream()
+                .filter(liveIds.getBookings()::mightContain)
+                .collect(Collectors.toList());
+        Map<Long, BookingInterval> bookings = possibleIds.isEmpty() ? Map.of() : bookingRepository
+                .findIntervals(possibleIds).stream()
+                .collect(Collectors.toMap(BookingInterval::getId, Function.identity()));
+        Map<Long, BookingStatusChange> results = new LinkedHashMap<>();
+        List<BookingInterval> candidates = new ArrayList<>();
+        for (Long id : ids) {
+            BookingInterval booking = bookings.get(id);
+            if (booking == null) {
+                results.put(id, BookingStatusChange.NOT_FOUND);
+            } else if (!booking.getOwnerId().equals(userId)) {
+                results.put(id, BookingStatusChange.NOT_OWNER);
+            } else if (booking.getStatus() == APPROVED) {
+                results.put(id, BookingStatusChange.ALREADY_APPROVED);
+            } else {
+                candidates.add(booking);
+            }
+        }
+        List<Long> changed = approve ? chooseApprovable(candidates, results) : candidates.stream()
+                .map(BookingInterval::getId)
+                .collect(Collectors.toList());
+        if (!changed.isEmpty()) {
+            BookingStatusChange change = approve ? BookingStatusChange.APPROVED : BookingStatusChange.REJECTED;
+            if (bookingRepository.updateStatuses(changed, userId, approve ? APPROVED : REJECTED) != changed.size()) {
+                throw new ObjectOptimisticLockingFailureException(Booking.class, changed);
+            }
+            changed.forEach(id -> results.put(id, change));
+        }
+        return ids.stream()
+                .map(id -> new BookingStatusResult(id, results.get(id)))
+                .collect(Collectors.toList());
+    }
+
+    /* The same rule as for a single approval, under the same locks: a booking is approved if it overlaps
+    neither an approved booking of its item nor a booking approved earlier in the batch */
+    private List<Long> chooseApprovable(List<BookingInterval> candidates, Map<Long, BookingStatusChange> results) {
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> itemIds = candidates.stream().map(BookingInterval::getItemId).collect(Collectors.toSet());
+        bookingRepository.lockItems(itemIds);
+        LocalDateTime from = candidates.stream().map(BookingInterval::getStart).min(Comparator.naturalOrder())
+                .orElseThrow();
+        LocalDateTime to = candidates.stream().map(BookingInterval::getEnd).max(Comparator.naturalOrder())
+                .orElseThrow();
+        Map<Long, List<BookingInterval>> approved = bookingRepository.findApprovedIntervalsOfItems(itemIds, from, to)
+                .stream()
+                .collect(Collectors.groupingBy(BookingInterval::getItemId, Collectors.toCollection(ArrayList::new)));
+        List<Long> approvable = new ArrayList<>();
+        for (BookingInterval candidate : candidates) {
+            List<BookingInterval> approvedOfItem = approved.computeIfAbsent(candidate.getItemId(),
+                    itemId -> new ArrayList<>());
+            if (approvedOfItem.stream().anyMatch(candidate::overlaps)) {
+                results.put(candidate.getId(), BookingStatusChange.OVERLAP);
+            } else {
+                approvedOfItem.add(candidate);
+                approvable.add(candidate.getId());
+            }
+        }
+        return approvable;
+    }
+
     @Override
     @Transactional
     public BookingDtoAnswerFull getBookingById(Long userId, Long bookingId) {
         checkExistenceUserById(userId);
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(() -> new NotFoundException(String
+        Booking booking = findBooking(bookingId).orElseThrow(() -> new NotFoundException(String
                 .format("Requested booking with id = %d not found", bookingId)));
         if (!userId.equals(booking.getBooker().getId()) && !userId.equals(booking.getItem().getOwner().getId())) {
             throw new NotFoundException(String.format("The user with id = %d does not have access " +
@@ -100,156 +228,65 @@ public class BookingServiceImpl implements BookingService {
     public List<BookingDtoAnswerFull> getAllBookingsOfUser(Long userId, SearchStatus state, Integer from, Integer size) {
         final LocalDateTime currentTime = LocalDateTime.now();
         checkExistenceUserById(userId);
-        if (from == null || size == null) {
-            return collectAllBookingsOfUser(userId, state, currentTime);
-        } else {
-            return collectAllBookingsOfUserWithPages(userId, state, currentTime, from, size);
-        }
+        Specification<Booking> spec = bookerIs(userId).and(stateIs(state, currentTime));
+        return findBookings(spec, from, size);
     }
 
-    private List<BookingDtoAnswerFull> collectAllBookingsOfUser(Long userId, SearchStatus state, LocalDateTime currentTime) {
-        List<Booking> bookings;
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findAllByBookerIdOrderByStartDesc(userId);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findAllByBookerIdAndEndAfterAndStartBeforeOrderByStartDesc(userId,
-                        currentTime, currentTime);
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByBookerIdAndStatusAndEndBeforeOrderByStartDesc(userId,
-                        APPROVED, currentTime);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(userId,
-                        currentTime);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, WAITING);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(userId, REJECTED);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        return bookings.stream().map(bookingMapper::toBookingDtoAnswerFull).collect(Collectors.toList());
+    @Override
+    @Transactional
+    public List<BookingDtoAnswerFull> getAllBookingsOfItemsOwner(Long userId, SearchStatus state, Integer from, Integer size) {
+        final LocalDateTime currentTime = LocalDateTime.now();
+        checkExistenceUserById(userId);
+        Specification<Booking> spec = itemOwnerIs(userId).and(stateIs(state, currentTime));
+        return findBookings(spec, from, size);
     }
 
-    private List<BookingDtoAnswerFull> collectAllBookingsOfUserWithPages(Long userId, SearchStatus state,
-                                                                         LocalDateTime currentTime, Integer from,
-                                                                         Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
-        Page<Booking> pages;
-        switch (state) {
-            case ALL:
-                pages = bookingRepository.findAllByBookerId(userId, pageable);
-                break;
-            case CURRENT:
-                pages = bookingRepository.findAllByBookerIdAndEndAfterAndStartBefore(userId,
-                        currentTime, currentTime, pageable);
-                break;
-            case PAST:
-                pages = bookingRepository.findAllByBookerIdAndStatusAndEndBefore(userId,
-                        APPROVED, currentTime, pageable);
-                break;
-            case FUTURE:
-                pages = bookingRepository.findAllByBookerIdAndStartAfter(userId, currentTime, pageable);
-                break;
-            case WAITING:
-                pages = bookingRepository.findAllByBookerIdAndStatus(userId, WAITING, pageable);
-                break;
-            case REJECTED:
-                pages = bookingRepository.findAllByBookerIdAndStatus(userId, REJECTED, pageable);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
-        }
-        return pages.stream()
-                .map(bookingMapper::toBookingDtoAnswerFull)
-                .collect(Collectors.toList());
+    @Override
+    @Transactional
+    public CursorPage<BookingDtoAnswerFull> getBookingsOfUserByCursor(Long userId, SearchStatus state, String cursor,
+                                                                      Integer size) {
+        final LocalDateTime currentTime = LocalDateTime.now();
+        checkExistenceUserById(userId);
+        return findBookingsByCursor(bookerIs(userId).and(stateIs(state, currentTime)), cursor, size);
     }
 
     @Override
     @Transactional
-    public List<BookingDtoAnswerFull> getAllBookingsOfItemsOwner(Long userId, SearchStatus state, Integer from, Integer size) {
+    public CursorPage<BookingDtoAnswerFull> getBookingsOfItemsOwnerByCursor(Long userId, SearchStatus state,
+                                                                            String cursor, Integer size) {
         final LocalDateTime currentTime = LocalDateTime.now();
         checkExistenceUserById(userId);
-        List<Item> items = itemService.getAllEntityItemsOfUserFromStorage(userId);
-        if (items.isEmpty()) {
-            return Collections.emptyList();
-        }
-        if (from == null || size == null) {
-            return collectAllBookingsOfItemsOwner(state, items, currentTime);
-        } else {
-            return collectAllBookingsOfItemsOwnerWithPages(state, items, currentTime, from, size);
-        }
+        return findBookingsByCursor(itemOwnerIs(userId).and(stateIs(state, currentTime)), cursor, size);
     }
 
-    private List<BookingDtoAnswerFull> collectAllBookingsOfItemsOwner(SearchStatus state, List<Item> items,
-                                                                      LocalDateTime currentTime) {
-        List<Booking> bookings;
-        switch (state) {
-            case ALL:
-                bookings = bookingRepository.findAllByItemInOrderByStartDesc(items);
-                break;
-            case CURRENT:
-                bookings = bookingRepository.findAllByItemInAndEndAfterAndStartBeforeOrderByStartDesc(items,
-                        currentTime, currentTime);
-                break;
-            case PAST:
-                bookings = bookingRepository.findAllByItemInAndStatusAndEndBeforeOrderByStartDesc(items,
-                        APPROVED, currentTime);
-                break;
-            case FUTURE:
-                bookings = bookingRepository.findAllByItemInAndStartAfterOrderByStartDesc(items,
-                        currentTime);
-                break;
-            case WAITING:
-                bookings = bookingRepository.findAllByItemInAndStatusOrderByStartDesc(items, WAITING);
-                break;
-            case REJECTED:
-                bookings = bookingRepository.findAllByItemInAndStatusOrderByStartDesc(items, REJECTED);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+    /* One query for every role/state combination: without from or size the whole list is returned.
+    The page is read with OFFSET/LIMIT and without the COUNT(*) query.
+    Lists are read-only, so they are selected straight into DTOs without loading entities. */
+    private List<BookingDtoAnswerFull> findBookings(Specification<Booking> spec, Integer from, Integer size) {
+        if (from == null || size == null) {
+            return bookingRepository.findFullDtos(spec, NEWEST_FIRST);
         }
-        return bookings.stream().map(bookingMapper::toBookingDtoAnswerFull).collect(Collectors.toList());
+        return bookingRepository.findFullDtos(spec, NEWEST_FIRST, from / size * size, size);
     }
 
-    private List<BookingDtoAnswerFull> collectAllBookingsOfItemsOwnerWithPages(SearchStatus state, List<Item> items,
-                                                                               LocalDateTime currentTime, Integer from,
-                                                                               Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by("start").descending());
-        Page<Booking> pages;
-        switch (state) {
-            case ALL:
-                pages = bookingRepository.findAllByItemIn(items, pageable);
-                break;
-            case CURRENT:
-                pages = bookingRepository.findAllByItemInAndEndAfterAndStartBefore(items, currentTime,
-                        currentTime, pageable);
-                break;
-            case PAST:
-                pages = bookingRepository.findAllByItemInAndStatusAndEndBefore(items, APPROVED,
-                        currentTime, pageable);
-                break;
-            case FUTURE:
-                pages = bookingRepository.findAllByItemInAndStartAfter(items, currentTime, pageable);
-                break;
-            case WAITING:
-                pages = bookingRepository.findAllByItemInAndStatus(items, WAITING, pageable);
-                break;
-            case REJECTED:
-                pages = bookingRepository.findAllByItemInAndStatus(items, REJECTED, pageable);
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+    /* The page starts right after the cursor, so its cost does not depend on the depth.
+    One extra row is requested to find out whether there is a next page. */
+    private CursorPage<BookingDtoAnswerFull> findBookingsByCursor(Specification<Booking> spec, String cursor,
+                                                                  Integer size) {
+        if (size == null || size <= 0) {
+            throw new ValidationException("'size' must be positive");
         }
-        return pages.stream()
-                .map(bookingMapper::toBookingDtoAnswerFull)
-                .collect(Collectors.toList());
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(after(KeysetCursor.decode(cursor)));
+        }
+        List<BookingDtoAnswerFull> bookings = bookingRepository.findFullDtos(spec, NEWEST_FIRST, 0, size + 1);
+        String nextCursor = null;
+        if (bookings.size() > size) {
+            bookings = bookings.subList(0, size);
+            BookingDtoAnswerFull last = bookings.get(size - 1);
+            nextCursor = new KeysetCursor(last.getStart(), last.getId()).encode();
+        }
+        return new CursorPage<>(bookings, nextCursor);
     }
 
     public void checkExistenceUserById(Long userId) {
@@ -259,7 +296,15 @@ public class BookingServiceImpl implements BookingService {
     }
 
     public boolean isBookingExists(Long bookingId) {
-        return bookingRepository.existsById(bookingId);
+        return liveIds.getBookings().mightContain(bookingId) && bookingRepository.existsById(bookingId);
+    }
+
+    // An id that surely does not exist is not looked up
+    private Optional<Booking> findBooking(Long bookingId) {
+        if (!liveIds.getBookings().mightContain(bookingId)) {
+            return Optional.empty();
+        }
+        return bookingRepository.findById(bookingId);
     }
 }
 
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+/* The database itself deletes the items and requests of a deleted user (ON DELETE CASCADE), past Hibernate,
+so their cached rows are dropped once the deletion of the user is committed. Users are rarely deleted,
+so whole regions are dropped instead of looking for the rows of the user. */
+@Component
+@ConditionalOnProperty(name = EntityCacheConfiguration.ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class CascadeEviction implements PostCommitDeleteEventListener {
+    private static final long serialVersionUID = 1L;
+
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void listenToCommits() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class).getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        Cache cache = entityManagerFactory.getCache();
+        cache.evict(Item.class);
+        cache.evict(ItemRequest.class);
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return User.class.equals(persister.getMappedClass());
+    }
+
+    // The misspelt name that Hibernate 5 still declares abstract, only the method above is called
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+}
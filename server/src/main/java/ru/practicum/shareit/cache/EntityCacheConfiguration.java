@@ -0,0 +1,74 @@
+package ru.practicum.shareit.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/* Second-level cache of the entities that almost every call reads by id: the user of the X-Sharer-User-Id
+header, the item and the request. Hibernate updates and evicts the cached rows on its own inserts, updates
+and deletes. The items and requests the database deletes with their user are dropped by CascadeEviction.
+Any other row changed past Hibernate stays cached until it expires.
+Every application context gets its own cache manager, so tests with different databases never share rows. */
+@Configuration
+@ConditionalOnProperty(name = EntityCacheConfiguration.ENABLED_PROPERTY, havingValue = "true", matchIfMissing = true)
+public class EntityCacheConfiguration {
+    public static final String ENABLED_PROPERTY = "shareit.entity-cache.enabled";
+    // entities marked with @Cache, every one gets a region named after its class
+    static final List<Class<?>> CACHED_ENTITIES = List.of(User.class, Item.class, ItemRequest.class);
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(@Value("${shareit.entity-cache.max-size:10000}") long maxSize,
+                                           @Value("${shareit.entity-cache.expire-after-write:10m}")
+                                           Duration expireAfterWrite) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("shareit:entity-cache:" + UUID.randomUUID()),
+                        EntityCacheConfiguration.class.getClassLoader());
+        for (Class<?> entity : CACHED_ENTITIES) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(entity.getName(), configuration);
+        }
+        return cacheManager;
+    }
+
+    // A region missing from the cache manager fails the start instead of getting an unbounded cache
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheHibernateProperties(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY,
+                    MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    // cache.gets with result=hit|miss, cache.puts, cache.removals and cache.evictions of every region
+    @Bean
+    public MeterBinder entityCacheMetrics(CacheManager entityCacheManager) {
+        return registry -> CACHED_ENTITIES.forEach(entity ->
+                JCacheMetrics.monitor(registry, entityCacheManager.getCache(entity.getName())));
+    }
+}
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/* Lets no more threads at the pool of connections than it has connections. With virtual threads every request
+has a thread of its own, and thousands of them would wait inside the pool and fail on its connection timeout
+under a load it would serve in time. Here they wait in turn, in a fair semaphore, as long as the acquire timeout.
+A permit is taken with the connection and given back when the connection is closed.
+shareit.db.guard.waiting and shareit.db.guard.active show the queue and the connections lent. */
+public class GuardedDataSource extends DelegatingDataSource implements MeterBinder {
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public GuardedDataSource(DataSource target, int maxConnections, Duration acquireTimeout) {
+        super(target);
+        this.maxConnections = maxConnections;
+        this.permits = new Semaphore(maxConnections, true);
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return guard(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return guard(() -> super.getConnection(username, password));
+    }
+
+    public int getActiveConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("shareit.db.guard.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database connection")
+                .register(registry);
+        Gauge.builder("shareit.db.guard.active", this, GuardedDataSource::getActiveConnections)
+                .description("Database connections lent")
+                .register(registry);
+        FunctionCounter.builder("shareit.db.guard.rejected", rejected, AtomicLong::get)
+                .description("Requests for a connection that timed out waiting")
+                .register(registry);
+    }
+
+    private Connection guard(ConnectionSource source) throws SQLException {
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                rejected.incrementAndGet();
+                throw new SQLTransientConnectionException(String.format(
+                        "No database connection was free within %d ms", acquireTimeout.toMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            return releasingOnClose(source.get());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "close":
+                            // closing twice gives the permit back once
+                            if (released.compareAndSet(false, true)) {
+                                try {
+                                    connection.close();
+                                } finally {
+                                    permits.release();
+                                }
+                            }
+                            return null;
+                        default:
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                    }
+                });
+    }
+
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
+    }
+}
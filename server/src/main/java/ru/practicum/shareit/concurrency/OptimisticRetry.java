@@ -0,0 +1,50 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.exceptions.ConflictException;
+
+import java.util.function.Supplier;
+
+/* Runs a piece of work in a transaction of its own and runs it again when the optimistic lock fails,
+that is when a versioned row was changed by another request between the read and the update.
+The work reads everything anew on each attempt, so it decides on the state the other request left.
+Conflicts are counted in shareit.optimistic.conflicts, tagged with whether the work was retried or given up. */
+@Slf4j
+@Component
+public class OptimisticRetry {
+    public static final String CONFLICTS_METRIC = "shareit.optimistic.conflicts";
+
+    private final TransactionOperations transactions;
+    private final int maxAttempts;
+    private final Counter retried;
+    private final Counter exhausted;
+
+    public OptimisticRetry(TransactionOperations transactions, MeterRegistry meterRegistry,
+                           @Value("${shareit.optimistic-retry.max-attempts:3}") int maxAttempts) {
+        this.transactions = transactions;
+        this.maxAttempts = maxAttempts;
+        this.retried = meterRegistry.counter(CONFLICTS_METRIC, "outcome", "retried");
+        this.exhausted = meterRegistry.counter(CONFLICTS_METRIC, "outcome", "exhausted");
+    }
+
+    public <T> T run(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactions.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw new ConflictException("The data was changed by another request, try again");
+                }
+                retried.increment();
+                log.debug("Optimistic lock failed on attempt {} of {}: {}", attempt, maxAttempts, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/* A virtual thread that blocks inside a synchronized block or a native call stays pinned to its carrier thread,
+and the carrier can run nothing else meanwhile. JFR reports every such block longer than the threshold:
+it is logged with the top of the stack, where the synchronized method or the JDBC call is,
+and counted in shareit.virtual-threads.pinned. The events are streamed with RecordingStream, which came with
+Java 14, so like the virtual threads in VirtualThreads it is looked up at runtime; the monitor is only made
+when there are virtual threads, so it is always found. */
+@Slf4j
+public class PinnedThreadMonitor implements MeterBinder, AutoCloseable {
+    public static final String PINNED_METRIC = "shareit.virtual-threads.pinned";
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int FRAMES = 8;
+
+    private static final String RECORDING_STREAM = "jdk.jfr.consumer.RecordingStream";
+
+    private final AtomicLong pinned = new AtomicLong();
+    private final AutoCloseable stream;
+
+    public PinnedThreadMonitor(Duration threshold) {
+        Consumer<RecordedEvent> onPinned = event -> {
+            pinned.incrementAndGet();
+            log.warn("A virtual thread was pinned to its carrier for {} ms at {}", event.getDuration().toMillis(),
+                    topFrames(event));
+        };
+        try {
+            Class<?> streamType = Class.forName(RECORDING_STREAM);
+            stream = (AutoCloseable) streamType.getConstructor().newInstance();
+            // stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace()
+            Method enable = streamType.getMethod("enable", String.class);
+            Object settings = enable.invoke(stream, PINNED_EVENT);
+            enable.getReturnType().getMethod("withThreshold", Duration.class).invoke(settings, threshold);
+            enable.getReturnType().getMethod("withStackTrace").invoke(settings);
+            streamType.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, onPinned);
+            streamType.getMethod("startAsync").invoke(stream);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Streaming JFR events needs Java 14", e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(PINNED_METRIC, pinned, AtomicLong::get)
+                .description("Virtual threads pinned to their carrier longer than the threshold")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        try {
+            stream.close();
+        } catch (Exception e) {
+            log.warn("The recording of pinned virtual threads did not close", e);
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "an unknown place";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(FRAMES)
+                .map(PinnedThreadMonitor::describe)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":"
+                + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.shareit.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/* Runs every request on a virtual thread of its own instead of the bounded pool of Tomcat threads.
+A request spends most of its time waiting for the database, and a waiting virtual thread holds no platform thread.
+The database stays the limit: the connections are guarded by GuardedDataSource, sized by the Hikari pool.
+Virtual threads need Java 21, on an older Java the requests stay on the pool of Tomcat threads
+while the connections are guarded all the same. */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = VirtualThreadConfiguration.ENABLED_PROPERTY, havingValue = "true")
+public class VirtualThreadConfiguration {
+    public static final String ENABLED_PROPERTY = "shareit.virtual-threads.enabled";
+
+    private final Optional<ExecutorService> requestExecutor = VirtualThreads.newPerTaskExecutor();
+    // pinning is only possible with virtual threads, without them there is nothing to record
+    private final Optional<PinnedThreadMonitor> pinnedThreadMonitor;
+
+    public VirtualThreadConfiguration(@Value("${shareit.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        pinnedThreadMonitor = requestExecutor.map(executor -> new PinnedThreadMonitor(threshold));
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestExecutor() {
+        return protocolHandler -> requestExecutor.ifPresentOrElse(executor -> {
+            protocolHandler.setExecutor(executor);
+            log.info("Requests are handled on virtual threads");
+        }, () -> log.warn("Virtual threads need Java 21, requests are handled by the pool of Tomcat threads"));
+    }
+
+    @Bean
+    public static BeanPostProcessor guardedDataSource(@Value("${shareit.virtual-threads.db-acquire-timeout:30s}")
+                                                      Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource) {
+                    HikariDataSource dataSource = (HikariDataSource) bean;
+                    return new GuardedDataSource(dataSource, dataSource.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder virtualThreadMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof GuardedDataSource) {
+                ((GuardedDataSource) dataSource).bindTo(registry);
+            }
+            pinnedThreadMonitor.ifPresent(monitor -> monitor.bindTo(registry));
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pinnedThreadMonitor.ifPresent(PinnedThreadMonitor::close);
+        requestExecutor.ifPresent(ExecutorService::shutdown);
+    }
+}
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.existence;
+
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/* Ids of the rows of one table known to exist, one bit per id, so a million ids take 125 KB.
+The set only answers "no" for certain: before it is loaded, and for ids that do not fit into it,
+every id might exist and has to be looked up in the storage. */
+public class LiveIdSet {
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BitSet ids = new BitSet();
+    private volatile boolean loaded;
+
+    public boolean mightContain(Long id) {
+        if (!loaded || !fits(id)) {
+            return true;
+        }
+        lock.readLock().lock();
+        try {
+            return ids.get(id.intValue());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Long id) {
+        if (!fits(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.set(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (!fits(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ids.clear(id.intValue());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // From now on an id missing from the set is missing from the storage
+    public void markLoaded() {
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ids.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean fits(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.practicum.shareit.existence;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.stream.Stream;
+
+/* Keeps LiveIds in step with the storage: loads the ids when the application starts and then applies
+every insert and delete that Hibernate commits, whatever code made it.
+Rows written past Hibernate are not seen. A row deleted by a foreign key cascade only stays a possible id,
+which costs a lookup. A row inserted by plain SQL or by another instance of the server would be reported
+missing, so the tracker is off unless shareit.live-ids.enabled=true says this server is the only writer.
+Without it the sets are never loaded and every id might exist. */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = LiveIdTracker.ENABLED_PROPERTY, havingValue = "true")
+@RequiredArgsConstructor
+public class LiveIdTracker implements PostCommitInsertEventListener, PostCommitDeleteEventListener {
+    public static final String ENABLED_PROPERTY = "shareit.live-ids.enabled";
+    private static final long serialVersionUID = 1L;
+
+    private final transient LiveIds liveIds;
+    private final transient EntityManagerFactory entityManagerFactory;
+    private final transient TransactionTemplate transactionTemplate;
+    private final transient UserRepository userRepository;
+    private final transient ItemRepository itemRepository;
+    private final transient BookingRepository bookingRepository;
+
+    // Registered before the server takes requests, so an insert committed while the ids are loaded is not lost
+    @PostConstruct
+    void listenToCommits() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /* A row deleted while the ids are read may be added back by the load. It stays a possible id,
+    which is safe: only a missing id is trusted. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        long started = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            load(liveIds.getUsers(), userRepository.streamAllIds());
+            load(liveIds.getItems(), itemRepository.streamAllIds());
+            load(liveIds.getBookings(), bookingRepository.streamAllIds());
+        });
+        log.info("Live ids are loaded in {} ms: {} users, {} items, {} bookings", System.currentTimeMillis() - started,
+                liveIds.getUsers().size(), liveIds.getItems().size(), liveIds.getBookings().size());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        LiveIdSet ids = liveIds.of(event.getPersister().getMappedClass());
+        if (ids != null) {
+            ids.add((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        LiveIdSet ids = liveIds.of(event.getPersister().getMappedClass());
+        if (ids != null) {
+            ids.remove((Long) event.getId());
+        }
+    }
+
+    // A rolled back insert left no row and a rolled back delete left the row, the sets are already right
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return liveIds.of(persister.getMappedClass()) != null;
+    }
+
+    // The misspelt name that Hibernate 5 still declares abstract, only the method above is called
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private static void load(LiveIdSet set, Stream<Long> ids) {
+        try (ids) {
+            ids.forEach(set::add);
+        }
+        set.markLoaded();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.practicum.shareit.existence;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Map;
+
+/* Ids of the users, items and bookings that exist. A service asks here before it looks an id up,
+so an id that surely does not exist is rejected without a query. An id that might exist is still read
+from the storage: for users and items that read is answered by the entity cache. */
+@Getter
+@Component
+public class LiveIds {
+    private final LiveIdSet users = new LiveIdSet();
+    private final LiveIdSet items = new LiveIdSet();
+    private final LiveIdSet bookings = new LiveIdSet();
+    private final Map<Class<?>, LiveIdSet> byEntity = Map.of(User.class, users, Item.class, items,
+            Booking.class, bookings);
+
+    // The set of the entity class, null if the ids of the class are not kept
+    public LiveIdSet of(Class<?> entityClass) {
+        return byEntity.get(entityClass);
+    }
+}
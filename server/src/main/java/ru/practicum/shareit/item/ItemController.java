@@ -1,7 +1,14 @@
 package ru.practicum.shareit.item;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,12 +18,20 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
 import ru.practicum.shareit.item.dto.ItemDtoAnswerFull;
+import ru.practicum.shareit.item.dto.ItemImportReport;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.version.ResourceVersions;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Slf4j
@@ -25,12 +40,54 @@ import java.util.List;
 @RequiredArgsConstructor
 class ItemController {
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+    private final ResourceVersions resourceVersions;
 
+    /* Импорт вещей пользователя. Тело — NDJSON, по одной вещи в строке; строки читаются и сохраняются
+    пачками по мере получения. В ответе — число созданных вещей и ошибки с номерами строк. */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ItemImportReport importItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        InputStream body) {
+        log.info("Received a request: POST/items/import from user id = {}", userId);
+        return itemService.importItems(userId, new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /* Экспорт всех вещей пользователя в NDJSON. Вещи пишутся в ответ по мере чтения из базы,
+    полученный текст можно снова передать в импорт. */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportItems(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info("Received a request: GET/items/export from user id = {}", userId);
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            itemService.forEachItemOfUser(userId, item -> {
+                try {
+                    writer.writeValue(out, item);
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /* Вещь с ETag: по совпавшему If-None-Match ответ 304 без чтения из базы. Владелец видит ближайшие
+    бронирования, которые меняются со временем, поэтому его ответ тега не получает. */
     @GetMapping("/{itemId}")
-    public ItemDtoAnswerFull getItemById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                         @PathVariable Long itemId) {
+    public ResponseEntity<ItemDtoAnswerFull> getItemById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @PathVariable Long itemId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                 required = false) String ifNoneMatch) {
         log.info("Received a request: GET/items/{} from user id = {}", itemId, userId);
-        return itemService.getItemById(userId, itemId);
+        String tag = resourceVersions.itemTag(itemId, userId);
+        if (ResourceVersions.matches(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        ItemDtoAnswerFull item = itemService.getItemById(userId, itemId);
+        if (tag == null || itemService.isOwnerOfItem(userId, itemId)) {
+            return ResponseEntity.ok(item);
+        }
+        return ResponseEntity.ok().eTag(tag).body(item);
     }
 
     @GetMapping
@@ -58,9 +115,12 @@ class ItemController {
     // поиск вещей по ключевым словам
     @GetMapping("/search")
     public List<ItemDtoAnswer> searchForItemsByQueryText(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                         @RequestParam String text) {
-        log.info("Received a request: GET/items/search from user id = {} with 'text': {}", userId, text);
-        return itemService.searchForItemsByQueryText(text);
+                                                         @RequestParam String text,
+                                                         @RequestParam(required = false) Integer from,
+                                                         @RequestParam(required = false) Integer size) {
+        log.info("Received a request: GET/items/search from user id = {} with 'text': {}, from={}, size={}",
+                userId, text, from, size);
+        return itemService.searchForItemsByQueryText(text, from, size);
     }
 
     @PostMapping("/{itemId}/comment")
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.dto;
+
+// The columns of an exported item, as streamed by ItemRepository.streamAllByOwnerId
+public interface ItemExportRow {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+
+    Long getRequestId();
+}
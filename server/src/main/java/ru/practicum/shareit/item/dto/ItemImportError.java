@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Value;
+
+// A line of a bulk import that was not imported, numbered from 1
+@Value
+public class ItemImportError {
+    long line;
+    String message;
+}
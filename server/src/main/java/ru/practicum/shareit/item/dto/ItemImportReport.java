@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+// How many lines of a bulk import became items, and why the others did not
+@Value
+public class ItemImportReport {
+    long imported;
+    List<ItemImportError> errors;
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+// The searchable columns of an item, as streamed by ItemRepository.streamAllAvailable
+public interface ItemSearchText {
+    Long getId();
+
+    String getName();
+
+    String getDescription();
+}
@@ -1,18 +1,63 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemExportRow;
+import ru.practicum.shareit.item.dto.ItemSearchText;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.requests.model.ItemRequest;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findAllByOwnerId(Long userId);
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+    // The request of an item is loaded eagerly, so it is joined here instead of being read item by item
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor"})
+    List<Item> findAllByOwnerIdOrderById(Long userId);
+
+    /* Available items whose name or description contains the pattern, those matching by name first.
+    The pattern is expected in lower case with its wildcards escaped by a backslash.
+    On PostgreSQL the trigram indexes of the vendor migration serve the LIKE conditions. */
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor"})
+    @Query("SELECT i FROM Item i "
+            + "WHERE i.available = true "
+            + "AND (LOWER(i.name) LIKE :pattern ESCAPE '\\' OR LOWER(i.description) LIKE :pattern ESCAPE '\\') "
+            + "ORDER BY CASE WHEN LOWER(i.name) LIKE :pattern ESCAPE '\\' THEN 0 ELSE 1 END, i.id")
+    List<Item> searchAvailable(@Param("pattern") String pattern, Pageable pageable);
+
+    // A page of items found by the search index, in one statement
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor"})
+    List<Item> findAllByIdIn(Collection<Long> ids);
 
-    List<Item> findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(String word,
-                                                                                                    String word1);
+    // Read in batches while the stream is consumed, so the whole table is never held in memory
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description FROM Item i WHERE i.available = true")
+    Stream<ItemSearchText> streamAllAvailable();
 
     List<Item> findAllByRequest(ItemRequest request);
+
+    // Answers to a whole list of requests in one statement
+    @EntityGraph(attributePaths = {"owner", "request", "request.requestor"})
+    List<Item> findAllByRequestIdInOrderById(Collection<Long> requestIds);
+
+    // The items of the owner as they are exported, read in batches while the stream is consumed
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT i.id AS id, i.name AS name, i.description AS description, i.available AS available, "
+            + "r.id AS requestId FROM Item i LEFT JOIN i.request r WHERE i.owner.id = :ownerId ORDER BY i.id")
+    Stream<ItemExportRow> streamAllByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Ids of all items, read in batches while the stream is consumed
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT i.id FROM Item i")
+    Stream<Long> streamAllIds();
 }
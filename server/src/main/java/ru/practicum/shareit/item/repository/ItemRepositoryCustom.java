@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.repository;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+    /* Inserts new items by one JDBC batch, past the persistence context and the entity cache.
+    The ids are taken from the id generator of Item and set on the items. Only the id of the owner
+    and of the request is used, so they may be plain objects that carry the id. */
+    void insertAll(List<Item> items);
+}
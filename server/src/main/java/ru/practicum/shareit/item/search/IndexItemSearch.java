@@ -0,0 +1,134 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemSearchText;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/* Answers the search from ItemSearchIndex and reads from the storage only the items of the requested page.
+The index is built when the application starts and follows the committed changes of items. */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = ItemSearch.ENGINE_PROPERTY, havingValue = "index")
+@RequiredArgsConstructor
+public class IndexItemSearch implements ItemSearch {
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Object lock = new Object();
+    /* one rebuild at a time; a lock rather than a monitor, since the rebuild scans the storage
+    and a virtual thread blocked on JDBC inside a monitor would pin its carrier */
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile ItemSearchIndex index = new ItemSearchIndex();
+    // changes committed while the index is rebuilt, replayed on the new index
+    private List<ItemChangedEvent> pending;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        List<Long> ids = index.search(text, offset, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Item> items = itemRepository.findAllByIdIn(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        // an item changed after the index was read is left out rather than returned unavailable
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .filter(x -> Boolean.TRUE.equals(x.getAvailable()))
+                .collect(Collectors.toList());
+    }
+
+    @TransactionalEventListener
+    public void onItemChanged(ItemChangedEvent event) {
+        synchronized (lock) {
+            apply(index, event);
+            if (pending != null) {
+                pending.add(event);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        RebuildReport report = rebuild();
+        log.info("Item search index is built: {} items in {} ms", report.getDocuments(), report.getMillis());
+    }
+
+    /* Builds a new index from a streaming scan of the storage and swaps it in.
+    The difference between the old index as it was when the rebuild started and the new one tells whether
+    the old one had drifted. Items changed during the rebuild are left out of the comparison. */
+    public RebuildReport rebuild() {
+        rebuildLock.lock();
+        try {
+            return rebuildIndex();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private RebuildReport rebuildIndex() {
+        long started = System.currentTimeMillis();
+        ItemSearchIndex.Snapshot snapshot;
+        synchronized (lock) {
+            pending = new ArrayList<>();
+            snapshot = index.snapshot();
+        }
+        try {
+            ItemSearchIndex.Builder builder = ItemSearchIndex.builder();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ItemSearchText> texts = itemRepository.streamAllAvailable()) {
+                    texts.forEach(x -> builder.add(x.getId(), x.getName(), x.getDescription()));
+                }
+            });
+            ItemSearchIndex built = builder.build();
+            synchronized (lock) {
+                Set<Long> changed = pending.stream().map(ItemChangedEvent::getId).collect(Collectors.toSet());
+                ItemSearchIndex.Difference difference = snapshot.differenceFrom(built, changed);
+                pending.forEach(event -> apply(built, event));
+                index = built;
+                if (!difference.isConsistent()) {
+                    log.warn("Item search index differed from the storage: {}", difference);
+                }
+                return new RebuildReport(built.stats().getDocuments(), difference,
+                        System.currentTimeMillis() - started);
+            }
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+        }
+    }
+
+    public ItemSearchIndex.Stats stats() {
+        return index.stats();
+    }
+
+    private static void apply(ItemSearchIndex target, ItemChangedEvent event) {
+        if (Boolean.TRUE.equals(event.getAvailable())) {
+            target.put(event.getId(), event.getName(), event.getDescription());
+        } else {
+            target.remove(event.getId());
+        }
+    }
+}
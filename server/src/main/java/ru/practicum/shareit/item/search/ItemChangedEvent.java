@@ -0,0 +1,12 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+// The searchable state of an item after it was created or updated
+@Value
+public class ItemChangedEvent {
+    Long id;
+    String name;
+    String description;
+    Boolean available;
+}
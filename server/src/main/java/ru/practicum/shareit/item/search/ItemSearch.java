@@ -0,0 +1,14 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/* Finds available items whose name or description contains the text, those matching by name first.
+The implementation is chosen by 'shareit.item-search.engine': 'database' (the default) or 'index'. */
+public interface ItemSearch {
+    String ENGINE_PROPERTY = "shareit.item-search.engine";
+
+    List<Item> search(String text, Pageable pageable);
+}
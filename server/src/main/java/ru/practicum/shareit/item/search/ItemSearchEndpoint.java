@@ -0,0 +1,28 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/* /actuator/itemsearch: GET gives the size of the search index and its estimated memory,
+POST rebuilds it from the storage and reports how far the replaced index had drifted. */
+@Component
+@Endpoint(id = "itemsearch")
+@ConditionalOnProperty(name = ItemSearch.ENGINE_PROPERTY, havingValue = "index")
+@RequiredArgsConstructor
+public class ItemSearchEndpoint {
+    private final IndexItemSearch indexItemSearch;
+
+    @ReadOperation
+    public ItemSearchIndex.Stats stats() {
+        return indexItemSearch.stats();
+    }
+
+    @WriteOperation
+    public RebuildReport rebuild() {
+        return indexItemSearch.rebuild();
+    }
+}
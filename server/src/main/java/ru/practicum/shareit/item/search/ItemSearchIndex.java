@@ -0,0 +1,255 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/* Inverted index of the text of available items. The tokens are the trigrams of the lower-cased name
+and description packed into a long, so a text of three or more characters narrows the search down to the items
+that have all of its trigrams. The candidates are then checked against the stored text, which gives the same
+items in the same order as ItemRepository.searchAvailable: name matches first, then by id. */
+public class ItemSearchIndex {
+    private static final int TRIGRAM = 3;
+    // rough JVM costs behind the memory estimate: a HashMap entry with its boxed key, an object header
+    private static final int ENTRY_BYTES = 48;
+    private static final int OBJECT_BYTES = 16;
+
+    private final Map<Long, PostingList> postings;
+    private final Map<Long, Document> documents;
+
+    public ItemSearchIndex() {
+        this(new HashMap<>(), new HashMap<>());
+    }
+
+    private ItemSearchIndex(Map<Long, PostingList> postings, Map<Long, Document> documents) {
+        this.postings = postings;
+        this.documents = documents;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public synchronized void put(long id, String name, String description) {
+        remove(id);
+        Document document = new Document(lower(name), lower(description));
+        documents.put(id, document);
+        for (long token : document.tokens()) {
+            postings.computeIfAbsent(token, x -> new PostingList(Postings.EMPTY)).add(id);
+        }
+    }
+
+    public synchronized void remove(long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (long token : document.tokens()) {
+            PostingList list = postings.get(token);
+            list.remove(id);
+            if (list.size() == 0) {
+                postings.remove(token);
+            }
+        }
+    }
+
+    // Ids of the matching items from offset on, at most limit of them
+    public synchronized List<Long> search(String text, long offset, int limit) {
+        String query = lower(text);
+        List<Long> byName = new ArrayList<>();
+        List<Long> byDescription = new ArrayList<>();
+        for (long id : candidates(query)) {
+            Document document = documents.get(id);
+            if (document.getName().contains(query)) {
+                byName.add(id);
+            } else if (document.getDescription().contains(query)) {
+                byDescription.add(id);
+            }
+        }
+        byName.addAll(byDescription);
+        if (offset >= byName.size()) {
+            return List.of();
+        }
+        return List.copyOf(byName.subList((int) offset, (int) Math.min(byName.size(), offset + limit)));
+    }
+
+    public synchronized Stats stats() {
+        long postingsCount = 0;
+        long postingsBytes = 0;
+        for (PostingList list : postings.values()) {
+            postingsCount += list.size();
+            postingsBytes += list.byteSize();
+        }
+        long documentBytes = 0;
+        for (Document document : documents.values()) {
+            documentBytes += 2L * (document.getName().length() + document.getDescription().length());
+        }
+        long estimatedBytes = postingsBytes + (long) postings.size() * (ENTRY_BYTES + 2 * OBJECT_BYTES)
+                + documentBytes + (long) documents.size() * (ENTRY_BYTES + 5 * OBJECT_BYTES);
+        return new Stats(documents.size(), postings.size(), postingsCount, postingsBytes, documentBytes,
+                estimatedBytes);
+    }
+
+    // The items of the index as they are now, to be compared with the storage once it has been read
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(Map.copyOf(documents));
+    }
+
+    private long[] candidates(String query) {
+        if (query.length() < TRIGRAM) {
+            long[] all = documents.keySet().stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(all);
+            return all;
+        }
+        List<PostingList> lists = new ArrayList<>();
+        for (long token : trigrams(query)) {
+            PostingList list = postings.get(token);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        long[] result = lists.get(0).toArray();
+        int count = result.length;
+        for (PostingList list : lists.subList(1, lists.size())) {
+            long[] ids = list.toArray();
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (Arrays.binarySearch(ids, result[i]) >= 0) {
+                    result[kept++] = result[i];
+                }
+            }
+            count = kept;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> tokens = new HashSet<>();
+        for (int i = 0; i + TRIGRAM <= text.length(); i++) {
+            tokens.add((long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+        }
+        return tokens;
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    @Value
+    static class Document {
+        String name;
+        String description;
+
+        Set<Long> tokens() {
+            Set<Long> tokens = trigrams(name);
+            tokens.addAll(trigrams(description));
+            return tokens;
+        }
+    }
+
+    @Value
+    public static class Stats {
+        int documents;
+        int tokens;
+        long postings;
+        long postingsBytes;
+        long documentBytes;
+        long estimatedBytes;
+    }
+
+    public static final class Snapshot {
+        private final Map<Long, Document> documents;
+
+        private Snapshot(Map<Long, Document> documents) {
+            this.documents = documents;
+        }
+
+        /* How the snapshot differs from an index built from the storage. The items in skipped were changed
+        while the storage was read, the built index may or may not have them, so they are not compared. */
+        public Difference differenceFrom(ItemSearchIndex expected, Set<Long> skipped) {
+            int missing = 0;
+            int changed = 0;
+            for (Map.Entry<Long, Document> entry : expected.documents.entrySet()) {
+                if (skipped.contains(entry.getKey())) {
+                    continue;
+                }
+                Document document = documents.get(entry.getKey());
+                if (document == null) {
+                    missing++;
+                } else if (!document.equals(entry.getValue())) {
+                    changed++;
+                }
+            }
+            int stale = 0;
+            for (Long id : documents.keySet()) {
+                if (!skipped.contains(id) && !expected.documents.containsKey(id)) {
+                    stale++;
+                }
+            }
+            return new Difference(missing, stale, changed);
+        }
+    }
+
+    @Value
+    public static class Difference {
+        int missing;
+        int stale;
+        int changed;
+
+        public boolean isConsistent() {
+            return missing == 0 && stale == 0 && changed == 0;
+        }
+    }
+
+    /* Builds the index in one pass: the ids of every token are collected in plain arrays
+    and compressed once at the end instead of on every added item. */
+    public static final class Builder {
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final Map<Long, IdList> ids = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long id, String name, String description) {
+            Document document = new Document(lower(name), lower(description));
+            if (documents.putIfAbsent(id, document) != null) {
+                return this;
+            }
+            for (long token : document.tokens()) {
+                ids.computeIfAbsent(token, x -> new IdList()).add(id);
+            }
+            return this;
+        }
+
+        public ItemSearchIndex build() {
+            Map<Long, PostingList> postings = new HashMap<>();
+            ids.forEach((token, list) -> {
+                Arrays.sort(list.ids, 0, list.count);
+                postings.put(token, new PostingList(Postings.of(list.ids, list.count)));
+            });
+            return new ItemSearchIndex(postings, new HashMap<>(documents));
+        }
+    }
+
+    private static final class IdList {
+        private long[] ids = new long[4];
+        private int count;
+
+        void add(long id) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, count * 2);
+            }
+            ids[count++] = id;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/* The ids of one token: compressed Postings and two small sorted buffers of the ids added and removed since
+the Postings were written. A change only touches a buffer, and the buffers are merged into new Postings once
+they outgrow an eighth of them, so a trigram shared by many items is not re-encoded on every change of an item.
+Not thread-safe, the index guards it. */
+final class PostingList {
+    private static final int MIN_BUFFERED = 32;
+
+    private Postings postings;
+    private final IdBuffer added = new IdBuffer();
+    private final IdBuffer removed = new IdBuffer();
+
+    PostingList(Postings postings) {
+        this.postings = postings;
+    }
+
+    // The id must not be in the list
+    void add(long id) {
+        if (!removed.remove(id)) {
+            added.add(id);
+            mergeIfFull();
+        }
+    }
+
+    // The id must be in the list
+    void remove(long id) {
+        if (!added.remove(id)) {
+            removed.add(id);
+            mergeIfFull();
+        }
+    }
+
+    long[] toArray() {
+        long[] ids = postings.toArray();
+        if (added.count == 0 && removed.count == 0) {
+            return ids;
+        }
+        long[] result = new long[size()];
+        int length = 0;
+        int next = 0;
+        int skipped = 0;
+        for (long id : ids) {
+            while (next < added.count && added.ids[next] < id) {
+                result[length++] = added.ids[next++];
+            }
+            if (skipped < removed.count && removed.ids[skipped] == id) {
+                skipped++;
+            } else {
+                result[length++] = id;
+            }
+        }
+        while (next < added.count) {
+            result[length++] = added.ids[next++];
+        }
+        return result;
+    }
+
+    int size() {
+        return postings.size() + added.count - removed.count;
+    }
+
+    int byteSize() {
+        return postings.byteSize() + (added.ids.length + removed.ids.length) * Long.BYTES;
+    }
+
+    private void mergeIfFull() {
+        if (added.count + removed.count > Math.max(MIN_BUFFERED, postings.size() / 8)) {
+            long[] ids = toArray();
+            postings = Postings.of(ids, ids.length);
+            added.clear();
+            removed.clear();
+        }
+    }
+
+    private static final class IdBuffer {
+        private long[] ids = new long[0];
+        private int count;
+
+        void add(long id) {
+            int insertion = -Arrays.binarySearch(ids, 0, count, id) - 1;
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, count * 2));
+            }
+            System.arraycopy(ids, insertion, ids, insertion + 1, count - insertion);
+            ids[insertion] = id;
+            count++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, count, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, count - index - 1);
+            count--;
+            return true;
+        }
+
+        void clear() {
+            ids = new long[0];
+            count = 0;
+        }
+    }
+}
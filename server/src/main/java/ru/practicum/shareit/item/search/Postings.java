@@ -0,0 +1,64 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Arrays;
+
+/* Ascending item ids of one token, stored as variable-length deltas: ids that are close to each other
+take one or two bytes instead of eight. The list is immutable, PostingList buffers the changes to it. */
+final class Postings {
+    static final Postings EMPTY = new Postings(new byte[0], 0);
+
+    private final byte[] data;
+    private final int size;
+
+    private Postings(byte[] data, int size) {
+        this.data = data;
+        this.size = size;
+    }
+
+    // ids must be ascending and distinct
+    static Postings of(long[] ids, int count) {
+        if (count == 0) {
+            return EMPTY;
+        }
+        byte[] buffer = new byte[count * 10];
+        int length = 0;
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = ids[i] - previous;
+            previous = ids[i];
+            while ((delta & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            buffer[length++] = (byte) delta;
+        }
+        return new Postings(Arrays.copyOf(buffer, length), count);
+    }
+
+    long[] toArray() {
+        long[] ids = new long[size];
+        int position = 0;
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long delta = 0;
+            int shift = 0;
+            byte next;
+            do {
+                next = data[position++];
+                delta |= (long) (next & 0x7F) << shift;
+                shift += 7;
+            } while (next < 0);
+            previous += delta;
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int byteSize() {
+        return data.length;
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+// The result of rebuilding the search index: how the replaced index differed from the storage
+@Value
+public class RebuildReport {
+    int documents;
+    ItemSearchIndex.Difference difference;
+    long millis;
+}
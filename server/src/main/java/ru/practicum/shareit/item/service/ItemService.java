@@ -4,9 +4,12 @@ import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
 import ru.practicum.shareit.item.dto.ItemDtoAnswerFull;
+import ru.practicum.shareit.item.dto.ItemImportReport;
 import ru.practicum.shareit.item.model.Item;
 
+import java.io.Reader;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
@@ -26,10 +29,20 @@ public interface ItemService {
 
     ItemDtoAnswer updateItem(Long userId, Long itemId, ItemDto itemDto);
 
-    // Getting a list of items by keywords
-    List<ItemDtoAnswer> searchForItemsByQueryText(String text);
+    // Getting a list of items by keywords, the whole list when 'from' or 'size' is not given
+    List<ItemDtoAnswer> searchForItemsByQueryText(String text, Integer from, Integer size);
 
     CommentDto createComment(Long userId, Long itemId, CommentDto commentDto);
 
     boolean isItemExists(Long itemId);
+
+    // Whether the item is of the user, read from the entity cache
+    boolean isOwnerOfItem(Long userId, Long itemId);
+
+    /* Creates an item of the user for every line of the NDJSON text and reports the lines that were not imported.
+    An id in a line is ignored, so an export can be imported as it is. */
+    ItemImportReport importItems(Long userId, Reader ndjson);
+
+    // Passes the items of the user to the action one by one in the order of their ids
+    void forEachItemOfUser(Long userId, Consumer<ItemDtoAnswer> action);
 }
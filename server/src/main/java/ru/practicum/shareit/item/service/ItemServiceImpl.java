@@ -1,14 +1,22 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDtoWithBookerId;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.NearestBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.OwnerVerificationException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.existence.LiveIds;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapper;
@@ -16,19 +24,39 @@ import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
 import ru.practicum.shareit.item.dto.ItemDtoAnswerFull;
+import ru.practicum.shareit.item.dto.ItemExportRow;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemChangedEvent;
+import ru.practicum.shareit.item.search.ItemSearch;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.version.ResourceVersions;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
 
@@ -37,6 +65,8 @@ import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
 @RequiredArgsConstructor
 public
 class ItemServiceImpl implements ItemService {
+    private static final int IMPORT_BATCH_SIZE = 500;
+
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
@@ -45,6 +75,11 @@ class ItemServiceImpl implements ItemService {
     private final ItemMapper itemMapper;
     private final BookingMapper bookingMapper;
     private final CommentMapper commentMapper;
+    private final ItemSearch itemSearch;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LiveIds liveIds;
+    private final ResourceVersions resourceVersions;
+    private final ObjectMapper objectMapper;
 
     @Override
     @Transactional
@@ -57,7 +92,7 @@ class ItemServiceImpl implements ItemService {
     @Override
     @Transactional
     public Item getEntityItemByIdFromStorage(Long itemId) {
-        return itemRepository.findById(itemId).orElseThrow(() ->
+        return findItem(itemId).orElseThrow(() ->
                 new NotFoundException(String.format("The item with id = %d is missing from the storage", itemId)));
     }
 
@@ -70,27 +105,49 @@ class ItemServiceImpl implements ItemService {
         if (!item.getOwner().getId().equals(userId)) {
             return itemMapper.toItemDtoAnswerFull(item, null, null, commentsDto);
         }
-        Booking last = bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(item.getId(), LocalDateTime.now());
-        Booking next = bookingRepository.findByItemIdAndStartIsAfterOrderByStart(item.getId(), LocalDateTime.now());
-        return itemMapper.toItemDtoAnswerFull(item, bookingMapper.toBookingDtoWithBookerId(last),
-                bookingMapper.toBookingDtoWithBookerId(next), commentsDto);
+        BookingDtoWithBookerId last = null;
+        BookingDtoWithBookerId next = null;
+        for (NearestBooking booking : bookingRepository.findLastAndNextApproved(item.getId(), LocalDateTime.now())) {
+            if (NearestBooking.LAST.equals(booking.getKind())) {
+                last = bookingMapper.toBookingDtoWithBookerId(booking);
+            } else {
+                next = bookingMapper.toBookingDtoWithBookerId(booking);
+            }
+        }
+        return itemMapper.toItemDtoAnswerFull(item, last, next, commentsDto);
     }
 
+    /* Comments and the nearest bookings of all the items are read with one query each,
+    so the number of statements does not depend on how many items the user owns. */
     @Override
     @Transactional
     public List<ItemDtoAnswerFull> getAllItemsOfUser(Long userId) {
         checkExistenceUserInRepositoryById(userId);
         List<Item> items = getAllEntityItemsOfUserFromStorage(userId);
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+        Map<Long, List<CommentDto>> comments = commentRepository.findAllByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(x -> x.getItem().getId(),
+                        Collectors.mapping(x -> commentMapper.toCommentDto(x, x.getAuthor()), Collectors.toList())));
+        Map<Long, BookingDtoWithBookerId> lastBookings = new HashMap<>();
+        Map<Long, BookingDtoWithBookerId> nextBookings = new HashMap<>();
+        for (NearestBooking booking : bookingRepository.findLastAndNextApprovedOfItems(itemIds, LocalDateTime.now())) {
+            Map<Long, BookingDtoWithBookerId> target = NearestBooking.LAST.equals(booking.getKind())
+                    ? lastBookings : nextBookings;
+            target.put(booking.getItemId(), bookingMapper.toBookingDtoWithBookerId(booking));
+        }
         return items.stream()
-                .map(x -> collectItemWithBookingsAndComments(x, userId))
-                .sorted(Comparator.comparingLong(ItemDtoAnswerFull::getId))
+                .map(x -> itemMapper.toItemDtoAnswerFull(x, lastBookings.get(x.getId()), nextBookings.get(x.getId()),
+                        comments.getOrDefault(x.getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
     }
 
     @Override
     @Transactional
     public List<Item> getAllEntityItemsOfUserFromStorage(Long userId) {
-        return itemRepository.findAllByOwnerId(userId);
+        return itemRepository.findAllByOwnerIdOrderById(userId);
     }
 
     @Override
@@ -112,6 +169,7 @@ class ItemServiceImpl implements ItemService {
         User owner = userService.getEntityUserByIdFromStorage(userId);
         item.setOwner(owner);
         itemRepository.save(item);
+        publishChange(item);
         return itemMapper.toItemDtoAnswer(item, item.getRequest());
     }
 
@@ -124,24 +182,25 @@ class ItemServiceImpl implements ItemService {
             itemRequest = itemRequestRepository.findById(itemDto.getRequestId()).orElseThrow(() -> new NotFoundException(
                     String.format("Passed id = %d of the item not found", itemDto.getRequestId())));
         }
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException(String
+        Item item = findItem(itemId).orElseThrow(() -> new NotFoundException(String
                 .format("Item with id = %d not found", itemId)));
         if (!item.getOwner().getId().equals(userId)) {
             throw new OwnerVerificationException("Editing access is restricted. Only owner of the item can edit it.");
         }
         itemMapper.updateItemFromDto(itemDto, item, itemRequest);
         itemRepository.save(item);
+        publishChange(item);
         return itemMapper.toItemDtoAnswer(item, item.getRequest());
     }
 
     @Override
     @Transactional
-    public List<ItemDtoAnswer> searchForItemsByQueryText(String text) {
+    public List<ItemDtoAnswer> searchForItemsByQueryText(String text, Integer from, Integer size) {
         if (text.trim().isEmpty()) {
             return Collections.emptyList();
         }
-        List<Item> items = itemRepository
-                .findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailableIsTrue(text, text);
+        Pageable page = from == null || size == null ? Pageable.unpaged() : PageRequest.of(from / size, size);
+        List<Item> items = itemSearch.search(text, page);
         return items.stream()
                 .map(x -> itemMapper.toItemDtoAnswer(x, x.getRequest()))
                 .collect(Collectors.toList());
@@ -151,7 +210,7 @@ class ItemServiceImpl implements ItemService {
     @Transactional(readOnly = false)
     public CommentDto createComment(Long userId, Long itemId, CommentDto commentDto) {
         checkExistenceUserInRepositoryById(userId);
-        if (!itemRepository.existsById(itemId)) {
+        if (!isItemExists(itemId)) {
             throw new NotFoundException(String.format("Item with id = %d not found", itemId));
         }
         List<Booking> bookings = bookingRepository.findAllByItemIdAndStatusAndEndBefore(itemId, APPROVED,
@@ -171,8 +230,143 @@ class ItemServiceImpl implements ItemService {
         return commentMapper.toCommentDto(answer, answer.getAuthor());
     }
 
+    /* Lines are read as they arrive and inserted by batches, so the whole text is never held in memory.
+    The requests named by a batch are read with one query and the batch is inserted by one JDBC batch. */
+    @Override
+    @Transactional(readOnly = false)
+    public ItemImportReport importItems(Long userId, Reader ndjson) {
+        checkExistenceUserInRepositoryById(userId);
+        User owner = User.builder().id(userId).build();
+        List<ItemImportError> errors = new ArrayList<>();
+        Map<Long, ItemDto> batch = new LinkedHashMap<>();
+        long imported = 0;
+        long lineNumber = 0;
+        try (BufferedReader lines = new BufferedReader(ndjson)) {
+            for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ItemDto itemDto = objectMapper.readValue(line, ItemDto.class);
+                    String error = validateImported(itemDto);
+                    if (error != null) {
+                        errors.add(new ItemImportError(lineNumber, error));
+                        continue;
+                    }
+                    batch.put(lineNumber, itemDto);
+                } catch (JsonProcessingException e) {
+                    errors.add(new ItemImportError(lineNumber, "The line is not an item in JSON: "
+                            + e.getOriginalMessage()));
+                }
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    imported += insertImported(owner, batch, errors);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        imported += insertImported(owner, batch, errors);
+        errors.sort(Comparator.comparingLong(ItemImportError::getLine));
+        return new ItemImportReport(imported, errors);
+    }
+
+    private static String validateImported(ItemDto itemDto) {
+        if (itemDto.getName() == null || itemDto.getName().isBlank()) {
+            return "The name of item is empty";
+        }
+        if (itemDto.getDescription() == null) {
+            return "The description of item is null";
+        }
+        if (itemDto.getAvailable() == null) {
+            return "The available of item is null";
+        }
+        return null;
+    }
+
+    private long insertImported(User owner, Map<Long, ItemDto> batch, List<ItemImportError> errors) {
+        Set<Long> requestIds = batch.values().stream()
+                .map(ItemDto::getRequestId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Map.of() : itemRequestRepository
+                .findAllById(requestIds).stream()
+                .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        List<Item> items = new ArrayList<>(batch.size());
+        batch.forEach((lineNumber, itemDto) -> {
+            ItemRequest request = null;
+            if (itemDto.getRequestId() != null) {
+                request = requests.get(itemDto.getRequestId());
+                if (request == null) {
+                    errors.add(new ItemImportError(lineNumber, "The passed item request id was not found"));
+                    return;
+                }
+                if (request.getRequestor().getId().equals(owner.getId())) {
+                    errors.add(new ItemImportError(lineNumber,
+                            "The user who created the request cannot offer items for him"));
+                    return;
+                }
+            }
+            items.add(Item.builder()
+                    .name(itemDto.getName())
+                    .description(itemDto.getDescription())
+                    .available(itemDto.getAvailable())
+                    .owner(owner)
+                    .request(request)
+                    .build());
+        });
+        itemRepository.insertAll(items);
+        // the rows were inserted past Hibernate, so its listeners did not see them
+        for (Item item : items) {
+            liveIds.getItems().add(item.getId());
+            publishChange(item);
+        }
+        resourceVersions.requestsChangedAfterCommit(items.stream()
+                .filter(item -> item.getRequest() != null)
+                .map(item -> item.getRequest().getId())
+                .collect(Collectors.toSet()));
+        return items.size();
+    }
+
+    @Override
+    @Transactional
+    public void forEachItemOfUser(Long userId, Consumer<ItemDtoAnswer> action) {
+        checkExistenceUserInRepositoryById(userId);
+        try (Stream<ItemExportRow> rows = itemRepository.streamAllByOwnerId(userId)) {
+            rows.map(row -> ItemDtoAnswer.builder()
+                            .id(row.getId())
+                            .name(row.getName())
+                            .description(row.getDescription())
+                            .available(row.getAvailable())
+                            .requestId(row.getRequestId())
+                            .build())
+                    .forEach(action);
+        }
+    }
+
+    // Listeners such as the search index get the change once the transaction is committed
+    private void publishChange(Item item) {
+        eventPublisher.publishEvent(new ItemChangedEvent(item.getId(), item.getName(), item.getDescription(),
+                item.getAvailable()));
+    }
+
+    // findById is answered by the entity cache, existsById would always query the database
     public boolean isItemExists(Long itemId) {
-        return itemRepository.existsById(itemId);
+        return findItem(itemId).isPresent();
+    }
+
+    @Override
+    public boolean isOwnerOfItem(Long userId, Long itemId) {
+        return findItem(itemId).map(item -> item.getOwner().getId().equals(userId)).orElse(false);
+    }
+
+    // An id that surely does not exist is not looked up
+    private Optional<Item> findItem(Long itemId) {
+        if (!liveIds.getItems().mightContain(itemId)) {
+            return Optional.empty();
+        }
+        return itemRepository.findById(itemId);
     }
 
     public void checkExistenceUserInRepositoryById(Long userId) {
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.pagination;
+
+import lombok.Value;
+
+import java.util.List;
+
+// A page of a keyset-paginated list. nextCursor is null on the last page.
+@Value
+public class CursorPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    List<T> content;
+    String nextCursor;
+}
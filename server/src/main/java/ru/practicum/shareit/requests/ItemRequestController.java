@@ -1,7 +1,14 @@
 package ru.practicum.shareit.requests;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -10,13 +17,19 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswer;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswerFull;
 import ru.practicum.shareit.requests.service.ItemRequestService;
+import ru.practicum.shareit.version.ResourceVersions;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @RestController
@@ -24,6 +37,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ItemRequestController {
     private final ItemRequestService itemRequestService;
+    private final ObjectMapper objectMapper;
+    private final ResourceVersions resourceVersions;
 
     /*POST /requests — добавить новый запрос вещи. Основная часть запроса — текст запроса,
     где пользователь описывает, какая именно вещь ему нужна.*/
@@ -40,9 +55,46 @@ public class ItemRequestController {
     название, id владельца. Так в дальнейшем, используя указанные id вещей, можно будет получить подробную информацию
     о каждой вещи. Запросы должны возвращаться в отсортированном порядке от более новых к более старым.*/
     @GetMapping
-    public List<ItemRequestDtoAnswerFull> getAllItemRequestsOfUser(@RequestHeader("X-Sharer-User-Id") Long userId) {
+    public ResponseEntity<StreamingResponseBody> getAllItemRequestsOfUser(
+            @RequestHeader("X-Sharer-User-Id") Long userId) {
         log.info("Received a request: GET/requests from user id = {}", userId);
-        return itemRequestService.getAllItemRequestsOfUser(userId);
+        /* Запросы пишутся в ответ по мере чтения из базы, а не собираются в список целиком.
+        Когда тело начинает писаться, статус 200 уже отправлен, поэтому пользователь проверяется заранее. */
+        itemRequestService.checkExistenceOfUser(userId);
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            AtomicBoolean first = new AtomicBoolean(true);
+            itemRequestService.forEachItemRequestOfUser(userId, request -> {
+                try {
+                    out.write(first.getAndSet(false) ? '[' : ',');
+                    writer.writeValue(out, request);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (first.get()) {
+                out.write('[');
+            }
+            out.write(']');
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /* GET /requests?cursor={cursor}&size={size} — те же запросы постранично. Пустой курсор даёт первую страницу,
+    курсор следующей страницы возвращается в заголовке X-Next-Cursor.*/
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<ItemRequestDtoAnswerFull>>
+    getItemRequestsOfUserByCursor(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                  @RequestParam String cursor,
+                                  @RequestParam(required = false) Integer size) {
+        log.info("Received a request: GET/requests?cursor={}&size={} from user id = {}", cursor, size, userId);
+        CursorPage<ItemRequestDtoAnswerFull> page = itemRequestService.getItemRequestsOfUserByCursor(userId, cursor,
+                size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
     }
 
     /*GET /requests/all?from={from}&size={size} — получить список запросов, созданных другими пользователями.
@@ -60,12 +112,35 @@ public class ItemRequestController {
         return itemRequestService.getAllItemRequestsByParams(userId, from, size);
     }
 
+    /* GET /requests/all?cursor={cursor}&size={size} — те же запросы других пользователей по курсору.
+    Пустой курсор даёт первую страницу, курсор следующей страницы возвращается в заголовке X-Next-Cursor.*/
+    @GetMapping(value = "/all", params = "cursor")
+    public ResponseEntity<List<ItemRequestDtoAnswerFull>>
+    getAllItemRequestsByCursor(@RequestHeader("X-Sharer-User-Id") Long userId,
+                               @RequestParam String cursor,
+                               @RequestParam(required = false) Integer size) {
+        log.info("Received a request: GET/requests/all?cursor={}&size={} from user id = {}", cursor, size, userId);
+        CursorPage<ItemRequestDtoAnswerFull> page = itemRequestService.getAllItemRequestsByCursor(userId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getContent());
+    }
+
     /*GET /requests/{requestId} — получить данные об одном конкретном запросе вместе с данными об ответах на него
-    в том же формате, что и в эндпоинте GET /requests. Посмотреть данные об отдельном запросе может любой пользователь.*/
+    в том же формате, что и в эндпоинте GET /requests. Посмотреть данные об отдельном запросе может любой пользователь.
+    Ответ несёт ETag: по совпавшему If-None-Match — 304 без чтения из базы.*/
     @GetMapping("/{requestId}")
-    public ItemRequestDtoAnswerFull getItemRequestById(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                       @PathVariable Long requestId) {
+    public ResponseEntity<ItemRequestDtoAnswerFull> getItemRequestById(
+            @RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long requestId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Received a request: GET/requests/{} from user id = {} ", requestId, userId);
-        return itemRequestService.getItemRequestById(userId, requestId);
+        String tag = resourceVersions.requestTag(requestId, userId);
+        if (ResourceVersions.matches(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        ItemRequestDtoAnswerFull request = itemRequestService.getItemRequestById(userId, requestId);
+        return tag == null ? ResponseEntity.ok(request) : ResponseEntity.ok().eTag(tag).body(request);
     }
 }
@@ -1,17 +1,61 @@
 package ru.practicum.shareit.requests.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.shareit.requests.model.ItemRequest;
-import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
-    List<ItemRequest> getItemRequestsByRequestor(User requestor);
+    // All requests of the user from the newest one, read in batches while the stream is consumed
+    @EntityGraph(attributePaths = "requestor")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "100"))
+    Stream<ItemRequest> streamAllByRequestorIdOrderByCreatedDescIdDesc(Long requestorId);
+
+    // The first page of the user's requests for the cursor pagination
+    @EntityGraph(attributePaths = "requestor")
+    List<ItemRequest> findAllByRequestorIdOrderByCreatedDescIdDesc(Long requestorId, Pageable pageable);
+
+    // The user's requests that follow the cursor in the (created, id) descending order
+    @EntityGraph(attributePaths = "requestor")
+    @Query("SELECT r FROM ItemRequest r "
+            + "WHERE r.requestor.id = :requestorId "
+            + "AND (r.created < :created OR (r.created = :created AND r.id < :id)) "
+            + "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequestorIdAfter(@Param("requestorId") Long requestorId,
+                                                @Param("created") LocalDateTime created,
+                                                @Param("id") Long id,
+                                                Pageable pageable);
+
+    /* A page of other users' requests. A Slice reads one extra row to know whether there is a next page
+    instead of counting the whole table. */
+    @EntityGraph(attributePaths = "requestor")
+    Slice<ItemRequest> findAllByRequestorIdNot(Long requestorId, Pageable pageable);
+
+    // The first page of other users' requests for the cursor pagination
+    @EntityGraph(attributePaths = "requestor")
+    List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDescIdDesc(Long requestorId, Pageable pageable);
 
-    Page<ItemRequest> findAllByRequestorNot(User requestor, Pageable pageable);
+    // Other users' requests that follow the cursor in the (created, id) descending order
+    @EntityGraph(attributePaths = "requestor")
+    @Query("SELECT r FROM ItemRequest r "
+            + "WHERE r.requestor.id <> :requestorId "
+            + "AND (r.created < :created OR (r.created = :created AND r.id < :id)) "
+            + "ORDER BY r.created DESC, r.id DESC")
+    List<ItemRequest> findAllByRequestorIdNotAfter(@Param("requestorId") Long requestorId,
+                                                   @Param("created") LocalDateTime created,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
 }
@@ -1,18 +1,33 @@
 package ru.practicum.shareit.requests.service;
 
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswer;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswerFull;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemRequestService {
     ItemRequestDtoAnswer createItemRequest(ItemRequestDto itemRequestDto, Long userId, LocalDateTime createDate);
 
     List<ItemRequestDtoAnswerFull> getAllItemRequestsOfUser(Long userId);
 
+    /* Passes the user's requests to the action from the newest one without holding the whole list in memory.
+    The user is not checked here: the caller checks it with checkExistenceOfUser before it starts the answer,
+    a missing user just has no requests. */
+    void forEachItemRequestOfUser(Long userId, Consumer<ItemRequestDtoAnswerFull> action);
+
+    // Throws NotFoundException for a missing user, so a streamed answer can be refused before it is started
+    void checkExistenceOfUser(Long userId);
+
+    // The user's requests that follow the cursor, newest first; a blank cursor gives the first page
+    CursorPage<ItemRequestDtoAnswerFull> getItemRequestsOfUserByCursor(Long userId, String cursor, Integer size);
+
     List<ItemRequestDtoAnswerFull> getAllItemRequestsByParams(Long userId, Integer from, Integer size);
 
+    CursorPage<ItemRequestDtoAnswerFull> getAllItemRequestsByCursor(Long userId, String cursor, Integer size);
+
     ItemRequestDtoAnswerFull getItemRequestById(Long userId, Long itemRequestId);
 }
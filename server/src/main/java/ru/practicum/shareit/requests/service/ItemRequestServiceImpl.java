@@ -1,16 +1,19 @@
 package ru.practicum.shareit.requests.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswer;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswerFull;
@@ -20,20 +23,31 @@ import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
+    private static final int STREAM_BATCH_SIZE = 100;
+    // the order of the (created, id) index, the id makes it stable between pages
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("created"), Sort.Order.desc("id"));
+
     private final ItemRequestRepository itemRequestsRepository;
     private final ItemRepository itemRepository;
     private final UserService userService;
     private final ItemRequestMapper itemRequestMapper;
     private final ItemMapper itemMapper;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional(readOnly = false)
@@ -47,44 +61,85 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     @Override
     @Transactional
     public List<ItemRequestDtoAnswerFull> getAllItemRequestsOfUser(Long userId) {
-        User requestor = userService.getEntityUserByIdFromStorage(userId);
-        List<ItemRequest> requests = itemRequestsRepository.getItemRequestsByRequestor(requestor);
-        return requests.stream()
-                .map(x -> {
-                    List<ItemDtoAnswer> items = itemRepository.findAllByRequest(x).stream()
-                            .map(e -> (itemMapper.toItemDtoAnswer(e, e.getRequest())))
-                            .collect(Collectors.toList());
-                    return itemRequestMapper.toItemRequestDtoAnswerFull(x,
-                            items);
-                })
-                .collect(Collectors.toList());
+        checkExistenceOfUser(userId);
+        List<ItemRequestDtoAnswerFull> requests = new ArrayList<>();
+        forEachItemRequestOfUser(userId, requests::add);
+        return requests;
+    }
+
+    /* Requests are enriched and passed on batch by batch. The persistence context is cleared after every batch,
+    so memory is bounded by the batch size rather than by the number of requests. */
+    @Override
+    @Transactional
+    public void forEachItemRequestOfUser(Long userId, Consumer<ItemRequestDtoAnswerFull> action) {
+        try (Stream<ItemRequest> requests = itemRequestsRepository.streamAllByRequestorIdOrderByCreatedDescIdDesc(userId)) {
+            Iterator<ItemRequest> iterator = requests.iterator();
+            List<ItemRequest> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == STREAM_BATCH_SIZE || !iterator.hasNext()) {
+                    collectRequestsWithItems(batch).forEach(action);
+                    batch.clear();
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     @Override
     @Transactional
+    public CursorPage<ItemRequestDtoAnswerFull> getItemRequestsOfUserByCursor(Long userId, String cursor,
+                                                                             Integer size) {
+        if (size == null || size <= 0) {
+            throw new ValidationException("'size' must be positive");
+        }
+        checkExistenceOfUser(userId);
+        // one extra row tells whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ItemRequest> requests;
+        if (cursor.isBlank()) {
+            requests = itemRequestsRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(userId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            requests = itemRequestsRepository.findAllByRequestorIdAfter(userId, after.getPosition(), after.getId(),
+                    limit);
+        }
+        return toCursorPage(requests, size);
+    }
+
+    @Override
     public List<ItemRequestDtoAnswerFull> getAllItemRequestsByParams(Long userId, Integer from, Integer size) {
         if (from == null || size == null) {
             return Collections.emptyList();
         }
-        Pageable pag = PageRequest.of(from / size, size, Sort.by("created").descending());
-        User requestor = userService.getEntityUserByIdFromStorage(userId);
-        Page<ItemRequest> page = itemRequestsRepository.findAllByRequestorNot(requestor, pag);
-        return page.stream()
-                .map(x -> {
-                    List<ItemDtoAnswer> items = itemRepository.findAllByRequest(x).stream()
-                            .map(e -> itemMapper.toItemDtoAnswer(e, e.getRequest()))
-                            .collect(Collectors.toList());
-                    return itemRequestMapper.toItemRequestDtoAnswerFull(x, items);
-                })
-                .collect(Collectors.toList());
+        checkExistenceOfUser(userId);
+        Pageable pag = PageRequest.of(from / size, size, NEWEST_FIRST);
+        Slice<ItemRequest> slice = itemRequestsRepository.findAllByRequestorIdNot(userId, pag);
+        return collectRequestsWithItems(slice.getContent());
+    }
+
+    @Override
+    public CursorPage<ItemRequestDtoAnswerFull> getAllItemRequestsByCursor(Long userId, String cursor, Integer size) {
+        if (size == null || size <= 0) {
+            throw new ValidationException("'size' must be positive");
+        }
+        checkExistenceOfUser(userId);
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<ItemRequest> requests;
+        if (cursor.isBlank()) {
+            requests = itemRequestsRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(userId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            requests = itemRequestsRepository.findAllByRequestorIdNotAfter(userId, after.getPosition(),
+                    after.getId(), limit);
+        }
+        return toCursorPage(requests, size);
     }
 
     @Override
     @Transactional
     public ItemRequestDtoAnswerFull getItemRequestById(Long userId, Long itemRequestId) {
-        if (!userService.isUserExists(userId)) {
-            throw new NotFoundException(String.format("User with id = %d not found", userId));
-        }
+        checkExistenceOfUser(userId);
         ItemRequest request = itemRequestsRepository.findById(itemRequestId)
                 .orElseThrow(() -> new NotFoundException(String.format("Request with id = %d not found", itemRequestId)));
         List<ItemDtoAnswer> items = itemRepository.findAllByRequest(request).stream()
@@ -93,4 +148,38 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestMapper.toItemRequestDtoAnswerFull(request,
                 items);
     }
+
+    // Cuts off the extra row read to detect the next page and takes the cursor from the last request left
+    private CursorPage<ItemRequestDtoAnswerFull> toCursorPage(List<ItemRequest> requests, int size) {
+        String nextCursor = null;
+        if (requests.size() > size) {
+            requests = requests.subList(0, size);
+            ItemRequest last = requests.get(size - 1);
+            nextCursor = new KeysetCursor(last.getCreated(), last.getId()).encode();
+        }
+        return new CursorPage<>(collectRequestsWithItems(requests), nextCursor);
+    }
+
+    @Override
+    public void checkExistenceOfUser(Long userId) {
+        if (!userService.isUserExists(userId)) {
+            throw new NotFoundException(String.format("User with id = %d not found", userId));
+        }
+    }
+
+    /* The answers to all the requests are read with one query and grouped by request,
+    so the number of statements does not depend on the number of requests. */
+    private List<ItemRequestDtoAnswerFull> collectRequestsWithItems(List<ItemRequest> requests) {
+        if (requests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> requestIds = requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+        Map<Long, List<ItemDtoAnswer>> items = itemRepository.findAllByRequestIdInOrderById(requestIds).stream()
+                .collect(Collectors.groupingBy(x -> x.getRequest().getId(),
+                        Collectors.mapping(x -> itemMapper.toItemDtoAnswer(x, x.getRequest()), Collectors.toList())));
+        return requests.stream()
+                .map(x -> itemRequestMapper.toItemRequestDtoAnswerFull(x,
+                        items.getOrDefault(x.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
+    }
 }
@@ -2,17 +2,22 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoAnswer;
 import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.version.ResourceVersions;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -23,6 +28,7 @@ import java.util.List;
 @RequiredArgsConstructor
 class UserController {
     private final UserService service;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping
     public List<UserDtoAnswer> getAllUsers() {
@@ -30,10 +36,18 @@ class UserController {
         return service.getAllUsers();
     }
 
+    // Ответ несёт ETag: по совпавшему If-None-Match — 304 без чтения из базы
     @GetMapping("/{userId}")
-    public UserDtoAnswer getUserById(@PathVariable Long userId) {
+    public ResponseEntity<UserDtoAnswer> getUserById(@PathVariable Long userId,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                             required = false) String ifNoneMatch) {
         log.info("Received a request: GET/users/{}", userId);
-        return service.getUserById(userId);
+        String tag = resourceVersions.userTag(userId);
+        if (ResourceVersions.matches(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        UserDtoAnswer user = service.getUserById(userId);
+        return tag == null ? ResponseEntity.ok(user) : ResponseEntity.ok().eTag(tag).body(user);
     }
 
     @PostMapping
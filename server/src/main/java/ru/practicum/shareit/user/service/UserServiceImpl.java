@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.existence.LiveIds;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoAnswer;
 import ru.practicum.shareit.user.dto.UserMapper;
@@ -12,6 +13,7 @@ import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,6 +22,7 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final LiveIds liveIds;
 
     @Override
     @Transactional
@@ -31,7 +34,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public UserDtoAnswer getUserById(Long userId) {
-        User user = userRepository.findById(userId).orElseThrow(() -> new NotFoundException(String
+        User user = findUser(userId).orElseThrow(() -> new NotFoundException(String
                 .format("User with id = %d not found", userId)));
         return userMapper.toUserDtoAnswer(user);
     }
@@ -39,7 +42,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public User getEntityUserByIdFromStorage(Long userId) {
-        return userRepository.findById(userId).orElseThrow(() -> new NotFoundException(String
+        return findUser(userId).orElseThrow(() -> new NotFoundException(String
                 .format("User with id = %d not found", userId)));
     }
 
@@ -57,7 +60,7 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(readOnly = false)
     public UserDtoAnswer updateUser(Long userId, UserDto userDto) {
-        User user = userRepository.findById(userId).orElseThrow(() ->
+        User user = findUser(userId).orElseThrow(() ->
                 new NotFoundException(String.format("User with id = %d not found", userId)));
         userMapper.updateUserFromDto(userDto, user);
         return userMapper.toUserDtoAnswer(user);
@@ -72,6 +75,15 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional
     public boolean isUserExists(Long userId) {
-        return userRepository.existsById(userId);
+        // existsById is a query and always goes to the database, findById is answered by the entity cache
+        return findUser(userId).isPresent();
+    }
+
+    // An id that surely does not exist is not looked up
+    private Optional<User> findUser(Long userId) {
+        if (!liveIds.getUsers().mightContain(userId)) {
+            return Optional.empty();
+        }
+        return userRepository.findById(userId);
     }
 }
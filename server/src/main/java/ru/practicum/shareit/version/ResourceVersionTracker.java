@@ -0,0 +1,118 @@
+package ru.practicum.shareit.version;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Set;
+
+/* Raises ResourceVersions for every change that Hibernate commits, to the resources whose answers show it:
+an item is shown in the answer of its request, a comment in the answer of its item. The name of a user is shown
+in the comments of any item and the database deletes the items and requests of a deleted user by itself,
+so a user changed or deleted renews all tags. Bookings are left out, they are only shown to the owner of the item,
+whose answer changes with the clock and is never tagged. */
+@Component
+@ConditionalOnProperty(name = ResourceVersions.ENABLED_PROPERTY, havingValue = "true")
+@RequiredArgsConstructor
+public class ResourceVersionTracker implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    private static final long serialVersionUID = 1L;
+    private static final Set<Class<?>> TRACKED = Set.of(User.class, Item.class, ItemRequest.class, Comment.class);
+
+    private final transient ResourceVersions versions;
+    private final transient EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void listenToCommits() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof User) {
+            // a new user is in no answer yet
+            versions.userChanged((Long) event.getId());
+        } else {
+            changed(event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getEntity());
+        // an item moved to another request leaves the answer of the one it was offered for
+        if (event.getEntity() instanceof Item && event.getOldState() != null) {
+            Object oldRequest = event.getOldState()[event.getPersister().getEntityMetamodel()
+                    .getPropertyIndex("request")];
+            if (oldRequest != null) {
+                versions.requestChanged(((ItemRequest) oldRequest).getId());
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity());
+    }
+
+    // A change that was rolled back changed no answer
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return TRACKED.contains(persister.getMappedClass());
+    }
+
+    // The misspelt name that Hibernate 5 still declares abstract, only the method above is called
+    @Override
+    @SuppressWarnings("deprecation")
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return requiresPostCommitHandling(persister);
+    }
+
+    private void changed(Object entity) {
+        if (entity instanceof User) {
+            versions.allChanged();
+        } else if (entity instanceof Item) {
+            Item item = (Item) entity;
+            versions.itemChanged(item.getId());
+            if (item.getRequest() != null) {
+                versions.requestChanged(item.getRequest().getId());
+            }
+        } else if (entity instanceof ItemRequest) {
+            versions.requestChanged(((ItemRequest) entity).getId());
+        } else if (entity instanceof Comment) {
+            versions.itemChanged(((Comment) entity).getItem().getId());
+        }
+    }
+}
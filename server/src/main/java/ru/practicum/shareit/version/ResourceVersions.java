@@ -0,0 +1,124 @@
+package ru.practicum.shareit.version;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/* Versions of the users, items and requests, the ETags of GET /users/{id}, /items/{id} and /requests/{id}
+are made of them. A client that sends the tag back in If-None-Match gets 304 without a read of the storage.
+A version is raised once the change is committed and a tag is taken before the resource is read, so an answer
+read before the commit never carries the new tag. Ids share STRIPES counters, which keeps the memory fixed:
+a change only renews the tags of the other ids of its counter too. The epoch is new on every start,
+so tags given by an earlier run are never matched. Like LiveIds, the versions only see this server's writes,
+so no tags are given unless shareit.etags.enabled=true says this server is the only writer. */
+@Component
+public class ResourceVersions {
+    public static final String ENABLED_PROPERTY = "shareit.etags.enabled";
+    private static final int STRIPES = 4096;
+
+    private final boolean enabled;
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    // raised by changes that reach the answers of many resources, such as a user renamed or deleted
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLongArray users = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray items = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray requests = new AtomicLongArray(STRIPES);
+
+    public ResourceVersions(@Value("${" + ENABLED_PROPERTY + ":false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // The tags, null when they are switched off
+    @Nullable
+    public String userTag(Long userId) {
+        return tag("u", users, userId, null);
+    }
+
+    @Nullable
+    public String itemTag(Long itemId, Long userId) {
+        return tag("i", items, itemId, userId);
+    }
+
+    @Nullable
+    public String requestTag(Long requestId, Long userId) {
+        return tag("r", requests, requestId, userId);
+    }
+
+    // Whether the If-None-Match header of a request names the tag; "*" is not trusted, the resource may be gone
+    public static boolean matches(@Nullable String ifNoneMatch, @Nullable String tag) {
+        if (ifNoneMatch == null || tag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void userChanged(Long userId) {
+        raise(users, userId);
+    }
+
+    public void itemChanged(Long itemId) {
+        raise(items, itemId);
+    }
+
+    public void requestChanged(Long requestId) {
+        raise(requests, requestId);
+    }
+
+    public void allChanged() {
+        generation.incrementAndGet();
+    }
+
+    // For rows written past Hibernate: the requests are changed once the current transaction is committed
+    public void requestsChangedAfterCommit(Collection<Long> requestIds) {
+        if (requestIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            requestIds.forEach(this::requestChanged);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestIds.forEach(ResourceVersions.this::requestChanged);
+            }
+        });
+    }
+
+    @Nullable
+    private String tag(String kind, AtomicLongArray versions, Long id, @Nullable Long userId) {
+        if (!enabled) {
+            return null;
+        }
+        StringBuilder tag = new StringBuilder("\"").append(kind).append(epoch).append('-')
+                .append(generation.get()).append('-').append(versions.get(stripe(id)));
+        if (userId != null) {
+            tag.append('-').append(userId);
+        }
+        return tag.append('"').toString();
+    }
+
+    private static void raise(AtomicLongArray versions, Long id) {
+        versions.incrementAndGet(stripe(id));
+    }
+
+    private static int stripe(Long id) {
+        return (int) (id & (STRIPES - 1));
+    }
+}
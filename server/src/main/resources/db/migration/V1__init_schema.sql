@@ -1,5 +1,4 @@
-DROP TABLE IF EXISTS comments,bookings, items, requests, users;
-CREATE TABLE IF NOT EXISTS users
+CREATE TABLE users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name  VARCHAR(255) NOT NULL,
@@ -7,7 +6,7 @@ CREATE TABLE IF NOT EXISTS users
     CONSTRAINT uq_user_email UNIQUE (email)
 );
 
-CREATE TABLE IF NOT EXISTS requests
+CREATE TABLE requests
 (
     id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     description  VARCHAR(2048),
@@ -16,7 +15,7 @@ CREATE TABLE IF NOT EXISTS requests
     CONSTRAINT fk_requestor_id FOREIGN KEY (requestor_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
-CREATE TABLE IF NOT EXISTS items
+CREATE TABLE items
 (
     id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     name         VARCHAR(255) NOT NULL,
@@ -28,7 +27,7 @@ CREATE TABLE IF NOT EXISTS items
     CONSTRAINT fk_request_id FOREIGN KEY (request_id) REFERENCES requests (id)
 );
 
-CREATE TABLE IF NOT EXISTS bookings
+CREATE TABLE bookings
 (
     id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE,
@@ -40,7 +39,7 @@ CREATE TABLE IF NOT EXISTS bookings
     CONSTRAINT fk_booker_id FOREIGN KEY (booker_id) REFERENCES users (id)
 );
 
-CREATE TABLE IF NOT EXISTS comments
+CREATE TABLE comments
 (
     id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text      VARCHAR(2048),
@@ -0,0 +1,16 @@
+-- Indexes for the repository queries: every list is filtered by a foreign key and sorted by date
+
+-- bookings of a booker, newest first
+CREATE INDEX ix_bookings_booker_start ON bookings (booker_id, start_date DESC);
+-- bookings of an item: owner lists join items on item_id, item cards look for the last and next booking
+CREATE INDEX ix_bookings_item_start ON bookings (item_id, start_date);
+-- WAITING and REJECTED lists
+CREATE INDEX ix_bookings_status ON bookings (status);
+
+CREATE INDEX ix_items_owner ON items (owner_id);
+CREATE INDEX ix_items_request ON items (request_id);
+
+CREATE INDEX ix_comments_item ON comments (item_id);
+
+-- requests of a requestor, newest first
+CREATE INDEX ix_requests_requestor_created ON requests (requestor_id, created DESC);
@@ -0,0 +1,2 @@
+-- the last finished booking of an item is read from the end of this index
+CREATE INDEX ix_bookings_item_end ON bookings (item_id, end_date);
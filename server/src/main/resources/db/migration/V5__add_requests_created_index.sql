@@ -0,0 +1,3 @@
+-- requests of other users, newest first: the list is filtered by requestor_id <> ?, which no index can narrow,
+-- so it is read from the start of this index until the page is filled
+CREATE INDEX ix_requests_created_id ON requests (created DESC, id DESC);
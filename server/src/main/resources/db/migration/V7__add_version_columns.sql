@@ -0,0 +1,5 @@
+-- Versions for optimistic locking: an update of a booking or an item only succeeds
+-- if the row still has the version that was read, and increments it.
+-- V6 is a PostgreSQL-only migration in db/vendor/postgresql.
+ALTER TABLE bookings ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- A status has only four values, so an index on it alone never narrows a list enough to be used:
+-- every status filter comes with the booker, the owner or the item, which have indexes of their own.
+-- The index created by V2 only slowed down the writes of bookings.
+DROP INDEX IF EXISTS ix_bookings_status;
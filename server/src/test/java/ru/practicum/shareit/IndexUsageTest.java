@@ -0,0 +1,54 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/* The plans of the repository queries on the schema built by the migrations.
+Every query is the SQL Hibernate generates for the finder, reduced to the part that chooses the index.
+H2 also indexes foreign keys by itself and takes those indexes when a migration index adds nothing it can cost,
+as for the lists of a booker, the bookings of an owner, the comments of an item and the requests of a requestor.
+Those migration indexes are only checked to exist; on PostgreSQL foreign keys are not indexed
+and the migration indexes are the only ones. */
+@DataJpaTest
+class IndexUsageTest {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "IX_BOOKINGS_ITEM_END|SELECT b.* FROM bookings b WHERE b.item_id = 1 AND b.status = 'APPROVED' "
+                    + "AND b.end_date < NOW() ORDER BY b.end_date DESC LIMIT 1",
+            "IX_BOOKINGS_ITEM_START|SELECT b.* FROM bookings b WHERE b.item_id = 1 AND b.status = 'APPROVED' "
+                    + "AND b.start_date > NOW() ORDER BY b.start_date LIMIT 1",
+            "IX_BOOKINGS_ITEM_END|SELECT b.* FROM bookings b WHERE b.item_id = 1 AND b.status = 'APPROVED' "
+                    + "AND b.end_date < NOW()",
+            "IX_ITEMS_OWNER|SELECT i.* FROM items i WHERE i.owner_id = 1",
+            "IX_ITEMS_REQUEST|SELECT i.* FROM items i WHERE i.request_id = 1",
+            "IX_REQUESTS_CREATED_ID|SELECT r.* FROM requests r WHERE r.requestor_id <> 1 "
+                    + "ORDER BY r.created DESC, r.id DESC LIMIT 10"
+    })
+    void shouldReadByIndex(String index, String query) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + query, String.class);
+        assertTrue(plan.contains("PUBLIC." + index), () -> String.format("No %s in the plan of %s:%n%s", index, query,
+                plan));
+    }
+
+    @Test
+    void shouldCreateIndexesOfMigrations() {
+        List<String> indexes = jdbcTemplate.queryForList("SELECT index_name FROM information_schema.indexes",
+                String.class);
+        assertTrue(indexes.containsAll(List.of("IX_BOOKINGS_BOOKER_START", "IX_BOOKINGS_ITEM_START",
+                "IX_BOOKINGS_ITEM_END", "IX_ITEMS_OWNER", "IX_ITEMS_REQUEST", "IX_COMMENTS_ITEM",
+                "IX_REQUESTS_REQUESTOR_CREATED", "IX_REQUESTS_CREATED_ID")), indexes::toString);
+        assertFalse(indexes.contains("IX_BOOKINGS_STATUS"), indexes::toString);
+    }
+}
@@ -14,8 +14,10 @@ import org.springframework.web.bind.MissingServletRequestParameterException;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswer;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.dto.BookingStatusResult;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.booking.service.SearchStatus;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -30,6 +32,7 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
@@ -128,6 +131,28 @@ public class BookingControllerTest {
                 .updateBookingStatus(1L, 1L, false);
     }
 
+    // changeRequestStatuses
+    @Test
+    public void shouldCallBookingServiceAndReturnResultForEveryBooking() throws Exception {
+        when(bookingService.updateBookingStatuses(1L, List.of(1L, 2L), true)).thenReturn(List.of(
+                new BookingStatusResult(1L, BookingStatusChange.APPROVED),
+                new BookingStatusResult(2L, BookingStatusChange.NOT_FOUND)));
+        mockMvc.perform(patch("/bookings")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("approved", "true")
+                        .content("[1, 2]")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].result").value("APPROVED"))
+                .andExpect(jsonPath("$[1].id").value(2))
+                .andExpect(jsonPath("$[1].result").value("NOT_FOUND"));
+        Mockito.verify(bookingService, Mockito.times(1))
+                .updateBookingStatuses(1L, List.of(1L, 2L), true);
+    }
+
     // getBooking
     @Test
     public void shouldReturnBookingDtoAnswerFull() throws Exception {
@@ -326,6 +351,22 @@ public class BookingControllerTest {
                 .andExpect(jsonPath("$[1].status").value(dtoAnswerFull2.getStatus().toString()));
     }
 
+    @Test
+    public void shouldReturnNextCursorHeaderWhenCursorPresent() throws Exception {
+        CursorPage<BookingDtoAnswerFull> page = new CursorPage<>(List.of(dtoAnswerFull1), "next");
+        when(bookingService.getBookingsOfUserByCursor(1L, SearchStatus.ALL, "", 1)).thenReturn(page);
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$[0].id").value(dtoAnswerFull1.getId()));
+    }
+
     // getAllBookingsOfItemsOwner
     @Test
     public void shouldReturnListBookingDtoAnswerFullOfOwnerWhenWhenAllRequestParametersPresent() throws Exception {
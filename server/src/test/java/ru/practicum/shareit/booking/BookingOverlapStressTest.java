@@ -0,0 +1,114 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.BookingStatus.WAITING;
+
+/* Every item gets bookings whose dates overlap in a chain, and all of them are approved at once by many threads.
+Whatever order the approvals come in, the approved bookings of an item must not overlap. */
+@Slf4j
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:overlap;LOCK_TIMEOUT=30000")
+class BookingOverlapStressTest {
+    private static final int ITEMS = 8;
+    private static final int BOOKINGS_PER_ITEM = 25;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void shouldNeverApproveOverlappingBookingsOfItem() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+        LocalDateTime start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemRepository.save(Item.builder().name("item" + i).description("description" + i)
+                    .available(true).owner(owner).build());
+            // each booking overlaps the previous and the next one
+            for (int j = 0; j < BOOKINGS_PER_ITEM; j++) {
+                bookings.add(Booking.builder().start(start.plusHours(j)).end(start.plusHours(j + 2)).item(item)
+                        .booker(booker).status(WAITING).build());
+            }
+        }
+        List<Long> bookingIds = bookingRepository.saveAll(bookings).stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        Collections.shuffle(bookingIds);
+
+        List<Callable<Boolean>> approvals = bookingIds.stream()
+                .map(id -> (Callable<Boolean>) () -> approve(owner.getId(), id))
+                .collect(Collectors.toList());
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        List<Future<Boolean>> results;
+        try {
+            results = executor.invokeAll(approvals);
+        } finally {
+            executor.shutdown();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        long approved = 0;
+        for (Future<Boolean> result : results) {
+            approved += result.get() ? 1 : 0;
+        }
+        log.info("{} approvals in {} threads took {} ms, {} per second, {} approved", bookingIds.size(), THREADS,
+                elapsedMillis, bookingIds.size() * 1000 / elapsedMillis, approved);
+
+        Map<Long, List<Booking>> approvedByItem = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == APPROVED)
+                .collect(Collectors.groupingBy(booking -> booking.getItem().getId()));
+        assertEquals(approved, approvedByItem.values().stream().mapToLong(List::size).sum());
+        assertEquals(ITEMS, approvedByItem.size());
+        for (List<Booking> itemBookings : approvedByItem.values()) {
+            for (Booking first : itemBookings) {
+                for (Booking second : itemBookings) {
+                    assertFalse(first != second && first.getStart().isBefore(second.getEnd())
+                            && second.getStart().isBefore(first.getEnd()),
+                            () -> String.format("Bookings %d and %d overlap", first.getId(), second.getId()));
+                }
+            }
+        }
+    }
+
+    private boolean approve(Long ownerId, Long bookingId) {
+        try {
+            bookingService.updateBookingStatus(ownerId, bookingId, true);
+            return true;
+        } catch (ConflictException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
+
+/* Counts the JDBC statements of the booking list endpoints. Every booking here has its own item, request,
+requestor and booker, so a lazy load per row would show up as extra statements.
+The user check is answered by the entity cache, so a request costs one statement for the list.
+A new booking is admitted and inserted by one statement as well. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statements",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingStatementCountTest {
+    private static final int BOOKINGS = 5;
+    private static final long EXPECTED_STATEMENTS = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private Statistics statistics;
+    private Long ownerId;
+    private Long bookerId;
+    private Long guestId;
+    private Long itemId;
+
+    @BeforeAll
+    void fillStorage() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        User booker = userRepository.save(User.builder().name("booker").email("booker@mail.ru").build());
+        // the guest books an item of the booker, so the lists read by the other tests stay the same
+        User guest = userRepository.save(User.builder().name("guest").email("guest@mail.ru").build());
+        itemId = itemRepository.save(Item.builder().name("guest item").description("guest item").available(true)
+                .owner(booker).build()).getId();
+        ownerId = owner.getId();
+        bookerId = booker.getId();
+        guestId = guest.getId();
+        for (int i = 0; i < BOOKINGS; i++) {
+            User requestor = userRepository.save(User.builder().name("requestor" + i)
+                    .email("requestor" + i + "@mail.ru").build());
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("request" + i)
+                    .requestor(requestor).created(now).build());
+            Item item = itemRepository.save(Item.builder().name("item" + i).description("description" + i)
+                    .available(true).owner(owner).request(request).build());
+            bookingRepository.save(Booking.builder().start(now.plusDays(i + 1)).end(now.plusDays(i + 2))
+                    .item(item).booker(booker).status(APPROVED).build());
+        }
+        // the users are read once, as by any earlier call, and stay in the entity cache
+        userRepository.findById(ownerId);
+        userRepository.findById(bookerId);
+        userRepository.findById(guestId);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void shouldReadBookingsOfUserWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(BOOKINGS)));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadPageOfBookingsOfUserWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings?from=0&size=3").header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadCursorPageOfBookingsOfUserWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings?cursor=&size=3").header("X-Sharer-User-Id", bookerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadBookingsOfOwnerWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings/owner").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(BOOKINGS)));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadPageOfBookingsOfOwnerWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings/owner?from=0&size=3").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadCursorPageOfBookingsOfOwnerWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/bookings/owner?cursor=&size=3").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldCreateBookingWithOneStatement() throws Exception {
+        LocalDateTime start = LocalDateTime.now().plusDays(BOOKINGS + 2);
+        mockMvc.perform(post("/bookings").header("X-Sharer-User-Id", guestId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"itemId\": %d, \"start\": \"%s\", \"end\": \"%s\"}",
+                                itemId, start, start.plusDays(1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item").value(itemId));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+}
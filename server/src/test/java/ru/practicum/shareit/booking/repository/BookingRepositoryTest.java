@@ -0,0 +1,314 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.NearestBooking;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.service.SearchStatus;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.KeysetCursor;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
+import static ru.practicum.shareit.booking.BookingStatus.REJECTED;
+import static ru.practicum.shareit.booking.BookingStatus.WAITING;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.after;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.bookerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.itemOwnerIs;
+import static ru.practicum.shareit.booking.repository.BookingSpecifications.stateIs;
+
+@DataJpaTest
+class BookingRepositoryTest {
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Sort byStartDesc = Sort.by("start").descending();
+    private User booker;
+    private Item item;
+    private Booking past;
+    private Booking current;
+    private Booking future;
+    private Booking rejected;
+
+    @BeforeEach
+    void setUp() {
+        User owner = em.persist(User.builder().name("owner").email("owner@mail.ru").build());
+        booker = em.persist(User.builder().name("booker").email("booker@mail.ru").build());
+        item = em.persist(Item.builder().name("item").description("description").available(true).owner(owner)
+                .build());
+        past = persistBooking(now.minusDays(3), now.minusDays(2), APPROVED);
+        current = persistBooking(now.minusDays(1), now.plusDays(1), APPROVED);
+        future = persistBooking(now.plusDays(2), now.plusDays(3), WAITING);
+        rejected = persistBooking(now.plusDays(4), now.plusDays(5), REJECTED);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void shouldFindBookingsOfBookerForEveryState() {
+        assertEquals(ids(rejected, future, current, past), findOfBooker(SearchStatus.ALL));
+        assertEquals(ids(current), findOfBooker(SearchStatus.CURRENT));
+        assertEquals(ids(past), findOfBooker(SearchStatus.PAST));
+        assertEquals(ids(rejected, future), findOfBooker(SearchStatus.FUTURE));
+        assertEquals(ids(future), findOfBooker(SearchStatus.WAITING));
+        assertEquals(ids(rejected), findOfBooker(SearchStatus.REJECTED));
+    }
+
+    @Test
+    void shouldFindBookingsOfOwnerItemsForEveryState() {
+        assertEquals(ids(rejected, future, current, past), findOfOwner(SearchStatus.ALL));
+        assertEquals(ids(current), findOfOwner(SearchStatus.CURRENT));
+        assertEquals(ids(past), findOfOwner(SearchStatus.PAST));
+        assertEquals(ids(rejected, future), findOfOwner(SearchStatus.FUTURE));
+        assertEquals(ids(future), findOfOwner(SearchStatus.WAITING));
+        assertEquals(ids(rejected), findOfOwner(SearchStatus.REJECTED));
+    }
+
+    @Test
+    void shouldNotFindBookingsOfItemsOfAnotherOwner() {
+        User anotherOwner = em.persist(User.builder().name("another").email("another@mail.ru").build());
+        em.persist(Item.builder().name("other").description("other").available(true).owner(anotherOwner).build());
+        assertEquals(List.of(), toIds(bookingRepository.findFullDtos(itemOwnerIs(anotherOwner.getId()), byStartDesc)));
+        assertEquals(List.of(), toIds(bookingRepository.findFullDtos(itemOwnerIs(booker.getId()), byStartDesc)));
+    }
+
+    @Test
+    void shouldReturnSliceByOffset() {
+        List<BookingDtoAnswerFull> slice = bookingRepository.findFullDtos(bookerIs(booker.getId()), byStartDesc, 1, 2);
+        assertEquals(ids(future, current), toIds(slice));
+    }
+
+    @Test
+    void shouldReturnBookingsAfterCursor() {
+        Long sameStartId = persistBooking(current.getStart(), current.getEnd(), APPROVED).getId();
+        em.flush();
+        em.clear();
+        // the cursor is always taken from a stored booking, so its start has the precision of the column
+        Booking sameStart = em.find(Booking.class, sameStartId);
+        Sort newestFirst = Sort.by(Sort.Order.desc("start"), Sort.Order.desc("id"));
+        List<BookingDtoAnswerFull> slice = bookingRepository.findFullDtos(bookerIs(booker.getId())
+                .and(after(new KeysetCursor(sameStart.getStart(), sameStart.getId()))), newestFirst, 0, 10);
+        assertEquals(ids(current, past), toIds(slice));
+    }
+
+    @Test
+    void shouldSelectDtosWithoutLoadingEntities() {
+        User requestor = em.persist(User.builder().name("requestor").email("requestor@mail.ru").build());
+        ItemRequest request = em.persist(ItemRequest.builder().description("request").requestor(requestor)
+                .created(now).build());
+        Item requested = em.persist(Item.builder().name("requested").description("requested").available(true)
+                .owner(item.getOwner()).request(request).build());
+        Booking booking = em.persist(Booking.builder().start(now.plusDays(6)).end(now.plusDays(7)).item(requested)
+                .booker(booker).status(WAITING).build());
+        em.flush();
+        em.clear();
+
+        List<BookingDtoAnswerFull> dtos = bookingRepository.findFullDtos(bookerIs(booker.getId()), byStartDesc, 0, 2);
+
+        assertEquals(List.of(booking.getId(), rejected.getId()), toIds(dtos));
+        assertEquals(requestor.getEmail(), dtos.get(0).getItem().getRequest().getRequestor().getEmail());
+        assertEquals(item.getOwner().getId(), dtos.get(0).getItem().getOwner().getId());
+        assertEquals(booker.getName(), dtos.get(0).getBooker().getName());
+        assertNull(dtos.get(1).getItem().getRequest());
+        assertEquals(0, em.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void shouldFindLastAndNextApprovedBookingsOfItem() {
+        Booking approvedFuture = persistBooking(now.plusDays(6), now.plusDays(7), APPROVED);
+        persistBooking(now.minusDays(5), now.minusDays(4), APPROVED);
+        persistBooking(now.minusDays(2), now.minusHours(1), REJECTED);
+        em.flush();
+
+        List<NearestBooking> nearest = bookingRepository.findLastAndNextApproved(item.getId(), now);
+
+        assertEquals(2, nearest.size());
+        assertEquals(NearestBooking.LAST, nearest.get(0).getKind());
+        assertEquals(past.getId(), nearest.get(0).getId());
+        assertEquals(booker.getId(), nearest.get(0).getBookerId());
+        assertEquals(NearestBooking.NEXT, nearest.get(1).getKind());
+        assertEquals(approvedFuture.getId(), nearest.get(1).getId());
+    }
+
+    @Test
+    void shouldFindOnlyNextBookingBeforeAllAndOnlyLastBookingAfterAll() {
+        List<NearestBooking> beforeAll = bookingRepository.findLastAndNextApproved(item.getId(), now.minusDays(10));
+        List<NearestBooking> afterAll = bookingRepository.findLastAndNextApproved(item.getId(), now.plusDays(10));
+
+        assertEquals(List.of(NearestBooking.NEXT), beforeAll.stream().map(NearestBooking::getKind)
+                .collect(Collectors.toList()));
+        assertEquals(past.getId(), beforeAll.get(0).getId());
+        assertEquals(List.of(NearestBooking.LAST), afterAll.stream().map(NearestBooking::getKind)
+                .collect(Collectors.toList()));
+        assertEquals(current.getId(), afterAll.get(0).getId());
+    }
+
+    @Test
+    void shouldFindLastAndNextApprovedBookingsOfEveryItem() {
+        Item another = em.persist(Item.builder().name("another").description("another").available(true)
+                .owner(item.getOwner()).build());
+        Booking anotherLast = em.persist(Booking.builder().start(now.minusDays(4)).end(now.minusDays(3)).item(another)
+                .booker(booker).status(APPROVED).build());
+        em.persist(Booking.builder().start(now.minusDays(6)).end(now.minusDays(5)).item(another).booker(booker)
+                .status(APPROVED).build());
+        Booking anotherNext = em.persist(Booking.builder().start(now.plusDays(1)).end(now.plusDays(2)).item(another)
+                .booker(booker).status(APPROVED).build());
+        em.persist(Booking.builder().start(now.plusDays(3)).end(now.plusDays(4)).item(another).booker(booker)
+                .status(APPROVED).build());
+        Item notBooked = em.persist(Item.builder().name("free").description("free").available(true)
+                .owner(item.getOwner()).build());
+        em.flush();
+
+        Map<String, Long> nearest = bookingRepository.findLastAndNextApprovedOfItems(
+                        List.of(item.getId(), another.getId(), notBooked.getId()), now.minusHours(12)).stream()
+                .collect(Collectors.toMap(x -> x.getItemId() + x.getKind(), NearestBooking::getId));
+
+        assertEquals(Map.of(item.getId() + NearestBooking.LAST, past.getId(),
+                another.getId() + NearestBooking.LAST, anotherLast.getId(),
+                another.getId() + NearestBooking.NEXT, anotherNext.getId()), nearest);
+    }
+
+    @Test
+    void shouldInsertAdmittedBooking() {
+        Long id = bookingRepository.insertIfAdmitted(booker.getId(), item.getId(), now.plusDays(6), now.plusDays(7))
+                .orElseThrow();
+
+        Booking inserted = em.find(Booking.class, id);
+        assertEquals(booker.getId(), inserted.getBooker().getId());
+        assertEquals(item.getId(), inserted.getItem().getId());
+        assertEquals(WAITING, inserted.getStatus());
+    }
+
+    @Test
+    void shouldNotInsertBookingThatIsNotAdmitted() {
+        Item unavailable = em.persist(Item.builder().name("unavailable").description("unavailable").available(false)
+                .owner(item.getOwner()).build());
+        em.flush();
+        long bookings = bookingRepository.count();
+
+        assertEquals(Optional.empty(), insert(item.getOwner().getId(), item.getId()));
+        assertEquals(Optional.empty(), insert(booker.getId(), unavailable.getId()));
+        assertEquals(Optional.empty(), insert(booker.getId(), Long.MAX_VALUE));
+        assertEquals(Optional.empty(), insert(Long.MAX_VALUE, item.getId()));
+        assertEquals(Optional.empty(), insert(booker.getId(), null));
+        assertEquals(bookings, bookingRepository.count());
+    }
+
+    @Test
+    void shouldNotInsertBookingOverlappingApprovedBooking() {
+        Booking current = em.find(Booking.class, this.current.getId());
+        assertEquals(Optional.empty(), bookingRepository.insertIfAdmitted(booker.getId(), item.getId(),
+                current.getEnd().minusHours(1), current.getEnd().plusHours(1)));
+        assertTrue(bookingRepository.insertIfAdmitted(booker.getId(), item.getId(), current.getEnd(),
+                future.getStart()).isPresent());
+        assertTrue(bookingRepository.insertIfAdmitted(booker.getId(), item.getId(), rejected.getStart(),
+                rejected.getEnd()).isPresent());
+    }
+
+    @Test
+    void shouldFindApprovedOverlappingBooking() {
+        // the bounds are taken from stored bookings, so they have the precision of the column
+        Booking current = em.find(Booking.class, this.current.getId());
+        Booking past = em.find(Booking.class, this.past.getId());
+        assertTrue(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(), APPROVED,
+                current.getStart().plusHours(1), current.getStart().minusHours(1), future.getId()));
+        assertFalse(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(), APPROVED,
+                current.getStart().plusHours(1), current.getStart().minusHours(1), current.getId()));
+        assertFalse(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(), APPROVED,
+                future.getEnd(), future.getStart(), future.getId()));
+        assertFalse(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(item.getId(), APPROVED,
+                current.getStart(), past.getEnd(), future.getId()));
+    }
+
+    @Test
+    void shouldRejectUpdateOfStaleBooking() {
+        Booking stale = em.find(Booking.class, future.getId());
+        em.detach(stale);
+        Booking fresh = em.find(Booking.class, future.getId());
+        fresh.setStatus(APPROVED);
+        em.flush();
+        assertEquals(stale.getVersion() + 1, fresh.getVersion());
+
+        stale.setStatus(REJECTED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.saveAndFlush(stale));
+    }
+
+    @Test
+    void shouldUpdateStatusesOfBookingsOfOwnerThatAreNotApproved() {
+        Long ownerId = item.getOwner().getId();
+        List<Long> ids = ids(past, future, rejected);
+
+        assertEquals(0, bookingRepository.updateStatuses(ids, booker.getId(), APPROVED));
+        assertEquals(2, bookingRepository.updateStatuses(ids, ownerId, APPROVED));
+        em.clear();
+
+        assertEquals(APPROVED, em.find(Booking.class, future.getId()).getStatus());
+        assertEquals(APPROVED, em.find(Booking.class, rejected.getId()).getStatus());
+        assertEquals(future.getVersion() + 1, em.find(Booking.class, future.getId()).getVersion());
+        assertEquals(past.getVersion(), em.find(Booking.class, past.getId()).getVersion());
+    }
+
+    @Test
+    void shouldFindIntervalsOfBookings() {
+        List<BookingInterval> intervals = bookingRepository.findIntervals(ids(future, past));
+        BookingInterval interval = intervals.stream().filter(x -> x.getId().equals(future.getId())).findFirst()
+                .orElseThrow();
+
+        assertEquals(2, intervals.size());
+        assertEquals(WAITING, interval.getStatus());
+        assertEquals(item.getId(), interval.getItemId());
+        assertEquals(item.getOwner().getId(), interval.getOwnerId());
+        assertEquals(ids(current), bookingRepository.findApprovedIntervalsOfItems(List.of(item.getId()),
+                now.minusHours(1), now).stream().map(BookingInterval::getId).collect(Collectors.toList()));
+    }
+
+    private Optional<Long> insert(Long bookerId, Long itemId) {
+        return bookingRepository.insertIfAdmitted(bookerId, itemId, now.plusDays(6), now.plusDays(7));
+    }
+
+    private List<Long> findOfBooker(SearchStatus state) {
+        return toIds(bookingRepository.findFullDtos(bookerIs(booker.getId()).and(stateIs(state, now)), byStartDesc));
+    }
+
+    private List<Long> findOfOwner(SearchStatus state) {
+        return toIds(bookingRepository.findFullDtos(itemOwnerIs(item.getOwner().getId()).and(stateIs(state, now)),
+                byStartDesc));
+    }
+
+    private Booking persistBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return em.persist(Booking.builder().start(start).end(end).item(item).booker(booker).status(status).build());
+    }
+
+    private static List<Long> ids(Booking... bookings) {
+        return Stream.of(bookings).map(Booking::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> toIds(List<BookingDtoAnswerFull> bookings) {
+        return bookings.stream().map(BookingDtoAnswerFull::getId).collect(Collectors.toList());
+    }
+}
@@ -5,21 +5,33 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.booking.BookingStatus;
+import ru.practicum.shareit.booking.BookingStatusChange;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswer;
 import ru.practicum.shareit.booking.dto.BookingDtoAnswerFull;
+import ru.practicum.shareit.booking.dto.BookingInterval;
 import ru.practicum.shareit.booking.dto.BookingMapperImpl;
+import ru.practicum.shareit.booking.dto.BookingStatusResult;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.concurrency.OptimisticRetry;
+import ru.practicum.shareit.exceptions.ConflictException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.existence.LiveIds;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
@@ -27,11 +39,19 @@ import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
 import static ru.practicum.shareit.booking.BookingStatus.REJECTED;
@@ -53,6 +73,11 @@ public class BookingServiceTest {
     private ItemServiceImpl itemService;
     @Spy
     private BookingMapperImpl bookingMapper;
+    @Spy
+    private LiveIds liveIds;
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry(TransactionOperations.withoutTransaction(),
+            new SimpleMeterRegistry(), 3);
 
     static LocalDateTime minuteOfToday = LocalDateTime.of(LocalDateTime.now().getYear(), LocalDateTime.now().getMonth(),
             LocalDateTime.now().getDayOfMonth(), LocalDateTime.MIN.getHour(), LocalDateTime.now().getMinute());
@@ -81,6 +106,8 @@ public class BookingServiceTest {
     public void shouldThrowExceptionWhenBookerAndOwnerSame() {
         BookingDto bookingDto1 = BookingDto.builder().itemId(1L).start(minuteOfToday.plusDays(1))
                 .end(minuteOfToday.plusDays(2)).build();
+        when(bookingRepository.insertIfAdmitted(3L, 1L, bookingDto1.getStart(), bookingDto1.getEnd()))
+                .thenReturn(Optional.empty());
         when(itemService.getEntityItemByIdFromStorage(1L)).thenReturn(item1);
         RuntimeException re = assertThrows(NotFoundException.class,
                 () -> bookingService.createBooking(3L, bookingDto1));
@@ -93,6 +120,8 @@ public class BookingServiceTest {
                 .id(1L).name("item1").description("description item1").available(false).owner(user3).build();
         BookingDto bookingDto1 = BookingDto.builder().itemId(1L).start(minuteOfToday.plusDays(1))
                 .end(minuteOfToday.plusDays(2)).build();
+        when(bookingRepository.insertIfAdmitted(1L, 1L, bookingDto1.getStart(), bookingDto1.getEnd()))
+                .thenReturn(Optional.empty());
         when(itemService.getEntityItemByIdFromStorage(1L)).thenReturn(itemUnavailable);
         RuntimeException re = assertThrows(ValidationException.class,
                 () -> bookingService.createBooking(1L, bookingDto1));
@@ -103,17 +132,40 @@ public class BookingServiceTest {
     public void shouldReturnBookingDtoWhenWeCreateBooking() {
         BookingDto bookingDto1 = BookingDto.builder().itemId(1L).start(minuteOfToday.plusDays(1))
                 .end(minuteOfToday.plusDays(2)).build();
-        when(itemService.getEntityItemByIdFromStorage(1L)).thenReturn(item1);
-        when(userService.getEntityUserByIdFromStorage(1L)).thenReturn(user1);
-        Booking bookingForRepository = Booking.builder().start(minuteOfToday.plusDays(1)).end(minuteOfToday.plusDays(2))
-                .item(item1).booker(user1).status(WAITING).build();
-        Booking bookingFromRepository = Booking.builder().id(1L).start(minuteOfToday.plusDays(1)).end(minuteOfToday.plusDays(2))
-                .item(item1).booker(user1).status(WAITING).build();
-        when(bookingRepository.save(bookingForRepository)).thenReturn(bookingFromRepository);
+        when(bookingRepository.insertIfAdmitted(1L, 1L, bookingDto1.getStart(), bookingDto1.getEnd()))
+                .thenReturn(Optional.of(1L));
         BookingDtoAnswer result = bookingService.createBooking(1L, bookingDto1);
         BookingDtoAnswer bookingToCheck = BookingDtoAnswer.builder().id(1L).start(minuteOfToday.plusDays(1))
                 .end(minuteOfToday.plusDays(2)).item(1L).build();
         Assertions.assertEquals(bookingToCheck, result);
+        verifyNoInteractions(itemService, userService);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenBookingOverlapsApprovedBooking() {
+        BookingDto bookingDto1 = BookingDto.builder().itemId(1L).start(minuteOfToday.plusDays(1))
+                .end(minuteOfToday.plusDays(2)).build();
+        when(bookingRepository.insertIfAdmitted(1L, 1L, bookingDto1.getStart(), bookingDto1.getEnd()))
+                .thenReturn(Optional.empty());
+        when(itemService.getEntityItemByIdFromStorage(1L)).thenReturn(item1);
+        when(userService.getEntityUserByIdFromStorage(1L)).thenReturn(user1);
+        RuntimeException re = assertThrows(ConflictException.class,
+                () -> bookingService.createBooking(1L, bookingDto1));
+        Assertions.assertEquals("The item is already booked for these dates", re.getMessage());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenBookerNotFound() {
+        BookingDto bookingDto1 = BookingDto.builder().itemId(1L).start(minuteOfToday.plusDays(1))
+                .end(minuteOfToday.plusDays(2)).build();
+        when(bookingRepository.insertIfAdmitted(99L, 1L, bookingDto1.getStart(), bookingDto1.getEnd()))
+                .thenReturn(Optional.empty());
+        when(itemService.getEntityItemByIdFromStorage(1L)).thenReturn(item1);
+        when(userService.getEntityUserByIdFromStorage(99L))
+                .thenThrow(new NotFoundException("User with id = 99 not found"));
+        RuntimeException re = assertThrows(NotFoundException.class,
+                () -> bookingService.createBooking(99L, bookingDto1));
+        Assertions.assertEquals("User with id = 99 not found", re.getMessage());
     }
 
     // updateBookingStatus
@@ -170,6 +222,91 @@ public class BookingServiceTest {
         assertEquals(bookingDtoToCheck, result);
     }
 
+    @Test
+    public void shouldThrowExceptionWhenApprovedBookingOfItemOverlaps() {
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking1));
+        when(bookingRepository.existsByItemIdAndStatusAndStartBeforeAndEndAfterAndIdNot(1L, APPROVED,
+                booking1.getEnd(), booking1.getStart(), 1L)).thenReturn(true);
+        RuntimeException re = assertThrows(ConflictException.class,
+                () -> bookingService.updateBookingStatus(3L, 1L, true));
+        assertEquals("The item id = 1 is already booked for these dates", re.getMessage());
+        verify(bookingRepository).lockItem(1L);
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    public void shouldSeeStatusOfConcurrentRequestWhenOptimisticLockFails() {
+        Booking bookingRejected = Booking.builder().id(1L).start(minuteOfToday.plusDays(1))
+                .end(minuteOfToday.minusDays(2)).item(item1).booker(user1).status(REJECTED).build();
+        Booking bookingApproved = Booking.builder().id(1L).start(minuteOfToday.plusDays(1))
+                .end(minuteOfToday.minusDays(2)).item(item1).booker(user1).status(APPROVED).build();
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(bookingRejected), Optional.of(bookingApproved));
+        when(bookingRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+        RuntimeException re = assertThrows(ValidationException.class,
+                () -> bookingService.updateBookingStatus(3L, 1L, false));
+        assertEquals("The booking status has already been confirmed", re.getMessage());
+    }
+
+    @Test
+    public void shouldThrowConflictWhenOptimisticLockFailsOnEveryAttempt() {
+        when(bookingRepository.findById(1L)).thenAnswer(invocation -> Optional.of(Booking.builder().id(1L)
+                .start(minuteOfToday.plusDays(1)).end(minuteOfToday.plusDays(2)).item(item1).booker(user1)
+                .status(WAITING).build()));
+        when(bookingRepository.save(any())).thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+        RuntimeException re = assertThrows(ConflictException.class,
+                () -> bookingService.updateBookingStatus(3L, 1L, false));
+        assertEquals("The data was changed by another request, try again", re.getMessage());
+        verify(bookingRepository, times(3)).save(any());
+    }
+
+    // updateBookingStatuses
+    @Test
+    public void shouldRejectBookingsOfOwnerAndReportOthers() {
+        when(bookingRepository.findIntervals(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+                interval(1L, WAITING, 1, 2, 1L, 3L),
+                interval(2L, WAITING, 1, 2, 2L, 1L),
+                interval(4L, APPROVED, 3, 4, 1L, 3L)));
+        when(bookingRepository.updateStatuses(List.of(1L), 3L, REJECTED)).thenReturn(1);
+        List<BookingStatusResult> results = bookingService.updateBookingStatuses(3L, List.of(1L, 2L, 3L, 4L, 1L),
+                false);
+        assertEquals(List.of(
+                new BookingStatusResult(1L, BookingStatusChange.REJECTED),
+                new BookingStatusResult(2L, BookingStatusChange.NOT_OWNER),
+                new BookingStatusResult(3L, BookingStatusChange.NOT_FOUND),
+                new BookingStatusResult(4L, BookingStatusChange.ALREADY_APPROVED)), results);
+        verify(bookingRepository, never()).lockItems(any());
+    }
+
+    @Test
+    public void shouldNotApproveBookingsOverlappingApprovedOnes() {
+        when(bookingRepository.findIntervals(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+                interval(1L, WAITING, 1, 3, 1L, 3L),
+                interval(2L, WAITING, 2, 4, 1L, 3L),
+                interval(3L, REJECTED, 5, 7, 2L, 3L),
+                interval(4L, WAITING, 3, 5, 1L, 3L)));
+        when(bookingRepository.findApprovedIntervalsOfItems(Set.of(1L, 2L), minuteOfToday.plusDays(1),
+                minuteOfToday.plusDays(7))).thenReturn(List.of(interval(5L, APPROVED, 6, 8, 2L, 3L)));
+        when(bookingRepository.updateStatuses(List.of(1L, 4L), 3L, APPROVED)).thenReturn(2);
+        List<BookingStatusResult> results = bookingService.updateBookingStatuses(3L, List.of(1L, 2L, 3L, 4L), true);
+        assertEquals(List.of(
+                new BookingStatusResult(1L, BookingStatusChange.APPROVED),
+                new BookingStatusResult(2L, BookingStatusChange.OVERLAP),
+                new BookingStatusResult(3L, BookingStatusChange.OVERLAP),
+                new BookingStatusResult(4L, BookingStatusChange.APPROVED)), results);
+        verify(bookingRepository).lockItems(Set.of(1L, 2L));
+    }
+
+    @Test
+    public void shouldDecideBatchAgainWhenBookingChangedConcurrently() {
+        when(bookingRepository.findIntervals(List.of(1L))).thenReturn(
+                List.of(interval(1L, WAITING, 1, 2, 1L, 3L)),
+                List.of(interval(1L, APPROVED, 1, 2, 1L, 3L)));
+        when(bookingRepository.updateStatuses(List.of(1L), 3L, REJECTED)).thenReturn(0);
+        List<BookingStatusResult> results = bookingService.updateBookingStatuses(3L, List.of(1L), false);
+        assertEquals(List.of(new BookingStatusResult(1L, BookingStatusChange.ALREADY_APPROVED)), results);
+        verify(bookingRepository, times(1)).updateStatuses(any(), any(), any());
+    }
+
     // getBookingById
     @Test
     public void shouldThrowExceptionWhenUserNotExists() {
@@ -241,7 +378,8 @@ public class BookingServiceTest {
                 .end(minuteOfToday.minusDays(3)).item(item1).booker(user1).status(WAITING).build();
         List<Booking> listFromStorage = List.of(booking1, booking2);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdOrderByStartDesc(1L)).thenReturn(listFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, ALL, 0, null);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -258,8 +396,8 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndEndAfterAndStartBeforeOrderByStartDesc(eq(1L),
-                any(LocalDateTime.class), any(LocalDateTime.class))).thenReturn(listFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, CURRENT, null, 20);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -276,8 +414,8 @@ public class BookingServiceTest {
                 .end(minuteOfToday.minusDays(2)).item(item1).booker(user1).status(APPROVED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStatusAndEndBeforeOrderByStartDesc(eq(1L),
-                eq(APPROVED), any(LocalDateTime.class))).thenReturn(listFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, PAST, null, null);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -294,8 +432,8 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(APPROVED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStartAfterOrderByStartDesc(eq(1L),
-                any(LocalDateTime.class))).thenReturn(listFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, FUTURE, null, null);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -312,8 +450,8 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(WAITING).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(eq(1L), eq(WAITING)))
-                .thenReturn(listFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, SearchStatus.WAITING, null, null);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -330,8 +468,8 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(REJECTED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStatusOrderByStartDesc(eq(1L), eq(REJECTED)))
-                .thenReturn(listFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, SearchStatus.REJECTED, null, null);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -348,10 +486,9 @@ public class BookingServiceTest {
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(REJECTED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(listFromStorage);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerId(eq(1L), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, ALL, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -367,10 +504,9 @@ public class BookingServiceTest {
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.minusDays(2))
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(listFromStorage);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndEndAfterAndStartBefore(eq(1L), any(LocalDateTime.class),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, CURRENT, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -386,10 +522,9 @@ public class BookingServiceTest {
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.minusDays(3))
                 .end(minuteOfToday.minusDays(2)).item(item1).booker(user1).status(APPROVED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(listFromStorage);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStatusAndEndBefore(eq(1L), eq(APPROVED),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, PAST, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -405,10 +540,9 @@ public class BookingServiceTest {
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(APPROVED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(listFromStorage);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStartAfter(eq(1L), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, FUTURE, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -424,10 +558,9 @@ public class BookingServiceTest {
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(WAITING).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(listFromStorage);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStatus(eq(1L), eq(WAITING), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, SearchStatus.WAITING, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -443,10 +576,9 @@ public class BookingServiceTest {
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(REJECTED).build();
         List<Booking> listFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(listFromStorage);
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(bookingRepository.findAllByBookerIdAndStatus(eq(1L), eq(REJECTED), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(listFromStorage));
         List<BookingDtoAnswerFull> result = bookingService.getAllBookingsOfUser(1L, SearchStatus.REJECTED, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
@@ -463,7 +595,8 @@ public class BookingServiceTest {
     @Test
     public void shouldReturnEmptyListWhenUserHaveNotItems() {
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(1L)).thenReturn(Collections.emptyList());
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(Collections.emptyList()));
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(1L, ALL, null, null);
         assertEquals(Collections.emptyList(), result);
@@ -479,14 +612,12 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item2).booker(user2).status(REJECTED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
 
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInOrderByStartDesc(itemsOfUser))
-                .thenReturn(bookingsFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
 
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, ALL, 0, null);
@@ -503,15 +634,12 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(2)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.minusDays(2))
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
 
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndEndAfterAndStartBeforeOrderByStartDesc(eq(itemsOfUser),
-                any(LocalDateTime.class), any(LocalDateTime.class)))
-                .thenReturn(bookingsFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
 
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, CURRENT, 0, null);
@@ -528,14 +656,12 @@ public class BookingServiceTest {
                 .end(minuteOfToday.minusDays(1)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.minusDays(3))
                 .end(minuteOfToday.minusDays(2)).item(item1).booker(user1).status(APPROVED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
 
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStatusAndEndBeforeOrderByStartDesc(eq(itemsOfUser),
-                eq(APPROVED), any(LocalDateTime.class))).thenReturn(bookingsFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
 
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, PAST, null, 5);
@@ -552,14 +678,12 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(APPROVED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
 
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStartAfterOrderByStartDesc(eq(itemsOfUser),
-                any(LocalDateTime.class))).thenReturn(bookingsFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
 
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, FUTURE, null, 5);
@@ -576,14 +700,12 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(WAITING).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(WAITING).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
 
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStatusOrderByStartDesc(eq(itemsOfUser), eq(WAITING)))
-                .thenReturn(bookingsFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
 
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, SearchStatus.WAITING, null, null);
@@ -600,14 +722,12 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(REJECTED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(REJECTED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
 
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStatusOrderByStartDesc(eq(itemsOfUser), eq(REJECTED)))
-                .thenReturn(bookingsFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
 
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, SearchStatus.REJECTED, null, null);
@@ -625,14 +745,11 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item2).booker(user2).status(REJECTED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(bookingsFromStorage);
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemIn(eq(itemsOfUser), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, ALL, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
@@ -648,15 +765,11 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(2)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.minusDays(2))
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(bookingsFromStorage);
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndEndAfterAndStartBefore(eq(itemsOfUser),
-                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, CURRENT, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
@@ -672,15 +785,11 @@ public class BookingServiceTest {
                 .end(minuteOfToday.minusDays(1)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.minusDays(3))
                 .end(minuteOfToday.minusDays(2)).item(item1).booker(user1).status(APPROVED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(bookingsFromStorage);
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStatusAndEndBefore(eq(itemsOfUser),
-                eq(APPROVED), any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, PAST, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
@@ -696,15 +805,11 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(APPROVED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(APPROVED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(bookingsFromStorage);
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStartAfter(eq(itemsOfUser),
-                any(LocalDateTime.class), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, FUTURE, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
@@ -720,15 +825,11 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(WAITING).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(WAITING).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(bookingsFromStorage);
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStatus(eq(itemsOfUser),
-                eq(WAITING), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, SearchStatus.WAITING, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
@@ -744,17 +845,107 @@ public class BookingServiceTest {
                 .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(REJECTED).build();
         Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(3))
                 .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(REJECTED).build();
-        List<Item> itemsOfUser = List.of(item1, item2);
         List<Booking> bookingsFromStorage = List.of(bookingFromStorage1, bookingFromStorage2);
-        Page<Booking> pageFromStorage = new PageImpl<>(bookingsFromStorage);
         when(userService.isUserExists(3L)).thenReturn(true);
-        when(itemService.getAllEntityItemsOfUserFromStorage(3L)).thenReturn(itemsOfUser);
 
-        when(bookingRepository.findAllByItemInAndStatus(eq(itemsOfUser),
-                eq(REJECTED), any(Pageable.class)))
-                .thenReturn(pageFromStorage);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(5)))
+                .thenReturn(toFullDtos(bookingsFromStorage));
         List<BookingDtoAnswerFull> result = bookingService
                 .getAllBookingsOfItemsOwner(3L, SearchStatus.REJECTED, 0, 5);
         assertEquals(List.of(bookingDto1, bookingDto2), result);
     }
+
+    @Test
+    public void shouldReturnCursorOfLastBookingWhenNextPageExists() {
+        Booking bookingFromStorage1 = Booking.builder().id(3L).start(minuteOfToday.plusDays(3))
+                .end(minuteOfToday.plusDays(4)).item(item1).booker(user1).status(WAITING).build();
+        Booking bookingFromStorage2 = Booking.builder().id(2L).start(minuteOfToday.plusDays(2))
+                .end(minuteOfToday.plusDays(3)).item(item1).booker(user1).status(WAITING).build();
+        Booking bookingFromStorage3 = Booking.builder().id(1L).start(minuteOfToday.plusDays(1))
+                .end(minuteOfToday.plusDays(2)).item(item1).booker(user1).status(WAITING).build();
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(3)))
+                .thenReturn(toFullDtos(List.of(bookingFromStorage1, bookingFromStorage2, bookingFromStorage3)));
+        CursorPage<BookingDtoAnswerFull> result = bookingService.getBookingsOfUserByCursor(1L, ALL, "", 2);
+        assertEquals(2, result.getContent().size());
+        assertEquals(new KeysetCursor(minuteOfToday.plusDays(2), 2L), KeysetCursor.decode(result.getNextCursor()));
+    }
+
+    @Test
+    public void shouldReturnLastPageWithoutCursor() {
+        Booking bookingFromStorage = Booking.builder().id(1L).start(minuteOfToday.plusDays(1))
+                .end(minuteOfToday.plusDays(2)).item(item1).booker(user1).status(WAITING).build();
+        String cursor = new KeysetCursor(minuteOfToday.plusDays(2), 2L).encode();
+        when(userService.isUserExists(3L)).thenReturn(true);
+        when(bookingRepository.findFullDtos(anySpecification(), any(Sort.class), eq(0), eq(3)))
+                .thenReturn(toFullDtos(List.of(bookingFromStorage)));
+        CursorPage<BookingDtoAnswerFull> result = bookingService.getBookingsOfItemsOwnerByCursor(3L, ALL, cursor, 2);
+        assertEquals(1, result.getContent().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenCursorIsInvalid() {
+        when(userService.isUserExists(1L)).thenReturn(true);
+        assertThrows(ValidationException.class, () -> bookingService.getBookingsOfUserByCursor(1L, ALL, "abc", 2));
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenSizeOfCursorPageIsMissing() {
+        when(userService.isUserExists(1L)).thenReturn(true);
+        assertThrows(ValidationException.class, () -> bookingService.getBookingsOfUserByCursor(1L, ALL, "", null));
+    }
+
+    // What the repository selects for the given bookings
+    private static List<BookingDtoAnswerFull> toFullDtos(List<Booking> bookings) {
+        BookingMapperImpl mapper = new BookingMapperImpl();
+        return bookings.stream().map(mapper::toBookingDtoAnswerFull).collect(Collectors.toList());
+    }
+
+    private static Specification<Booking> anySpecification() {
+        return ArgumentMatchers.any();
+    }
+
+    @Test
+    public void shouldNotLookUpBookingWhenIdSurelyDoesNotExist() {
+        liveIds.getBookings().add(1L);
+        liveIds.getBookings().markLoaded();
+        assertFalse(bookingService.isBookingExists(999L));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private static BookingInterval interval(Long id, BookingStatus status, int startDay, int endDay, Long itemId,
+                                            Long ownerId) {
+        return new BookingInterval() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public BookingStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDateTime getStart() {
+                return minuteOfToday.plusDays(startDay);
+            }
+
+            @Override
+            public LocalDateTime getEnd() {
+                return minuteOfToday.plusDays(endDay);
+            }
+
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+        };
+    }
 }
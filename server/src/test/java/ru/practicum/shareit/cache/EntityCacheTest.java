@@ -0,0 +1,167 @@
+package ru.practicum.shareit.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:entityCache",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+class EntityCacheTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldReadUserFromDatabaseOnlyOnce() throws Exception {
+        User user = userRepository.save(User.builder().name("user").email("once@mail.ru").build());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+    }
+
+    @Test
+    void shouldReturnChangedUserAfterUpdate() throws Exception {
+        User user = userRepository.save(User.builder().name("user").email("before@mail.ru").build());
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(patch("/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"changed\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("changed"))
+                .andExpect(jsonPath("$.email").value("before@mail.ru"));
+    }
+
+    @Test
+    void shouldNotFindUserAfterDelete() throws Exception {
+        User user = userRepository.save(User.builder().name("user").email("deleted@mail.ru").build());
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(delete("/users/{userId}", user.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isNotFound());
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", user.getId())).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldDropItemsAndRequestsOfDeletedUserDeletedByDatabase() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("cascade@mail.ru").build());
+        User reader = userRepository.save(User.builder().name("reader").email("reader@mail.ru").build());
+        ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("request")
+                .requestor(owner).created(LocalDateTime.now()).build());
+        Item item = itemRepository.save(Item.builder().name("item").description("description").available(true)
+                .owner(owner).build());
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", reader.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/requests/{requestId}", request.getId()).header("X-Sharer-User-Id", reader.getId()))
+                .andExpect(status().isOk());
+
+        assertTrue(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertTrue(entityManagerFactory.getCache().contains(ItemRequest.class, request.getId()));
+
+        mockMvc.perform(delete("/users/{userId}", owner.getId())).andExpect(status().isOk());
+
+        assertFalse(entityManagerFactory.getCache().contains(Item.class, item.getId()));
+        assertFalse(entityManagerFactory.getCache().contains(ItemRequest.class, request.getId()));
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", reader.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/requests/{requestId}", request.getId()).header("X-Sharer-User-Id", reader.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldCheckOwnerFromCacheWhenItemIsRead() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        Item item = itemRepository.save(Item.builder().name("item").description("description").available(true)
+                .owner(owner).build());
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+        statistics.clear();
+
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("item"));
+
+        assertTrue(statistics.getSecondLevelCacheHitCount() >= 2,
+                () -> "Hits of the entity cache: " + statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void shouldReportHitsAndMissesOfEveryRegion() throws Exception {
+        User user = userRepository.save(User.builder().name("user").email("metrics@mail.ru").build());
+        entityManagerFactory.getCache().evictAll();
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+
+        assertEquals(hits + 1, gets("hit"));
+        // a READ_WRITE region looks up the entry once more before it puts the loaded row
+        assertTrue(gets("miss") > misses);
+        for (Class<?> entity : EntityCacheConfiguration.CACHED_ENTITIES) {
+            assertTrue(meterRegistry.find("cache.evictions").tag("cache", entity.getName()).functionCounter() != null,
+                    entity::getName);
+        }
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", User.class.getName()).tag("result", result)
+                .functionCounter().count();
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuardedDataSourceTest {
+    private final DataSource target = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final GuardedDataSource dataSource = new GuardedDataSource(target, 2, Duration.ofMillis(50));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(target.getConnection()).thenReturn(connection);
+        dataSource.bindTo(meterRegistry);
+    }
+
+    @Test
+    void shouldLendNoMoreConnectionsThanPermits() throws SQLException {
+        dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(2, dataSource.getActiveConnections());
+        assertEquals(1, meterRegistry.get("shareit.db.guard.rejected").functionCounter().count());
+
+        second.close();
+        dataSource.getConnection();
+        assertEquals(2, meterRegistry.get("shareit.db.guard.active").gauge().value());
+    }
+
+    @Test
+    void shouldGiveBackPermitOnceWhenClosedTwice() throws SQLException {
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        assertEquals(0, dataSource.getActiveConnections());
+        verify(connection, times(1)).close();
+        dataSource.getConnection();
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void shouldGiveBackPermitWhenPoolFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool is down"));
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(0, dataSource.getActiveConnections());
+    }
+
+    @Test
+    void shouldPassOtherCallsToConnection() throws SQLException {
+        when(connection.getAutoCommit()).thenReturn(true);
+        Connection guarded = dataSource.getConnection();
+
+        assertTrue(guarded.getAutoCommit());
+        assertEquals(guarded, guarded);
+    }
+}
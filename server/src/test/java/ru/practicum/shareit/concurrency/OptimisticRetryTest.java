@@ -0,0 +1,62 @@
+package ru.practicum.shareit.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
+import ru.practicum.shareit.exceptions.ConflictException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static ru.practicum.shareit.concurrency.OptimisticRetry.CONFLICTS_METRIC;
+
+class OptimisticRetryTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticRetry retry = new OptimisticRetry(TransactionOperations.withoutTransaction(),
+            meterRegistry, 3);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @Test
+    void shouldReturnResultOfFirstSuccessfulAttempt() {
+        String result = retry.run(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, conflicts("retried"));
+        assertEquals(0, conflicts("exhausted"));
+    }
+
+    @Test
+    void shouldThrowConflictWhenEveryAttemptFails() {
+        assertThrows(ConflictException.class, () -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Object.class, 1L);
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(2, conflicts("retried"));
+        assertEquals(1, conflicts("exhausted"));
+    }
+
+    @Test
+    void shouldNotRetryOtherExceptions() {
+        assertThrows(IllegalStateException.class, () -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, conflicts("retried"));
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.get(CONFLICTS_METRIC).tag("outcome", outcome).counter().count();
+    }
+}
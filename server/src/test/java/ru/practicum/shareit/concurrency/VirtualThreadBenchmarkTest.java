@@ -0,0 +1,173 @@
+package ru.practicum.shareit.concurrency;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/* Requests that each hold a connection for a slow query, all of them at once, as with a thread per request.
+The pool has 10 connections and lends one for no longer than 250 ms, far less than the whole run takes.
+Through the guard the requests wait in turn and all of them get a connection; straight at the pool
+the late ones time out.
+The query waits either outside the monitors of the driver, as the PostgreSQL driver does from 42.6 on,
+or inside one: H2 runs a statement holding the monitor of its session, as the PostgreSQL driver 42.3
+of this build does, and a virtual thread waiting there stays pinned to its carrier. */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:virtual",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "spring.datasource.hikari.connection-timeout=250",
+        "shareit.virtual-threads.pinned-threshold=1ms",
+        VirtualThreadConfiguration.ENABLED_PROPERTY + "=true"
+})
+class VirtualThreadBenchmarkTest {
+    private static final int REQUESTS = 2000;
+    private static final int QUERY_MILLIS = 5;
+    private static final int PLATFORM_THREADS = 200;
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private GuardedDataSource guarded;
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        guarded = assertInstanceOf(GuardedDataSource.class, dataSource);
+        new JdbcTemplate(guarded).execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR 'java.lang.Thread.sleep(long)'");
+    }
+
+    @Test
+    void shouldServeEveryRequestThroughGuard() throws InterruptedException {
+        run(perRequestExecutor(), guarded, Wait.OUTSIDE_DRIVER);
+        assertTrue(maxActive.get() <= 10, () -> maxActive.get() + " connections lent at once");
+    }
+
+    /* The same requests on the bounded pool of 200 platform threads that Tomcat has by default, on a platform thread
+    per request and on a virtual thread per request. Without pinning a virtual thread per request keeps up
+    with the platform threads; pinned, the requests run no more at once than there are carriers. */
+    @Test
+    void shouldCompareVirtualWithPlatformThreads() throws InterruptedException {
+        Optional<ExecutorService> virtual = VirtualThreads.newPerTaskExecutor();
+        assumeTrue(virtual.isPresent(), "virtual threads need Java 21");
+        long bounded = run(Executors.newFixedThreadPool(PLATFORM_THREADS), guarded, Wait.OUTSIDE_DRIVER);
+        long platform = run(Executors.newCachedThreadPool(), guarded, Wait.OUTSIDE_DRIVER);
+        long unpinned = run(virtual.get(), guarded, Wait.OUTSIDE_DRIVER);
+        double pinnedBefore = pinned();
+        long pinned = run(VirtualThreads.newPerTaskExecutor().orElseThrow(), guarded, Wait.IN_DRIVER);
+        log.info("{} requests holding a connection for {} ms, per second: {} on {} platform threads, {} on a platform "
+                        + "thread per request, {} on a virtual thread per request, {} on a virtual thread per request "
+                        + "waiting inside the driver on {} carriers", REQUESTS, QUERY_MILLIS, bounded, PLATFORM_THREADS,
+                platform, unpinned, pinned, Runtime.getRuntime().availableProcessors());
+        assertTrue(unpinned * 2 >= bounded, () -> unpinned + " requests per second on virtual threads");
+        // the monitor reports the waits in the driver, JFR hands the events over in about a second
+        for (int i = 0; i < 50 && pinned() == pinnedBefore; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(pinned() > pinnedBefore);
+    }
+
+    @Test
+    void shouldTimeOutLateRequestsStraightAtPool() throws InterruptedException {
+        HikariDataSource pool = assertInstanceOf(HikariDataSource.class, guarded.getTargetDataSource());
+        AtomicInteger failed = new AtomicInteger();
+        List<Callable<Boolean>> requests = IntStream.range(0, REQUESTS)
+                .mapToObj(i -> (Callable<Boolean>) () -> query(pool, Wait.OUTSIDE_DRIVER))
+                .collect(Collectors.toList());
+        ExecutorService executor = perRequestExecutor();
+        try {
+            for (Future<Boolean> result : executor.invokeAll(requests)) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failed.incrementAndGet();
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+        log.info("{} of {} requests straight at the pool timed out", failed.get(), REQUESTS);
+        assertTrue(failed.get() > 0);
+    }
+
+    // a virtual thread per request on Java 21, a platform one otherwise
+    private static ExecutorService perRequestExecutor() {
+        return VirtualThreads.newPerTaskExecutor().orElseGet(Executors::newCachedThreadPool);
+    }
+
+    // requests per second; fails when any request fails
+    private long run(ExecutorService executor, DataSource target, Wait wait) throws InterruptedException {
+        List<Callable<Boolean>> requests = IntStream.range(0, REQUESTS)
+                .mapToObj(i -> (Callable<Boolean>) () -> query(target, wait))
+                .collect(Collectors.toList());
+        long started = System.nanoTime();
+        List<Future<Boolean>> results;
+        try {
+            results = executor.invokeAll(requests);
+        } finally {
+            executor.shutdown();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        for (Future<Boolean> result : results) {
+            try {
+                assertTrue(result.get());
+            } catch (ExecutionException e) {
+                throw new AssertionError("A request failed", e.getCause());
+            }
+        }
+        return REQUESTS * 1000L / elapsedMillis;
+    }
+
+    private boolean query(DataSource target, Wait wait) {
+        return Boolean.TRUE.equals(new JdbcTemplate(target).execute((ConnectionCallback<Boolean>) connection -> {
+            maxActive.accumulateAndGet(guarded.getActiveConnections(), Math::max);
+            try (Statement statement = connection.createStatement()) {
+                if (wait == Wait.IN_DRIVER) {
+                    statement.execute("CALL SLEEP(" + QUERY_MILLIS + ")");
+                } else {
+                    statement.execute("SELECT 1");
+                    try {
+                        Thread.sleep(QUERY_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }));
+    }
+
+    private double pinned() {
+        return meterRegistry.get(PinnedThreadMonitor.PINNED_METRIC).functionCounter().count();
+    }
+
+    private enum Wait {
+        IN_DRIVER,
+        OUTSIDE_DRIVER
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.shareit.existence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveIdSetTest {
+    private final LiveIdSet set = new LiveIdSet();
+
+    @Test
+    void shouldAnswerThatAnyIdMightExistUntilLoaded() {
+        set.add(1L);
+        assertTrue(set.mightContain(1L));
+        assertTrue(set.mightContain(2L));
+        assertFalse(set.isLoaded());
+    }
+
+    @Test
+    void shouldRejectMissingIdsOnceLoaded() {
+        set.add(1L);
+        set.add(64L);
+        set.markLoaded();
+        assertTrue(set.mightContain(1L));
+        assertTrue(set.mightContain(64L));
+        assertFalse(set.mightContain(2L));
+        assertFalse(set.mightContain(1_000_000L));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void shouldForgetRemovedIds() {
+        set.add(5L);
+        set.markLoaded();
+        set.remove(5L);
+        assertFalse(set.mightContain(5L));
+        assertEquals(0, set.size());
+    }
+
+    @Test
+    void shouldLeaveIdsThatDoNotFitToStorage() {
+        set.markLoaded();
+        set.add((long) Integer.MAX_VALUE + 1);
+        assertTrue(set.mightContain((long) Integer.MAX_VALUE + 1));
+        assertTrue(set.mightContain(-1L));
+        assertTrue(set.mightContain(null));
+        assertEquals(0, set.size());
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.shareit.existence;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:liveIds",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        LiveIdTracker.ENABLED_PROPERTY + "=true"
+})
+@AutoConfigureMockMvc
+class LiveIdTrackerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private LiveIds liveIds;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void shouldLoadIdsWhenApplicationIsReady() {
+        assertTrue(liveIds.getUsers().isLoaded());
+        assertTrue(liveIds.getItems().isLoaded());
+        assertTrue(liveIds.getBookings().isLoaded());
+    }
+
+    @Test
+    void shouldRejectUnknownIdsWithoutQueries() throws Exception {
+        mockMvc.perform(get("/users/{userId}", 999_999)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", 999_999)).andExpect(status().isNotFound());
+        mockMvc.perform(get("/bookings/{bookingId}", 999_999).header("X-Sharer-User-Id", 999_999))
+                .andExpect(status().isNotFound());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldAddCommittedInsertsWhateverCodeMadeThem() throws Exception {
+        User user = userRepository.save(User.builder().name("user").email("inserted@mail.ru").build());
+        Item item = itemRepository.save(Item.builder().name("item").description("description").available(true)
+                .owner(user).build());
+
+        assertTrue(liveIds.getUsers().mightContain(user.getId()));
+        assertTrue(liveIds.getItems().mightContain(item.getId()));
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldNotAddRolledBackInserts() {
+        Long id = transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return userRepository.save(User.builder().name("user").email("rolledback@mail.ru").build()).getId();
+        });
+        assertFalse(liveIds.getUsers().mightContain(id));
+    }
+
+    @Test
+    void shouldRemoveDeletedIds() throws Exception {
+        User user = userRepository.save(User.builder().name("user").email("deleted@mail.ru").build());
+
+        mockMvc.perform(delete("/users/{userId}", user.getId())).andExpect(status().isOk());
+
+        assertFalse(liveIds.getUsers().mightContain(user.getId()));
+        mockMvc.perform(get("/users/{userId}", user.getId())).andExpect(status().isNotFound());
+    }
+}
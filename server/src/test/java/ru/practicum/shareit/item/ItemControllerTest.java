@@ -6,33 +6,50 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
 import ru.practicum.shareit.item.dto.ItemDtoAnswerFull;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.io.BufferedReader;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import ru.practicum.shareit.version.ResourceVersions;
 
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(controllers = ItemController.class)
+@WebMvcTest(controllers = ItemController.class, properties = ResourceVersions.ENABLED_PROPERTY + "=true")
+@Import(ResourceVersions.class)
 public class ItemControllerTest {
     @Autowired
     ObjectMapper objectMapper;
@@ -67,6 +84,32 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$.available", is(itemDtoAnswerFull1.getAvailable()), Boolean.class));
     }
 
+    @Test
+    public void shouldAnswerNotModifiedToMatchingETagWithoutReadingItem() throws Exception {
+        when(itemService.getItemById(2L, 1L)).thenReturn(itemDtoAnswerFull1);
+        String tag = mockMvc.perform(get("/items/{itemId}", "1").header("X-Sharer-User-Id", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/items/{itemId}", "1").header("X-Sharer-User-Id", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag))
+                .andExpect(content().string(""));
+        verify(itemService).getItemById(2L, 1L);
+    }
+
+    // the owner sees the nearest bookings, which change with the clock
+    @Test
+    public void shouldNotTagItemForOwner() throws Exception {
+        when(itemService.getItemById(1L, 1L)).thenReturn(itemDtoAnswerFull1);
+        when(itemService.isOwnerOfItem(1L, 1L)).thenReturn(true);
+        mockMvc.perform(get("/items/{itemId}", "1").header("X-Sharer-User-Id", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+
     // getAllItemsOfUser
     @Test
     public void shouldReturnListOfItemDtoAnswerFull() throws Exception {
@@ -176,7 +219,8 @@ public class ItemControllerTest {
     // searchForItemsByQueryText
     @Test
     public void shouldReturnCollectionOfItemDtoAnswer() throws Exception {
-        Mockito.when(itemService.searchForItemsByQueryText(any(String.class))).thenReturn(List.of(itemDtoAnswer1));
+        Mockito.when(itemService.searchForItemsByQueryText(any(String.class), any(), any()))
+                .thenReturn(List.of(itemDtoAnswer1));
         String param = "item";
         mockMvc.perform(get("/items/search")
                         .header("X-Sharer-User-Id", "1")
@@ -191,7 +235,20 @@ public class ItemControllerTest {
                 .andExpect(jsonPath("$[0].name", is(itemDtoAnswer1.getName()), String.class))
                 .andExpect(jsonPath("$[0].description", is(itemDtoAnswer1.getDescription()), String.class))
                 .andExpect(jsonPath("$[0].available", is(itemDtoAnswer1.getAvailable()), Boolean.class));
-        Mockito.verify(itemService, Mockito.times(1)).searchForItemsByQueryText("item");
+        Mockito.verify(itemService, Mockito.times(1)).searchForItemsByQueryText("item", null, null);
+    }
+
+    @Test
+    public void shouldPassPageOfSearch() throws Exception {
+        Mockito.when(itemService.searchForItemsByQueryText("item", 2, 2)).thenReturn(List.of(itemDtoAnswer1));
+        mockMvc.perform(get("/items/search")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("text", "item")
+                        .param("from", "2")
+                        .param("size", "2")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
     }
 
     @Test
@@ -226,4 +283,45 @@ public class ItemControllerTest {
         Mockito.verify(itemService, Mockito.times(1)).createComment(eq(1L), eq(1L),
                 any(CommentDto.class));
     }
+
+    // importItems
+    @Test
+    public void shouldPassNdjsonBodyToItemServiceImportItems() throws Exception {
+        String ndjson = "{\"name\": \"item1\", \"description\": \"description of item1\", \"available\": true}\n";
+        when(itemService.importItems(eq(1L), any(Reader.class))).thenAnswer(invocation -> {
+            Reader body = invocation.getArgument(1);
+            assertEquals(ndjson, new BufferedReader(body).lines().collect(Collectors.joining("\n", "", "\n")));
+            return new ItemImportReport(1, List.of(new ItemImportError(2, "The name of item is empty")));
+        });
+        mockMvc.perform(post("/items/import")
+                        .header("X-Sharer-User-Id", "1")
+                        .content(ndjson)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("The name of item is empty"));
+    }
+
+    // exportItems
+    @Test
+    public void shouldWriteItemsOfUserAsNdjson() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<ItemDtoAnswer> action = invocation.getArgument(1);
+            action.accept(itemDtoAnswer1);
+            action.accept(itemDtoAnswer1);
+            return null;
+        }).when(itemService).forEachItemOfUser(eq(1L), any());
+        MvcResult result = mockMvc.perform(get("/items/export")
+                        .header("X-Sharer-User-Id", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String line = objectMapper.writeValueAsString(itemDtoAnswer1);
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + "\n" + line + "\n"));
+    }
 }
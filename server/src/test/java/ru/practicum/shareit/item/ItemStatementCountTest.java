@@ -0,0 +1,102 @@
+package ru.practicum.shareit.item;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.comment.Comment;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.booking.BookingStatus.APPROVED;
+
+/* Counts the JDBC statements of the owner's item list. Every item here has its own request, commentator
+and bookings. A request costs one statement for the user check, one for the items, one for the comments
+and one for the last and next bookings. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:itemStatements",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemStatementCountTest {
+    private static final int ITEMS = 5;
+    private static final long EXPECTED_STATEMENTS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private Statistics statistics;
+    private Long ownerId;
+
+    @BeforeAll
+    void fillStorage() {
+        LocalDateTime now = LocalDateTime.now();
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        ownerId = owner.getId();
+        for (int i = 0; i < ITEMS; i++) {
+            User user = userRepository.save(User.builder().name("user" + i).email("user" + i + "@mail.ru").build());
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("request" + i)
+                    .requestor(user).created(now).build());
+            Item item = itemRepository.save(Item.builder().name("item" + i).description("description" + i)
+                    .available(true).owner(owner).request(request).build());
+            bookingRepository.save(Booking.builder().start(now.minusDays(i + 2)).end(now.minusDays(i + 1))
+                    .item(item).booker(user).status(APPROVED).build());
+            bookingRepository.save(Booking.builder().start(now.plusDays(i + 1)).end(now.plusDays(i + 2))
+                    .item(item).booker(user).status(APPROVED).build());
+            commentRepository.save(Comment.builder().text("comment" + i).author(user).created(now).item(item)
+                    .build());
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    @Test
+    void shouldReadItemsOfOwnerWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", ownerId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ITEMS)))
+                .andExpect(jsonPath("$[*].lastBooking", hasSize(ITEMS)))
+                .andExpect(jsonPath("$[4].nextBooking.id", notNullValue()))
+                .andExpect(jsonPath("$[4].comments", hasSize(1)));
+        assertEquals(EXPECTED_STATEMENTS, statistics.getPrepareStatementCount());
+    }
+}
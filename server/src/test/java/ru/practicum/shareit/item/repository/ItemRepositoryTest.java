@@ -0,0 +1,109 @@
+package ru.practicum.shareit.item.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.dto.ItemExportRow;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class ItemRepositoryTest {
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private User owner;
+    private Item byDescription;
+    private Item byName;
+    private Item percent;
+
+    @BeforeEach
+    void setUp() {
+        owner = em.persist(User.builder().name("owner").email("owner@mail.ru").build());
+        byDescription = persistItem("Hammer", "Heavy drill stand", true);
+        byName = persistItem("Cordless DRILL", "Makes holes", true);
+        persistItem("Old drill", "Broken", false);
+        percent = persistItem("Saw", "100% steel", true);
+        persistItem("Glue", "100 ml", true);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void shouldFindAvailableItemsMatchingByNameFirst() {
+        assertEquals(ids(byName, byDescription), search("%drill%", Pageable.unpaged()));
+    }
+
+    @Test
+    void shouldNotFindUnavailableItemThatMatchesByName() {
+        assertEquals(List.of(), search("%old%", Pageable.unpaged()));
+    }
+
+    @Test
+    void shouldSearchEscapedWildcardAsItIs() {
+        assertEquals(ids(percent), search("%100\\%%", Pageable.unpaged()));
+    }
+
+    @Test
+    void shouldReturnRequestedPage() {
+        assertEquals(ids(byDescription), search("%drill%", PageRequest.of(1, 1)));
+    }
+
+    @Test
+    void shouldInsertItemsWithIdsNotTakenByPersistedOnes() {
+        List<Item> imported = List.of(
+                Item.builder().name("Ladder").description("Three steps").available(true).owner(owner).build(),
+                Item.builder().name("Tent").description("For two").available(false).owner(owner).build());
+        itemRepository.insertAll(imported);
+        Item persisted = persistItem("Rope", "Ten meters", true);
+        em.flush();
+        em.clear();
+
+        assertEquals(3, Stream.of(imported.get(0), imported.get(1), persisted).map(Item::getId).distinct().count());
+        Item tent = em.find(Item.class, imported.get(1).getId());
+        assertEquals("Tent", tent.getName());
+        assertEquals(false, tent.getAvailable());
+        assertEquals(owner.getId(), tent.getOwner().getId());
+        assertEquals(0L, tent.getVersion());
+    }
+
+    @Test
+    void shouldStreamItemsOfOwnerInOrderOfIds() {
+        User other = em.persist(User.builder().name("other").email("other@mail.ru").build());
+        em.persist(Item.builder().name("Bike").description("Red").available(true).owner(other).build());
+        List<Long> ids;
+        try (Stream<ItemExportRow> rows = itemRepository.streamAllByOwnerId(owner.getId())) {
+            ids = rows.map(ItemExportRow::getId).collect(Collectors.toList());
+        }
+        assertEquals(5, ids.size());
+        assertEquals(ids.stream().sorted().collect(Collectors.toList()), ids);
+        assertEquals(ids(byDescription, byName), ids.subList(0, 2));
+    }
+
+    private Item persistItem(String name, String description, boolean available) {
+        return em.persist(Item.builder().name(name).description(description).available(available).owner(owner)
+                .build());
+    }
+
+    private List<Long> search(String pattern, Pageable pageable) {
+        return itemRepository.searchAvailable(pattern, pageable).stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(Item... items) {
+        return List.of(items).stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,47 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseItemSearchTest {
+    @InjectMocks
+    private DatabaseItemSearch databaseItemSearch;
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Test
+    void shouldSearchByLowerCasedPattern() {
+        Item item = Item.builder().id(1L).name("Drill").build();
+        when(itemRepository.searchAvailable("%drill%", PageRequest.of(0, 5))).thenReturn(List.of(item));
+        assertEquals(List.of(item), databaseItemSearch.search("DrIlL", PageRequest.of(0, 5)));
+    }
+
+    @Test
+    void shouldEscapeWildcardsOfSearchText() {
+        assertEquals("%50\\%\\_off\\\\%", DatabaseItemSearch.toSearchPattern("50%_OFF\\"));
+    }
+
+    @Test
+    void shouldLowerCaseSearchTextRegardlessOfDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(new Locale("tr", "TR"));
+        try {
+            assertEquals("%drill%", DatabaseItemSearch.toSearchPattern("DRILL"));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
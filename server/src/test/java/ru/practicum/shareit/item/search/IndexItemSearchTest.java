@@ -0,0 +1,85 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemDtoAnswer;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:itemSearch",
+        ItemSearch.ENGINE_PROPERTY + "=index"
+})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class IndexItemSearchTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ItemSearch itemSearch;
+    @Autowired
+    private IndexItemSearch indexItemSearch;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void shouldFollowCommittedChangesOfItems() {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        ItemDtoAnswer drill = itemService.createItem(owner.getId(), ItemDto.builder().name("Drill")
+                .description("Cordless").available(true).build());
+        ItemDtoAnswer hammer = itemService.createItem(owner.getId(), ItemDto.builder().name("Hammer")
+                .description("Goes with the drill").available(true).build());
+
+        assertEquals(List.of(drill.getId(), hammer.getId()), search("drill"));
+
+        itemService.updateItem(owner.getId(), drill.getId(), ItemDto.builder().available(false).build());
+
+        assertEquals(List.of(hammer.getId()), search("drill"));
+        assertEquals(indexItemSearch.rebuild().getDifference(), new ItemSearchIndex.Difference(0, 0, 0));
+    }
+
+    @Test
+    void shouldRebuildIndexAndReportDrift() throws Exception {
+        User owner = userRepository.save(User.builder().name("owner").email("owner@mail.ru").build());
+        // saved past the service, so the index does not know about it
+        Item saw = itemRepository.save(Item.builder().name("Saw").description("Sharp").available(true).owner(owner)
+                .build());
+        assertEquals(List.of(), search("saw"));
+
+        mockMvc.perform(post("/actuator/itemsearch"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.difference.missing").value(1))
+                .andExpect(jsonPath("$.difference.consistent").value(false));
+        mockMvc.perform(get("/actuator/itemsearch"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.documents").value(1));
+
+        assertEquals(List.of(saw.getId()), search("saw"));
+    }
+
+    private List<Long> search(String text) {
+        return itemSearch.search(text, Pageable.unpaged()).stream().map(Item::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,143 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemSearchIndexTest {
+    private ItemSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = ItemSearchIndex.builder()
+                .add(1L, "Hammer", "Heavy drill stand")
+                .add(2L, "Cordless DRILL", "Makes holes")
+                .add(3L, "Дрель", "Аккумуляторная")
+                .add(4L, "Saw", null)
+                .build();
+    }
+
+    @Test
+    void shouldFindNameMatchesFirstThenById() {
+        assertEquals(List.of(2L, 1L), index.search("drill", 0, Integer.MAX_VALUE));
+        assertEquals(List.of(3L), index.search("дРелЬ", 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void shouldFindTextThatIsOnlyInOneField() {
+        assertEquals(List.of(), index.search("hammer stand", 0, Integer.MAX_VALUE));
+        assertEquals(List.of(1L), index.search("y dri", 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void shouldFindShortTextWithoutTrigrams() {
+        assertEquals(List.of(2L, 4L, 1L), index.search("s", 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void shouldReturnRequestedPage() {
+        assertEquals(List.of(1L), index.search("drill", 1, 1));
+        assertEquals(List.of(), index.search("drill", 2, 1));
+    }
+
+    @Test
+    void shouldFollowChangesOfItems() {
+        index.put(2L, "Screwdriver", "Cordless");
+        index.put(5L, "Drill press", "");
+        index.remove(1L);
+
+        assertEquals(List.of(5L), index.search("drill", 0, Integer.MAX_VALUE));
+        assertEquals(List.of(2L), index.search("cordless", 0, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void shouldReportDifferenceFromStorage() {
+        index.put(2L, "Changed", "");
+        index.put(9L, "Stale", "");
+        ItemSearchIndex expected = ItemSearchIndex.builder()
+                .add(1L, "Hammer", "Heavy drill stand")
+                .add(2L, "Cordless DRILL", "Makes holes")
+                .add(3L, "Дрель", "Аккумуляторная")
+                .add(4L, "Saw", null)
+                .add(5L, "Missing", null)
+                .build();
+
+        ItemSearchIndex.Difference difference = index.snapshot().differenceFrom(expected, Set.of());
+
+        assertEquals(new ItemSearchIndex.Difference(1, 1, 1), difference);
+        assertTrue(expected.snapshot().differenceFrom(expected, Set.of()).isConsistent());
+        assertEquals(new ItemSearchIndex.Difference(1, 0, 0),
+                index.snapshot().differenceFrom(expected, Set.of(2L, 9L)));
+    }
+
+    @Test
+    void shouldCompareIndexAsItWasWhenSnapshotWasTaken() {
+        ItemSearchIndex.Snapshot snapshot = index.snapshot();
+        index.put(5L, "Added later", "");
+        index.remove(1L);
+
+        assertTrue(snapshot.differenceFrom(ItemSearchIndex.builder()
+                .add(1L, "Hammer", "Heavy drill stand")
+                .add(2L, "Cordless DRILL", "Makes holes")
+                .add(3L, "Дрель", "Аккумуляторная")
+                .add(4L, "Saw", null)
+                .build(), Set.of()).isConsistent());
+    }
+
+    @Test
+    void shouldAccountMemory() {
+        ItemSearchIndex.Stats stats = index.stats();
+        assertEquals(4, stats.getDocuments());
+        assertTrue(stats.getPostingsBytes() >= stats.getPostings());
+        assertTrue(stats.getEstimatedBytes() > stats.getPostingsBytes() + stats.getDocumentBytes());
+    }
+
+    @Test
+    void shouldKeepIdsOfPostings() {
+        long[] ids = {1L, 2L, 130L, 70_000L, Long.MAX_VALUE};
+        Postings postings = Postings.of(ids, ids.length);
+        assertArrayEquals(ids, postings.toArray());
+        assertTrue(postings.byteSize() < ids.length * Long.BYTES);
+    }
+
+    @Test
+    void shouldBufferChangesOfPostingList() {
+        long[] ids = {1L, 2L, 130L, 70_000L, Long.MAX_VALUE};
+        PostingList list = new PostingList(Postings.of(ids, ids.length));
+
+        list.add(3L);
+        list.remove(130L);
+        list.add(130L);
+        list.remove(1L);
+        list.add(80_000L);
+
+        assertArrayEquals(new long[]{2L, 3L, 130L, 70_000L, 80_000L, Long.MAX_VALUE}, list.toArray());
+        assertEquals(6, list.size());
+    }
+
+    @Test
+    void shouldMergeBuffersOfPostingListWhenTheyGrow() {
+        PostingList list = new PostingList(Postings.EMPTY);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (long id = 1000; id > 0; id -= 3) {
+            list.add(id);
+            expected.add(id);
+        }
+        for (long id = 1; id <= 1000; id += 7) {
+            if (expected.remove(id)) {
+                list.remove(id);
+            }
+        }
+
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), list.toArray());
+        assertEquals(expected.size(), list.size());
+        assertTrue(list.byteSize() < expected.size() * Long.BYTES);
+    }
+}
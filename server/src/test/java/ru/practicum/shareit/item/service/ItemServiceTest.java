@@ -1,19 +1,28 @@
 package ru.practicum.shareit.item.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
 import ru.practicum.shareit.booking.dto.BookingMapperImpl;
+import ru.practicum.shareit.booking.dto.NearestBooking;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.OwnerVerificationException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.existence.LiveIds;
 import ru.practicum.shareit.item.comment.Comment;
 import ru.practicum.shareit.item.comment.CommentDto;
 import ru.practicum.shareit.item.comment.CommentMapperImpl;
@@ -21,19 +30,30 @@ import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
 import ru.practicum.shareit.item.dto.ItemDtoAnswerFull;
+import ru.practicum.shareit.item.dto.ItemExportRow;
+import ru.practicum.shareit.item.dto.ItemImportError;
+import ru.practicum.shareit.item.dto.ItemImportReport;
 import ru.practicum.shareit.item.dto.ItemMapperImpl;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemChangedEvent;
+import ru.practicum.shareit.item.search.ItemSearch;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
+import ru.practicum.shareit.version.ResourceVersions;
 
+import java.io.StringReader;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -56,12 +76,22 @@ public class ItemServiceTest {
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private UserServiceImpl userService;
+    @Mock
+    private ItemSearch itemSearch;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @Spy
     private ItemMapperImpl itemMapper;
     @Spy
     private BookingMapperImpl bookingMapper;
     @Spy
     private CommentMapperImpl commentMapper;
+    @Spy
+    private LiveIds liveIds;
+    @Mock
+    private ResourceVersions resourceVersions;
+    @Spy
+    private ObjectMapper objectMapper;
 
     User user1 = User.builder().id(1L).name("user1").email("user1@mail.ru").build();
     User user2 = User.builder().id(2L).name("user2").email("user2@mail.ru").build();
@@ -123,10 +153,8 @@ public class ItemServiceTest {
     @Test
     public void shouldReturnItemDtoWithoutCommentsAndBookingsForOwner() {
         when(commentRepository.findAllByItemId(1L)).thenReturn(Collections.emptyList());
-        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
-        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
+        when(bookingRepository.findLastAndNextApproved(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(nearest(null, null));
 
         ItemDtoAnswerFull result = itemService.collectItemWithBookingsAndComments(item1, 1L);
         ItemDtoAnswerFull itemToCheck = ItemDtoAnswerFull.builder().id(1L).name("item1")
@@ -138,10 +166,8 @@ public class ItemServiceTest {
     @Test
     public void shouldReturnItemDtoWithCommentsForOwner() {
         when(commentRepository.findAllByItemId(1L)).thenReturn(List.of(comment1, comment2));
-        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
-        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
+        when(bookingRepository.findLastAndNextApproved(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(nearest(null, null));
 
         ItemDtoAnswerFull result = itemService.collectItemWithBookingsAndComments(item1, 1L);
         ItemDtoAnswerFull itemToCheck = ItemDtoAnswerFull.builder().id(1L).name("item1")
@@ -155,10 +181,8 @@ public class ItemServiceTest {
     public void shouldReturnItemDtoWithCommentsAndNextBookingForOwner() {
 
         when(commentRepository.findAllByItemId(1L)).thenReturn(List.of(comment1, comment2));
-        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
-        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(nextBooking);
+        when(bookingRepository.findLastAndNextApproved(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(nearest(null, nextBooking));
 
         ItemDtoAnswerFull result = itemService.collectItemWithBookingsAndComments(item1, 1L);
         ItemDtoAnswerFull itemToCheck = ItemDtoAnswerFull.builder().id(1L).name("item1")
@@ -172,10 +196,8 @@ public class ItemServiceTest {
     public void shouldReturnItemDtoWithCommentsAndLastBookingForOwner() {
 
         when(commentRepository.findAllByItemId(1L)).thenReturn(List.of(comment1, comment2));
-        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(lastBooking);
-        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
+        when(bookingRepository.findLastAndNextApproved(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(nearest(lastBooking, null));
 
         ItemDtoAnswerFull result = itemService.collectItemWithBookingsAndComments(item1, 1L);
         ItemDtoAnswerFull itemToCheck = ItemDtoAnswerFull.builder().id(1L).name("item1")
@@ -189,10 +211,8 @@ public class ItemServiceTest {
     public void shouldReturnItemDtoWithCommentsAndBookingsForOwner() {
 
         when(commentRepository.findAllByItemId(1L)).thenReturn(List.of(comment1, comment2));
-        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(lastBooking);
-        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(nextBooking);
+        when(bookingRepository.findLastAndNextApproved(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(nearest(lastBooking, nextBooking));
 
         ItemDtoAnswerFull result = itemService.collectItemWithBookingsAndComments(item1, 1L);
         ItemDtoAnswerFull itemToCheck = ItemDtoAnswerFull.builder().id(1L).name("item1")
@@ -227,10 +247,8 @@ public class ItemServiceTest {
         when(userService.isUserExists(1L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
         when(commentRepository.findAllByItemId(1L)).thenReturn(List.of(comment1, comment2));
-        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
-        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(null);
+        when(bookingRepository.findLastAndNextApproved(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(nearest(null, null));
 
         ItemDtoAnswerFull result = itemService.getItemById(1L, 1L);
         ItemDtoAnswerFull itemToCheck = ItemDtoAnswerFull.builder().id(1L).name("item1")
@@ -245,10 +263,8 @@ public class ItemServiceTest {
         when(userService.isUserExists(1L)).thenReturn(true);
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
         when(commentRepository.findAllByItemId(1L)).thenReturn(List.of(comment1, comment2));
-        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(lastBooking);
-        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-                .thenReturn(nextBooking);
+        when(bookingRepository.findLastAndNextApproved(eq(1L), any(LocalDateTime.class)))
+                .thenReturn(nearest(lastBooking, nextBooking));
         ItemDtoAnswerFull result = itemService.getItemById(1L, 1L);
         ItemDtoAnswerFull itemToCheck = ItemDtoAnswerFull.builder().id(1L).name("item1")
                 .description("description of item1").available(true).comments(List.of(commentMapper.toCommentDto(comment1, user2),
@@ -259,83 +275,82 @@ public class ItemServiceTest {
     }
 
     // getAllEntityItemsOfUserFromStorage
-//    @Test
-//    public void shouldReturnEmptyListWhenOwnerHasNoItems() {
-//        when(itemRepository.findAllByOwnerId(1L)).thenReturn(Collections.emptyList());
-//        List<Item> result = itemService.getAllEntityItemsOfUserFromStorage(1L);
-//        assertEquals(Collections.emptyList(), result);
-//    }
-//
-//    @Test
-//    public void shouldReturnListOfItemsWhenOwnerHasNoItems() {
-//        when(itemRepository.findAllByOwnerId(1L)).thenReturn(List.of(item1, item2));
-//        List<Item> result = itemService.getAllEntityItemsOfUserFromStorage(1L);
-//        assertEquals(List.of(item1, item2), result);
-//    }
-//
-//    // getAllItemsOfUser
-//    @Test
-//    public void shouldThrowExceptionWhenWeCallGetAllItemsOfUser() {
-//        when(userService.isUserExists(999L)).thenReturn(false);
-//        RuntimeException re = Assertions.assertThrows(NotFoundException.class,
-//                () -> itemService.getAllItemsOfUser(999L));
-//        assertEquals("Пользователь с переданным id = 999 не найден", re.getMessage());
-//    }
-//
-//    @Test
-//    public void shouldReturnEmptyListDtoWhenOwnerHasNoItems() {
-//        when(userService.isUserExists(1L)).thenReturn(true);
-//        when(itemRepository.findAllByOwnerId(1L)).thenReturn(Collections.emptyList());
-//        List<ItemDtoAnswerFull> result = itemService.getAllItemsOfUser(1L);
-//        assertEquals(Collections.emptyList(), result);
-//    }
-//
-//    @Test
-//    public void shouldReturnListDtoWithCommentsWhenOwnerHasItems() {
-//        when(userService.isUserExists(1L)).thenReturn(true);
-//        when(itemRepository.findAllByOwnerId(1L)).thenReturn(List.of(item1, item2));
-//        when(commentRepository.findAllByItemId(1L)).thenReturn(Collections.emptyList());
-//        when(commentRepository.findAllByItemId(2L)).thenReturn(List.of(comment1, comment2));
-//        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-//                .thenReturn(null);
-//        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-//                .thenReturn(null);
-//        List<ItemDtoAnswerFull> result = itemService.getAllItemsOfUser(1L);
-//        ItemDtoAnswerFull itemToCheck1 = ItemDtoAnswerFull.builder().id(1L).name("item1")
-//                .description("description of item1").available(true).comments(Collections.emptyList())
-//                .lastBooking(null).nextBooking(null).build();
-//        ItemDtoAnswerFull itemToCheck2 = ItemDtoAnswerFull.builder().id(2L).name("item2")
-//                .description("description of item2").available(true).comments(List.of(commentMapper.toCommentDto(comment1, user2),
-//                        commentMapper.toCommentDto(comment2, user3)))
-//                .lastBooking(null).nextBooking(null).build();
-//        assertEquals(List.of(itemToCheck1, itemToCheck2), result);
-//    }
-
-//    @Test
-//    public void shouldReturnListDtoWithCommentAndBookingsWhenOwnerHasItems() {
-//        when(userService.isUserExists(1L)).thenReturn(true);
-//        when(itemRepository.findAllByOwnerId(1L)).thenReturn(List.of(item1, item2));
-//        when(commentRepository.findAllByItemId(1L)).thenReturn(Collections.emptyList());
-//        when(commentRepository.findAllByItemId(2L)).thenReturn(List.of(comment1, comment2));
-//        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(1L), any(LocalDateTime.class)))
-//                .thenReturn(null);
-//        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(1L), any(LocalDateTime.class)))
-//                .thenReturn(null);
-//        when(bookingRepository.findByItemIdAndEndIsBeforeOrderByEnd(eq(2L), any(LocalDateTime.class)))
-//                .thenReturn(lastBooking);
-//        when(bookingRepository.findByItemIdAndStartIsAfterOrderByStart(eq(2L), any(LocalDateTime.class)))
-//                .thenReturn(nextBooking);
-//        List<ItemDtoAnswerFull> result = itemService.getAllItemsOfUser(1L);
-//        ItemDtoAnswerFull itemToCheck1 = ItemDtoAnswerFull.builder().id(1L).name("item1")
-//                .description("description of item1").available(true).comments(Collections.emptyList())
-//                .lastBooking(null).nextBooking(null).build();
-//        ItemDtoAnswerFull itemToCheck2 = ItemDtoAnswerFull.builder().id(2L).name("item2")
-//                .description("description of item2").available(true).comments(List.of(commentMapper.toCommentDto(comment1, user2),
-//                        commentMapper.toCommentDto(comment2, user3)))
-//                .lastBooking(bookingMapper.toBookingDtoWithBookerId(lastBooking))
-//                .nextBooking(bookingMapper.toBookingDtoWithBookerId(nextBooking)).build();
-//        assertEquals(List.of(itemToCheck1, itemToCheck2), result);
-//    }
+    @Test
+    public void shouldReturnEmptyListWhenOwnerHasNoItems() {
+        when(itemRepository.findAllByOwnerIdOrderById(1L)).thenReturn(Collections.emptyList());
+        List<Item> result = itemService.getAllEntityItemsOfUserFromStorage(1L);
+        assertEquals(Collections.emptyList(), result);
+    }
+
+    @Test
+    public void shouldReturnListOfItemsWhenOwnerHasItems() {
+        when(itemRepository.findAllByOwnerIdOrderById(1L)).thenReturn(List.of(item1, item2));
+        List<Item> result = itemService.getAllEntityItemsOfUserFromStorage(1L);
+        assertEquals(List.of(item1, item2), result);
+    }
+
+    // getAllItemsOfUser
+    @Test
+    public void shouldThrowExceptionWhenWeCallGetAllItemsOfUser() {
+        when(userService.isUserExists(999L)).thenReturn(false);
+        RuntimeException re = Assertions.assertThrows(NotFoundException.class,
+                () -> itemService.getAllItemsOfUser(999L));
+        assertEquals("User with id = 999 not found", re.getMessage());
+    }
+
+    @Test
+    public void shouldReturnEmptyListDtoWhenOwnerHasNoItems() {
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRepository.findAllByOwnerIdOrderById(1L)).thenReturn(Collections.emptyList());
+        List<ItemDtoAnswerFull> result = itemService.getAllItemsOfUser(1L);
+        assertEquals(Collections.emptyList(), result);
+        Mockito.verifyNoInteractions(commentRepository, bookingRepository);
+    }
+
+    @Test
+    public void shouldReturnListDtoWithCommentsWhenOwnerHasItems() {
+        Comment comment3 = Comment.builder()
+                .id(3L).text("Текст комментария3").author(user3).created(LocalDateTime.now().minusDays(2)).item(item2)
+                .build();
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRepository.findAllByOwnerIdOrderById(1L)).thenReturn(List.of(item1, item2));
+        when(commentRepository.findAllByItemIdIn(List.of(1L, 2L))).thenReturn(List.of(comment1, comment3));
+        when(bookingRepository.findLastAndNextApprovedOfItems(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(Collections.emptyList());
+        List<ItemDtoAnswerFull> result = itemService.getAllItemsOfUser(1L);
+        ItemDtoAnswerFull itemToCheck1 = ItemDtoAnswerFull.builder().id(1L).name("item1")
+                .description("description of item1").available(true)
+                .comments(List.of(commentMapper.toCommentDto(comment1, user2))).build();
+        ItemDtoAnswerFull itemToCheck2 = ItemDtoAnswerFull.builder().id(2L).name("item2")
+                .description("description of item2").available(true)
+                .comments(List.of(commentMapper.toCommentDto(comment3, user3))).build();
+        assertEquals(List.of(itemToCheck1, itemToCheck2), result);
+    }
+
+    @Test
+    public void shouldReturnListDtoWithCommentAndBookingsWhenOwnerHasItems() {
+        Booking lastOfItem2 = Booking.builder().id(2L).start(LocalDateTime.now().minusDays(4))
+                .end(LocalDateTime.now().minusDays(3)).item(item2).booker(user2).status(APPROVED).build();
+        Booking nextOfItem2 = Booking.builder().id(3L).start(LocalDateTime.now().plusDays(3))
+                .end(LocalDateTime.now().plusDays(4)).item(item2).booker(user3).status(APPROVED).build();
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRepository.findAllByOwnerIdOrderById(1L)).thenReturn(List.of(item1, item2));
+        when(commentRepository.findAllByItemIdIn(List.of(1L, 2L))).thenReturn(List.of(comment1, comment2));
+        List<NearestBooking> nearest = new ArrayList<>(nearest(null, nextBooking));
+        nearest.addAll(nearest(lastOfItem2, nextOfItem2));
+        when(bookingRepository.findLastAndNextApprovedOfItems(eq(List.of(1L, 2L)), any(LocalDateTime.class)))
+                .thenReturn(nearest);
+        List<ItemDtoAnswerFull> result = itemService.getAllItemsOfUser(1L);
+        ItemDtoAnswerFull itemToCheck1 = ItemDtoAnswerFull.builder().id(1L).name("item1")
+                .description("description of item1").available(true).comments(List.of(
+                        commentMapper.toCommentDto(comment1, user2), commentMapper.toCommentDto(comment2, user3)))
+                .nextBooking(bookingMapper.toBookingDtoWithBookerId(nextBooking)).build();
+        ItemDtoAnswerFull itemToCheck2 = ItemDtoAnswerFull.builder().id(2L).name("item2")
+                .description("description of item2").available(true).comments(Collections.emptyList())
+                .lastBooking(bookingMapper.toBookingDtoWithBookerId(lastOfItem2))
+                .nextBooking(bookingMapper.toBookingDtoWithBookerId(nextOfItem2)).build();
+        assertEquals(List.of(itemToCheck1, itemToCheck2), result);
+    }
 
     // createItem
     @Test
@@ -350,7 +365,7 @@ public class ItemServiceTest {
     @Test
     public void shouldThrowExceptionWhenItemIsAlreadyExist() {
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
         RuntimeException re = Assertions.assertThrows(ValidationException.class,
                 () -> itemService.createItem(1L, ItemDto.builder()
                         .id(1L).name("item1Update").description("descriptionUpdate of item1").available(true).build()));
@@ -362,7 +377,7 @@ public class ItemServiceTest {
         ItemDto itemDto = ItemDto.builder().id(1L).name("item1").description("description of item1")
                 .available(true).requestId(1L).build();
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemRepository.existsById(1L)).thenReturn(false);
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
         when(itemRequestRepository.findById(1L)).thenReturn(Optional.empty());
         RuntimeException re = Assertions.assertThrows(NotFoundException.class,
                 () -> itemService.createItem(1L, itemDto));
@@ -374,7 +389,7 @@ public class ItemServiceTest {
         ItemDto itemDto = ItemDto.builder().id(1L).name("item1").description("description of item1")
                 .available(true).requestId(1L).build();
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemRepository.existsById(1L)).thenReturn(false);
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
         when(itemRequestRepository.findById(1L)).thenReturn(
                 Optional.of(ItemRequest.builder()
                         .id(1L).description("Описание для вещи 1").requestor(user1)
@@ -390,7 +405,7 @@ public class ItemServiceTest {
         ItemDto itemDto = ItemDto.builder().id(1L).name("item1").description("description of item1")
                 .available(true).requestId(1L).build();
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemRepository.existsById(1L)).thenReturn(false);
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
         when(itemRequestRepository.findById(1L)).thenReturn(
                 Optional.of(ItemRequest.builder()
                         .id(1L).description("Описание для вещи 1").requestor(user2)
@@ -407,12 +422,13 @@ public class ItemServiceTest {
         ItemDto itemDto = ItemDto.builder().id(1L).name("item1").description("description of item1")
                 .available(true).build();
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemRepository.existsById(1L)).thenReturn(false);
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
         ItemDtoAnswer result = itemService.createItem(1L, itemDto);
         ItemDtoAnswer itemToCheck = ItemDtoAnswer.builder().id(1L).name("item1").description("description of item1")
                 .available(true).requestId(null).build();
         Mockito.verify(itemRepository, Mockito.times(1)).save(any(Item.class));
-        Mockito.verify(itemRepository, Mockito.times(1)).save(any(Item.class));
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new ItemChangedEvent(1L, "item1", "description of item1", true));
         assertEquals(itemToCheck, result);
     }
 
@@ -516,27 +532,35 @@ public class ItemServiceTest {
         ItemDtoAnswer itemToCheck = ItemDtoAnswer.builder().id(1L).name("item1Update").description("descriptionUpdate of item1")
                 .available(false).requestId(1L).build();
         Mockito.verify(itemRepository, Mockito.times(1)).save(any(Item.class));
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new ItemChangedEvent(1L, "item1Update", "descriptionUpdate of item1", false));
         assertEquals(itemToCheck, result);
     }
 
     // searchForItemsByQueryText
     @Test
     public void shouldReturnEmptyCollectionWhenWeFindByEmptyText() {
-        List<ItemDtoAnswer> result = itemService.searchForItemsByQueryText(" ");
+        List<ItemDtoAnswer> result = itemService.searchForItemsByQueryText(" ", null, null);
         assertEquals(Collections.emptyList(), result);
+        Mockito.verifyNoInteractions(itemSearch);
     }
 
     @Test
     public void shouldReturnListDtoWhenWeFindItems() {
-        when(itemRepository
-                .findAllByNameContainingIgnoreCaseOrDescriptionContainingIgnoreCaseAndAvailableIsTrue("item", "item"))
-                .thenReturn(List.of(item1, item2));
-        List<ItemDtoAnswer> result = itemService.searchForItemsByQueryText("item");
+        when(itemSearch.search("ItEm", Pageable.unpaged())).thenReturn(List.of(item1, item2));
+        List<ItemDtoAnswer> result = itemService.searchForItemsByQueryText("ItEm", null, null);
         List<ItemDtoAnswer> listToCheck = List.of(item1, item2).stream()
                 .map(x -> itemMapper.toItemDtoAnswer(x, null)).collect(Collectors.toList());
         assertEquals(listToCheck, result);
     }
 
+    @Test
+    public void shouldSearchPageThatContainsFrom() {
+        when(itemSearch.search("item", PageRequest.of(1, 2))).thenReturn(List.of(item2));
+        List<ItemDtoAnswer> result = itemService.searchForItemsByQueryText("item", 3, 2);
+        assertEquals(List.of(itemMapper.toItemDtoAnswer(item2, null)), result);
+    }
+
     // createComment
     @Test
     public void shouldThrowExceptionWhenNotExistsUserTryCreateComment() {
@@ -551,7 +575,7 @@ public class ItemServiceTest {
     public void shouldThrowExceptionWhenUserTryCreateCommentByNotExistsItem() {
         CommentDto commentDto = CommentDto.builder().text("Хорошая вещь").build();
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemRepository.existsById(999L)).thenReturn(false);
+        when(itemRepository.findById(999L)).thenReturn(Optional.empty());
         RuntimeException re = assertThrows(NotFoundException.class,
                 () -> itemService.createComment(1L, 999L, commentDto));
         assertEquals("Item with id = 999 not found", re.getMessage());
@@ -567,7 +591,7 @@ public class ItemServiceTest {
         Comment comment = Comment.builder().id(1L).text("Хорошая вещь").author(user1).created(minuteOfToday)
                 .item(item1).build();
         when(userService.isUserExists(1L)).thenReturn(true);
-        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
         when(bookingRepository.findAllByItemIdAndStatusAndEndBefore(eq(1L), eq(APPROVED),
                 any(LocalDateTime.class))).thenReturn(List.of(booking1));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
@@ -575,4 +599,102 @@ public class ItemServiceTest {
         CommentDto commentToCheck = CommentDto.builder().id(1L).text("Хорошая вещь").authorName("user1").created(minuteOfToday).build();
         assertEquals(commentToCheck, result);
     }
+
+    // The rows of BookingRepository.findLastAndNextApproved for the given bookings
+    private static List<NearestBooking> nearest(Booking last, Booking next) {
+        ProjectionFactory factory = new SpelAwareProxyProjectionFactory();
+        List<NearestBooking> rows = new ArrayList<>();
+        if (last != null) {
+            rows.add(factory.createProjection(NearestBooking.class, Map.of("kind", NearestBooking.LAST,
+                    "id", last.getId(), "itemId", last.getItem().getId(), "bookerId", last.getBooker().getId())));
+        }
+        if (next != null) {
+            rows.add(factory.createProjection(NearestBooking.class, Map.of("kind", NearestBooking.NEXT,
+                    "id", next.getId(), "itemId", next.getItem().getId(), "bookerId", next.getBooker().getId())));
+        }
+        return rows;
+    }
+
+    @Test
+    public void shouldNotLookUpItemWhenIdSurelyDoesNotExist() {
+        liveIds.getItems().add(1L);
+        liveIds.getItems().markLoaded();
+        Assertions.assertFalse(itemService.isItemExists(999L));
+        RuntimeException re = Assertions.assertThrows(NotFoundException.class,
+                () -> itemService.getEntityItemByIdFromStorage(999L));
+        assertEquals("The item with id = 999 is missing from the storage", re.getMessage());
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    // importItems
+    @Test
+    public void shouldImportValidLinesAndReportTheOthers() {
+        liveIds.getItems().markLoaded();
+        when(userService.isUserExists(2L)).thenReturn(true);
+        when(itemRequestRepository.findAllById(Set.of(1L, 5L))).thenReturn(List.of(itemRequest1));
+        String ndjson = "{\"id\": 7, \"name\": \"Drill\", \"description\": \"Cordless\", \"available\": true}\n"
+                + "\n"
+                + "{\"name\": \"\", \"description\": \"Nameless\", \"available\": true}\n"
+                + "not json\n"
+                + "{\"name\": \"Saw\", \"description\": \"Sharp\", \"available\": false, \"requestId\": 5}\n"
+                + "{\"name\": \"Tent\", \"description\": \"For two\", \"available\": true, \"requestId\": 1}\n";
+        Mockito.doAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            long id = 100;
+            for (Item item : items) {
+                item.setId(id++);
+            }
+            return null;
+        }).when(itemRepository).insertAll(any());
+
+        ItemImportReport report = itemService.importItems(2L, new StringReader(ndjson));
+
+        assertEquals(1, report.getImported());
+        assertEquals(List.of(3L, 4L, 5L, 6L), report.getErrors().stream().map(ItemImportError::getLine)
+                .collect(Collectors.toList()));
+        assertEquals("The name of item is empty", report.getErrors().get(0).getMessage());
+        assertEquals("The passed item request id was not found", report.getErrors().get(2).getMessage());
+        ArgumentCaptor<List<Item>> inserted = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(itemRepository).insertAll(inserted.capture());
+        assertEquals(List.of("Drill"), inserted.getValue().stream().map(Item::getName).collect(Collectors.toList()));
+        assertEquals(2L, inserted.getValue().get(0).getOwner().getId());
+        Mockito.verify(eventPublisher).publishEvent(any(ItemChangedEvent.class));
+        Assertions.assertTrue(liveIds.getItems().mightContain(100L));
+    }
+
+    @Test
+    public void shouldRejectImportedItemForOwnRequest() {
+        when(userService.isUserExists(2L)).thenReturn(true);
+        when(itemRequestRepository.findAllById(Set.of(1L))).thenReturn(List.of(itemRequest1));
+        String ndjson = "{\"name\": \"Tent\", \"description\": \"For two\", \"available\": true, \"requestId\": 1}";
+
+        ItemImportReport report = itemService.importItems(2L, new StringReader(ndjson));
+
+        assertEquals(0, report.getImported());
+        assertEquals(List.of(new ItemImportError(1, "The user who created the request cannot offer items for him")),
+                report.getErrors());
+    }
+
+    @Test
+    public void shouldNotImportItemsOfUnknownUser() {
+        when(userService.isUserExists(9L)).thenReturn(false);
+        assertThrows(NotFoundException.class, () -> itemService.importItems(9L, new StringReader("")));
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    // forEachItemOfUser
+    @Test
+    public void shouldPassExportedItemsToAction() {
+        ProjectionFactory factory = new SpelAwareProxyProjectionFactory();
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRepository.streamAllByOwnerId(1L)).thenReturn(Stream.of(
+                factory.createProjection(ItemExportRow.class, Map.of("id", 1L, "name", "item1",
+                        "description", "description of item1", "available", true))));
+        List<ItemDtoAnswer> exported = new ArrayList<>();
+
+        itemService.forEachItemOfUser(1L, exported::add);
+
+        assertEquals(List.of(ItemDtoAnswer.builder().id(1L).name("item1").description("description of item1")
+                .available(true).build()), exported);
+    }
 }
@@ -6,10 +6,14 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
+import ru.practicum.shareit.pagination.CursorPage;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswer;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswerFull;
@@ -19,19 +23,28 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+import ru.practicum.shareit.version.ResourceVersions;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
+@Import(ResourceVersions.class)
 public class ItemRequestControllerTest {
 
     @Autowired
@@ -88,14 +101,20 @@ public class ItemRequestControllerTest {
     // getAllItemRequestsOfUser
     @Test
     public void shouldCallItemRequestServiceGetAllItemRequestsOfUserAndReturnListOfItemRequestDtoAnswerFull() throws Exception {
-        List<ItemRequestDtoAnswerFull> answer = List.of(itemRequestDtoAnswerFull1, itemRequestDtoAnswerFull2);
-        when(itemRequestService.getAllItemRequestsOfUser(1L))
-                .thenReturn(answer);
-        mockMvc.perform(get("/requests")
+        doAnswer(invocation -> {
+            Consumer<ItemRequestDtoAnswerFull> action = invocation.getArgument(1);
+            action.accept(itemRequestDtoAnswerFull1);
+            action.accept(itemRequestDtoAnswerFull2);
+            return null;
+        }).when(itemRequestService).forEachItemRequestOfUser(eq(1L), any());
+        MvcResult result = mockMvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", "1")
                         .characterEncoding(StandardCharsets.UTF_8)
                         .contentType(MediaType.APPLICATION_JSON)
                         .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(itemRequestDtoAnswerFull1.getId()))
                 .andExpect(jsonPath("$[0].description").value(itemRequestDtoAnswerFull1.getDescription()))
@@ -106,7 +125,55 @@ public class ItemRequestControllerTest {
                 .andExpect(jsonPath("$[1].id").value(itemRequestDtoAnswerFull2.getId()))
                 .andExpect(jsonPath("$[1].description").value(itemRequestDtoAnswerFull2.getDescription()))
                 .andExpect(jsonPath("$[1].items", hasSize(0)));
-        Mockito.verify(itemRequestService, Mockito.times(1)).getAllItemRequestsOfUser(1L);
+        Mockito.verify(itemRequestService, Mockito.times(1)).forEachItemRequestOfUser(eq(1L), any());
+    }
+
+    @Test
+    public void shouldReturnEmptyArrayWhenUserHasNoRequests() throws Exception {
+        MvcResult result = mockMvc.perform(get("/requests").header("X-Sharer-User-Id", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    public void shouldReturnNotFoundWhenUserOfStreamedRequestsNotExists() throws Exception {
+        doThrow(new NotFoundException("User with id = 999 not found"))
+                .when(itemRequestService).checkExistenceOfUser(999L);
+        mockMvc.perform(get("/requests").header("X-Sharer-User-Id", "999"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isNotFound());
+        Mockito.verify(itemRequestService, Mockito.never()).forEachItemRequestOfUser(eq(999L), any());
+    }
+
+    // getItemRequestsOfUserByCursor
+    @Test
+    public void shouldReturnPageOfRequestsAndNextCursor() throws Exception {
+        when(itemRequestService.getItemRequestsOfUserByCursor(1L, "", 1))
+                .thenReturn(new CursorPage<>(List.of(itemRequestDtoAnswerFull1), "next"));
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(itemRequestDtoAnswerFull1.getId()));
+    }
+
+    @Test
+    public void shouldReturnLastPageOfRequestsWithoutNextCursor() throws Exception {
+        when(itemRequestService.getItemRequestsOfUserByCursor(1L, "abc", 5))
+                .thenReturn(new CursorPage<>(List.of(itemRequestDtoAnswerFull2), null));
+        mockMvc.perform(get("/requests")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(CursorPage.NEXT_CURSOR_HEADER))
+                .andExpect(jsonPath("$[0].id").value(itemRequestDtoAnswerFull2.getId()));
     }
 
     // getAllItemRequestsByParams
@@ -151,6 +218,23 @@ public class ItemRequestControllerTest {
                 .getAllItemRequestsByParams(any(Long.class), eq(null), eq(null));
     }
 
+    // getAllItemRequestsByCursor
+    @Test
+    public void shouldReturnPageOfOtherRequestsAndNextCursor() throws Exception {
+        when(itemRequestService.getAllItemRequestsByCursor(1L, "", 1))
+                .thenReturn(new CursorPage<>(List.of(itemRequestDtoAnswerFull1), "next"));
+        mockMvc.perform(get("/requests/all")
+                        .header("X-Sharer-User-Id", "1")
+                        .param("cursor", "")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CursorPage.NEXT_CURSOR_HEADER, "next"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(itemRequestDtoAnswerFull1.getId()));
+        Mockito.verify(itemRequestService, Mockito.never())
+                .getAllItemRequestsByParams(any(Long.class), any(), any());
+    }
+
     // getItemRequestById
     @Test
     public void shouldReturnItemRequestDtoAnswerFullById() throws Exception {
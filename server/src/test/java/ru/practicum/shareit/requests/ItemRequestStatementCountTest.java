@@ -0,0 +1,152 @@
+package ru.practicum.shareit.requests;
+
+import com.jayway.jsonpath.JsonPath;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/* Counts the JDBC statements of the request lists. Every request here has its own requestor
+and is answered by items of their own owners, so a query per request would show up as extra statements.
+The user check is answered by the entity cache and costs no statement. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:requestStatements",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ItemRequestStatementCountTest {
+    private static final int REQUESTS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Statistics statistics;
+    private Long userId;
+    private Long requestorId;
+
+    @BeforeAll
+    void fillStorage() {
+        LocalDateTime now = LocalDateTime.now();
+        User user = userRepository.save(User.builder().name("user").email("user@mail.ru").build());
+        userId = user.getId();
+        for (int i = 0; i < REQUESTS; i++) {
+            User requestor = userRepository.save(User.builder().name("requestor" + i)
+                    .email("requestor" + i + "@mail.ru").build());
+            User owner = userRepository.save(User.builder().name("owner" + i).email("owner" + i + "@mail.ru").build());
+            ItemRequest request = itemRequestRepository.save(ItemRequest.builder().description("request" + i)
+                    .requestor(requestor).created(now.minusMinutes(i)).build());
+            itemRepository.save(Item.builder().name("item" + i).description("description" + i).available(true)
+                    .owner(owner).request(request).build());
+            itemRepository.save(Item.builder().name("other" + i).description("other" + i).available(true)
+                    .owner(owner).request(request).build());
+            requestorId = requestor.getId();
+        }
+        itemRequestRepository.save(ItemRequest.builder().description("another").requestor(userRepository
+                .findById(requestorId).orElseThrow()).created(now.minusDays(1)).build());
+        // the users are read once, as by any earlier call, and stay in the entity cache
+        userRepository.findById(userId);
+        userRepository.findById(requestorId);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics.clear();
+    }
+
+    // the requests and their items
+    @Test
+    void shouldReadOwnRequestsWithConstantNumberOfStatements() throws Exception {
+        MvcResult result = mockMvc.perform(get("/requests").header("X-Sharer-User-Id", requestorId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[*].items[*]", hasSize(2)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void shouldReadCursorPageOfOwnRequestsWithConstantNumberOfStatements() throws Exception {
+        mockMvc.perform(get("/requests?cursor=&size=1").header("X-Sharer-User-Id", requestorId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    // the page of requests and their items, without counting all requests
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5, REQUESTS})
+    void shouldReadPageOfRequestsWithSameNumberOfStatementsForAnySize(int size) throws Exception {
+        mockMvc.perform(get("/requests/all?from=0&size=" + size).header("X-Sharer-User-Id", userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(size)))
+                .andExpect(jsonPath("$[*].items[*]", hasSize(2 * size)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    // every request of the other users is read exactly once while following the cursors
+    @Test
+    void shouldWalkThroughRequestsOfOtherUsersByCursorWithConstantNumberOfStatementsPerPage() throws Exception {
+        Set<Integer> seen = new HashSet<>();
+        String cursor = "";
+        int pages = 0;
+        while (cursor != null) {
+            statistics.clear();
+            MvcResult result = mockMvc.perform(get("/requests/all")
+                            .param("cursor", cursor)
+                            .param("size", "6")
+                            .header("X-Sharer-User-Id", userId))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            assertEquals(2, statistics.getPrepareStatementCount());
+            List<Integer> ids = JsonPath.read(result.getResponse().getContentAsString(), "$[*].id");
+            ids.forEach(id -> assertTrue(seen.add(id), () -> "Request " + id + " is read twice"));
+            cursor = result.getResponse().getHeader(CursorPage.NEXT_CURSOR_HEADER);
+            pages++;
+        }
+        assertEquals(REQUESTS + 1, seen.size());
+        assertEquals(4, pages);
+    }
+}
@@ -0,0 +1,105 @@
+package ru.practicum.shareit.requests.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class ItemRequestRepositoryTest {
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private final LocalDateTime created = LocalDateTime.of(2022, 9, 1, 12, 0);
+    private User requestor;
+    private User another;
+    private ItemRequest oldest;
+    private ItemRequest sameTimeFirst;
+    private ItemRequest sameTimeSecond;
+    private ItemRequest newest;
+
+    @BeforeEach
+    void setUp() {
+        requestor = em.persist(User.builder().name("requestor").email("requestor@mail.ru").build());
+        another = em.persist(User.builder().name("another").email("another@mail.ru").build());
+        oldest = persistRequest(requestor, created.minusDays(1));
+        sameTimeFirst = persistRequest(requestor, created);
+        sameTimeSecond = persistRequest(requestor, created);
+        newest = persistRequest(requestor, created.plusDays(1));
+        persistRequest(another, created.plusDays(2));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void shouldStreamRequestsOfUserFromNewest() {
+        try (Stream<ItemRequest> requests = itemRequestRepository
+                .streamAllByRequestorIdOrderByCreatedDescIdDesc(requestor.getId())) {
+            assertEquals(ids(newest, sameTimeSecond, sameTimeFirst, oldest),
+                    requests.map(ItemRequest::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void shouldReturnFirstPageOfRequestsOfUser() {
+        assertEquals(ids(newest, sameTimeSecond), toIds(itemRequestRepository
+                .findAllByRequestorIdOrderByCreatedDescIdDesc(requestor.getId(), PageRequest.of(0, 2))));
+    }
+
+    @Test
+    void shouldReturnRequestsAfterCursorWithSameCreationTime() {
+        assertEquals(ids(sameTimeFirst, oldest), toIds(itemRequestRepository.findAllByRequestorIdAfter(
+                requestor.getId(), created, sameTimeSecond.getId(), PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void shouldReturnSliceOfOtherRequestsWithoutTotal() {
+        Slice<ItemRequest> slice = itemRequestRepository.findAllByRequestorIdNot(another.getId(),
+                PageRequest.of(0, 3, Sort.by(Sort.Order.desc("created"), Sort.Order.desc("id"))));
+        assertEquals(ids(newest, sameTimeSecond, sameTimeFirst), toIds(slice.getContent()));
+        assertTrue(slice.hasNext());
+        assertFalse(slice instanceof Page);
+    }
+
+    @Test
+    void shouldReturnFirstPageOfOtherRequests() {
+        assertEquals(ids(newest, sameTimeSecond), toIds(itemRequestRepository
+                .findAllByRequestorIdNotOrderByCreatedDescIdDesc(another.getId(), PageRequest.of(0, 2))));
+    }
+
+    @Test
+    void shouldReturnOtherRequestsAfterCursorWithSameCreationTime() {
+        assertEquals(ids(sameTimeFirst, oldest), toIds(itemRequestRepository.findAllByRequestorIdNotAfter(
+                another.getId(), created, sameTimeSecond.getId(), PageRequest.of(0, 10))));
+    }
+
+    private ItemRequest persistRequest(User user, LocalDateTime time) {
+        return em.persist(ItemRequest.builder().description("request").requestor(user).created(time).build());
+    }
+
+    private static List<Long> ids(ItemRequest... requests) {
+        return toIds(List.of(requests));
+    }
+
+    private static List<Long> toIds(List<ItemRequest> requests) {
+        return requests.stream().map(ItemRequest::getId).collect(Collectors.toList());
+    }
+}
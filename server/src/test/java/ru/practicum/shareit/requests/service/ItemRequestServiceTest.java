@@ -7,11 +7,18 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemDtoAnswer;
 import ru.practicum.shareit.item.dto.ItemMapperImpl;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.CursorPage;
+import ru.practicum.shareit.pagination.KeysetCursor;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswer;
 import ru.practicum.shareit.requests.dto.ItemRequestDtoAnswerFull;
@@ -21,14 +28,18 @@ import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +52,8 @@ public class ItemRequestServiceTest {
     private ItemRepository itemRepository;
     @Mock
     private UserServiceImpl userService;
+    @Mock
+    private EntityManager entityManager;
     @Spy
     private ItemRequestMapperImpl itemRequestMapper;
     @Spy
@@ -80,14 +93,71 @@ public class ItemRequestServiceTest {
     // getAllItemRequestsOfUser
     @Test
     public void shouldReturnListOfItemRequestDtoAnswerFullWhenWeCallGetAllItemRequestsOfUser() {
-        when(userService.getEntityUserByIdFromStorage(1L)).thenReturn(user1);
-        when(itemRequestsRepository.getItemRequestsByRequestor(user1))
-                .thenReturn(List.of(itemRequest1, itemRequest2));
-        when(itemRepository.findAllByRequest(itemRequest1)).thenReturn(Collections.emptyList());
-        when(itemRepository.findAllByRequest(itemRequest2)).thenReturn(List.of(item1));
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRequestsRepository.streamAllByRequestorIdOrderByCreatedDescIdDesc(1L))
+                .thenReturn(Stream.of(itemRequest1, itemRequest2));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(1L, 2L))).thenReturn(List.of(item1));
         List<ItemRequestDtoAnswerFull> listToCheck = List.of(itemRequestDtoAnswerFull1, itemRequestDtoAnswerFull2);
         List<ItemRequestDtoAnswerFull> result = itemRequestService.getAllItemRequestsOfUser(1L);
         assertEquals(listToCheck, result);
+        Mockito.verify(entityManager, Mockito.times(1)).clear();
+    }
+
+    @Test
+    public void shouldNotLookForItemsWhenUserHasNoRequests() {
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRequestsRepository.streamAllByRequestorIdOrderByCreatedDescIdDesc(1L)).thenReturn(Stream.empty());
+        assertEquals(Collections.emptyList(), itemRequestService.getAllItemRequestsOfUser(1L));
+        Mockito.verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenUserOfRequestsNotExists() {
+        when(userService.isUserExists(999L)).thenReturn(false);
+        RuntimeException re = assertThrows(NotFoundException.class,
+                () -> itemRequestService.getAllItemRequestsOfUser(999L));
+        assertEquals("User with id = 999 not found", re.getMessage());
+        Mockito.verifyNoInteractions(itemRequestsRepository);
+    }
+
+    @Test
+    public void shouldNotCheckUserAgainWhenStreamingRequests() {
+        when(itemRequestsRepository.streamAllByRequestorIdOrderByCreatedDescIdDesc(1L)).thenReturn(Stream.empty());
+        itemRequestService.forEachItemRequestOfUser(1L, x -> {
+        });
+        Mockito.verifyNoInteractions(userService);
+    }
+
+    // getItemRequestsOfUserByCursor
+    @Test
+    public void shouldThrowExceptionWhenSizeOfCursorPageIsNotPositive() {
+        RuntimeException re = assertThrows(ValidationException.class,
+                () -> itemRequestService.getItemRequestsOfUserByCursor(1L, "", 0));
+        assertEquals("'size' must be positive", re.getMessage());
+    }
+
+    @Test
+    public void shouldReturnFirstPageWithCursorOfItsLastRequest() {
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRequestsRepository.findAllByRequestorIdOrderByCreatedDescIdDesc(1L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(itemRequest1, itemRequest2));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(1L))).thenReturn(Collections.emptyList());
+        CursorPage<ItemRequestDtoAnswerFull> page = itemRequestService.getItemRequestsOfUserByCursor(1L, "", 1);
+        assertEquals(List.of(itemRequestDtoAnswerFull1), page.getContent());
+        assertEquals(new KeysetCursor(itemRequest1.getCreated(), 1L), KeysetCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    public void shouldReturnLastPageAfterCursorWithoutNextCursor() {
+        KeysetCursor cursor = new KeysetCursor(itemRequest1.getCreated(), 1L);
+        when(userService.isUserExists(1L)).thenReturn(true);
+        when(itemRequestsRepository.findAllByRequestorIdAfter(1L, itemRequest1.getCreated(), 1L,
+                PageRequest.of(0, 6))).thenReturn(List.of(itemRequest2));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(2L))).thenReturn(List.of(item1));
+        CursorPage<ItemRequestDtoAnswerFull> page = itemRequestService.getItemRequestsOfUserByCursor(1L,
+                cursor.encode(), 5);
+        assertEquals(List.of(itemRequestDtoAnswerFull2), page.getContent());
+        assertNull(page.getNextCursor());
     }
 
     // getAllItemRequestsByParams
@@ -97,18 +167,58 @@ public class ItemRequestServiceTest {
         assertEquals(Collections.emptyList(), result);
     }
 
-//    @Test
-//    public void shouldReturnListOfItemRequestDtoAnswerFullWhenWeCallGetAllItemRequestsByParams() {
-//        Page<ItemRequest> page = new PageImpl<>(List.of(itemRequest1, itemRequest2));
-//        when(userService.getEntityUserByIdFromStorage(2L)).thenReturn(user2);
-//        when(itemRequestsRepository.findAllByRequestorNotLike(eq(user2), any(Pageable.class)))
-//                .thenReturn(page);
-//        when(itemRepository.findAllByRequest(itemRequest1)).thenReturn(Collections.emptyList());
-//        when(itemRepository.findAllByRequest(itemRequest2)).thenReturn(List.of(item1));
-//        List<ItemRequestDtoAnswerFull> listToCheck = List.of(itemRequestDtoAnswerFull1, itemRequestDtoAnswerFull2);
-//        List<ItemRequestDtoAnswerFull> result = itemRequestService.getAllItemRequestsByParams(2L, 0, 5);
-//        assertEquals(listToCheck, result);
-//    }
+    @Test
+    public void shouldReturnListOfItemRequestDtoAnswerFullWhenWeCallGetAllItemRequestsByParams() {
+        Slice<ItemRequest> slice = new SliceImpl<>(List.of(itemRequest1, itemRequest2));
+        when(userService.isUserExists(2L)).thenReturn(true);
+        when(itemRequestsRepository.findAllByRequestorIdNot(2L, PageRequest.of(0, 5,
+                Sort.by(Sort.Order.desc("created"), Sort.Order.desc("id"))))).thenReturn(slice);
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(1L, 2L))).thenReturn(List.of(item1));
+        List<ItemRequestDtoAnswerFull> listToCheck = List.of(itemRequestDtoAnswerFull1, itemRequestDtoAnswerFull2);
+        List<ItemRequestDtoAnswerFull> result = itemRequestService.getAllItemRequestsByParams(2L, 0, 5);
+        assertEquals(listToCheck, result);
+    }
+
+    @Test
+    public void shouldThrowExceptionWhenUserOfPageOfOtherRequestsNotExists() {
+        when(userService.isUserExists(999L)).thenReturn(false);
+        RuntimeException re = assertThrows(NotFoundException.class,
+                () -> itemRequestService.getAllItemRequestsByParams(999L, 0, 5));
+        assertEquals("User with id = 999 not found", re.getMessage());
+        verifyNoInteractions(itemRequestsRepository);
+    }
+
+    // getAllItemRequestsByCursor
+    @Test
+    public void shouldThrowExceptionWhenSizeOfCursorPageOfOtherRequestsIsNotPositive() {
+        RuntimeException re = assertThrows(ValidationException.class,
+                () -> itemRequestService.getAllItemRequestsByCursor(2L, "", -1));
+        assertEquals("'size' must be positive", re.getMessage());
+    }
+
+    @Test
+    public void shouldReturnFirstPageOfOtherRequestsWithCursorOfItsLastRequest() {
+        when(userService.isUserExists(2L)).thenReturn(true);
+        when(itemRequestsRepository.findAllByRequestorIdNotOrderByCreatedDescIdDesc(2L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(itemRequest1, itemRequest2));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(1L))).thenReturn(List.of(item1));
+        CursorPage<ItemRequestDtoAnswerFull> page = itemRequestService.getAllItemRequestsByCursor(2L, "", 1);
+        assertEquals(List.of(itemRequestDtoAnswerFull1), page.getContent());
+        assertEquals(new KeysetCursor(itemRequest1.getCreated(), 1L), KeysetCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    public void shouldReturnLastPageOfOtherRequestsAfterCursorWithoutNextCursor() {
+        KeysetCursor cursor = new KeysetCursor(itemRequest1.getCreated(), 1L);
+        when(userService.isUserExists(2L)).thenReturn(true);
+        when(itemRequestsRepository.findAllByRequestorIdNotAfter(2L, cursor.getPosition(), 1L, PageRequest.of(0, 6)))
+                .thenReturn(List.of(itemRequest2));
+        when(itemRepository.findAllByRequestIdInOrderById(List.of(2L))).thenReturn(List.of(item1));
+        CursorPage<ItemRequestDtoAnswerFull> page = itemRequestService.getAllItemRequestsByCursor(2L,
+                cursor.encode(), 5);
+        assertEquals(List.of(itemRequestDtoAnswerFull2), page.getContent());
+        assertNull(page.getNextCursor());
+    }
 
     // getItemRequest
     @Test
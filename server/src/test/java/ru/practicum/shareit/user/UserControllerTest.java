@@ -6,6 +6,8 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -14,19 +16,24 @@ import ru.practicum.shareit.user.service.UserService;
 
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import ru.practicum.shareit.version.ResourceVersions;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(controllers = UserController.class)
+@WebMvcTest(controllers = UserController.class, properties = ResourceVersions.ENABLED_PROPERTY + "=true")
+@Import(ResourceVersions.class)
 public class UserControllerTest {
     @Autowired
     ObjectMapper objectMapper;
@@ -72,6 +79,22 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.email", is(userDtoAnswer1.getEmail()), String.class));
     }
 
+    @Test
+    public void shouldAnswerNotModifiedToMatchingETagWithoutReadingUser() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userDtoAnswer1);
+        String tag = mockMvc.perform(get("/users/{userId}", 1))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/users/{userId}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"other\", " + tag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, tag));
+        mockMvc.perform(get("/users/{userId}", 1).header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id", is(userDtoAnswer1.getId()), Long.class));
+        verify(userService, times(2)).getUserById(1L);
+    }
+
     // createUser
     @Test
     public void shouldReturnUserDtoAfterCreated() throws Exception {
@@ -10,6 +10,7 @@ import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.existence.LiveIds;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserDtoAnswer;
 import ru.practicum.shareit.user.dto.UserMapperImpl;
@@ -29,6 +30,8 @@ public class UserServiceTest {
     private UserRepository userRepository;
     @Spy
     private UserMapperImpl userMapper;
+    @Spy
+    private LiveIds liveIds;
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -90,7 +93,7 @@ public class UserServiceTest {
     // createUser
     @Test
     public void shouldThrowValidationExceptionWhenUserExistsInStorage() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         UserDto userDto = UserDto.builder().id(1L).name("user1").email("user1@mail.ru").build();
         Assertions.assertThrows(ValidationException.class, () -> userService.createUser(userDto));
     }
@@ -149,19 +152,27 @@ public class UserServiceTest {
 
     // isUserExists
     @Test
-    public void shouldCallExistsByIdFromRepositoryAndReturnTrueWhenWeCallIsUserExists() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+    public void shouldCallFindByIdFromRepositoryAndReturnTrueWhenWeCallIsUserExists() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user1));
         boolean answer = userService.isUserExists(1L);
-        Mockito.verify(userRepository, Mockito.times(1)).existsById(1L);
+        Mockito.verify(userRepository, Mockito.times(1)).findById(1L);
         Assertions.assertTrue(answer);
     }
 
     @Test
-    public void shouldCallExistsByIdFromRepositoryAndReturnFalseWhenWeCallIsUserExists() {
-        when(userRepository.existsById(1L)).thenReturn(false);
+    public void shouldCallFindByIdFromRepositoryAndReturnFalseWhenWeCallIsUserExists() {
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
         boolean answer = userService.isUserExists(1L);
-        Mockito.verify(userRepository, Mockito.times(1)).existsById(1L);
+        Mockito.verify(userRepository, Mockito.times(1)).findById(1L);
         Assertions.assertFalse(answer);
     }
 
+    @Test
+    public void shouldNotLookUpUserWhenIdSurelyDoesNotExist() {
+        liveIds.getUsers().add(1L);
+        liveIds.getUsers().markLoaded();
+        Assertions.assertFalse(userService.isUserExists(999L));
+        Assertions.assertThrows(NotFoundException.class, () -> userService.getEntityUserByIdFromStorage(999L));
+        Mockito.verifyNoInteractions(userRepository);
+    }
 }
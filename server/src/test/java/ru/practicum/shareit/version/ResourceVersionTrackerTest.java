@@ -0,0 +1,149 @@
+package ru.practicum.shareit.version;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:resourceVersions",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        ResourceVersions.ENABLED_PROPERTY + "=true"
+})
+@AutoConfigureMockMvc
+class ResourceVersionTrackerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private Statistics statistics;
+    private User owner;
+    private User guest;
+    private ItemRequest request;
+    private Item item;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder().name("owner").email(UUID.randomUUID() + "@mail.ru").build());
+        guest = userRepository.save(User.builder().name("guest").email(UUID.randomUUID() + "@mail.ru").build());
+        request = itemRequestRepository.save(ItemRequest.builder().description("request").requestor(guest)
+                .created(LocalDateTime.now()).build());
+        item = itemRepository.save(Item.builder().name("item").description("description").available(true)
+                .owner(owner).request(request).build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldAnswerUnchangedResourcesWithNotModifiedWithoutTouchingStorage() throws Exception {
+        String itemTag = tagOf("/items/" + item.getId(), guest);
+        String requestTag = tagOf("/requests/" + request.getId(), guest);
+        String userTag = tagOf("/users/" + owner.getId(), null);
+        statistics.clear();
+
+        assertNotModified("/items/" + item.getId(), guest, itemTag);
+        assertNotModified("/requests/" + request.getId(), guest, requestTag);
+        assertNotModified("/users/" + owner.getId(), null, userTag);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount() + statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void shouldRenewTagsOfItemAndItsRequestWhenItemIsChanged() throws Exception {
+        String itemTag = tagOf("/items/" + item.getId(), guest);
+        String requestTag = tagOf("/requests/" + request.getId(), guest);
+        String userTag = tagOf("/users/" + owner.getId(), null);
+
+        mockMvc.perform(patch("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"renamed\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", guest.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, itemTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("renamed"));
+        mockMvc.perform(get("/requests/{requestId}", request.getId()).header("X-Sharer-User-Id", guest.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, requestTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("renamed"));
+        assertNotModified("/users/" + owner.getId(), null, userTag);
+    }
+
+    @Test
+    void shouldRenewTagOfRequestWhenItemsAreImportedForIt() throws Exception {
+        String requestTag = tagOf("/requests/" + request.getId(), guest);
+
+        mockMvc.perform(post("/items/import").header("X-Sharer-User-Id", owner.getId())
+                        .contentType("application/x-ndjson")
+                        .content(String.format("{\"name\": \"imported\", \"description\": \"imported\", "
+                                + "\"available\": true, \"requestId\": %d}%n", request.getId())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1));
+
+        mockMvc.perform(get("/requests/{requestId}", request.getId()).header("X-Sharer-User-Id", guest.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, requestTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+    }
+
+    // the name of a user may be shown in any answer, as the author of a comment
+    @Test
+    void shouldRenewAllTagsWhenUserIsChanged() throws Exception {
+        String itemTag = tagOf("/items/" + item.getId(), guest);
+
+        mockMvc.perform(patch("/users/{userId}", owner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"renamed\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/items/{itemId}", item.getId()).header("X-Sharer-User-Id", guest.getId())
+                        .header(HttpHeaders.IF_NONE_MATCH, itemTag))
+                .andExpect(status().isOk());
+    }
+
+    private String tagOf(String path, User user) throws Exception {
+        return mockMvc.perform(withUser(get(path), user))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void assertNotModified(String path, User user, String tag) throws Exception {
+        mockMvc.perform(withUser(get(path), user).header(HttpHeaders.IF_NONE_MATCH, tag))
+                .andExpect(status().isNotModified());
+    }
+
+    private static MockHttpServletRequestBuilder withUser(MockHttpServletRequestBuilder request, User user) {
+        return user == null ? request : request.header("X-Sharer-User-Id", user.getId());
+    }
+}